@@ -9,9 +9,6 @@ import com.example.routerkonfiguralo.databinding.ActivityAddRouterBinding;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class AddRouterActivity extends AppCompatActivity {
     private ActivityAddRouterBinding binding;
     private FirebaseFirestore db;
@@ -24,8 +21,8 @@ public class AddRouterActivity extends AppCompatActivity {
         setContentView(binding.getRoot());
 
         // Initialize Firebase instances
-        db = FirebaseFirestore.getInstance();
-        mAuth = FirebaseAuth.getInstance();
+        db = RouterApplication.firestore();
+        mAuth = RouterApplication.auth();
 
         // Set up the submit button click listener
         binding.submitButton.setOnClickListener(v -> saveRouterData());
@@ -43,28 +40,20 @@ public class AddRouterActivity extends AppCompatActivity {
         String model = binding.modelInput.getText().toString().trim();
         String firmwareVersion = binding.firmwareVersionInput.getText().toString().trim();
 
+        Router router = new Router(name, ipAddress, username, password, model);
+        router.setFirmwareVersion(firmwareVersion);
+        router.setTimestamp(System.currentTimeMillis());
+
         // Validate inputs
-        if (name.isEmpty() || ipAddress.isEmpty() || username.isEmpty() || 
-            password.isEmpty() || model.isEmpty()) {
-            Toast.makeText(this, "Please fill all required fields", Toast.LENGTH_SHORT).show();
+        String error = RouterValidator.validate(router);
+        if (error != null) {
+            Toast.makeText(this, error, Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // Create a new router document
-        Map<String, Object> router = new HashMap<>();
-        router.put("name", name);
-        router.put("ipAddress", ipAddress);
-        router.put("username", username);
-        router.put("password", password);
-        router.put("model", model);
-        router.put("firmwareVersion", firmwareVersion);
-        router.put("isOnline", false);
-        router.put("userId", userId);
-        router.put("timestamp", System.currentTimeMillis());
-
         // Add the router to Firestore
-        db.collection("routers")
-                .add(router)
+        db.collection(RouterCodec.COLLECTION)
+                .add(RouterDocuments.encode(router, userId))
                 .addOnSuccessListener(documentReference -> {
                     Toast.makeText(AddRouterActivity.this, 
                             "Router added successfully", Toast.LENGTH_SHORT).show();
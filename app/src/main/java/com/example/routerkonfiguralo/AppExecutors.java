@@ -0,0 +1,46 @@
+package com.example.routerkonfiguralo;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide executors shared by the activities and the service.
+ */
+public final class AppExecutors {
+    private static final ExecutorService DISK_IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "router-disk-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService LIST_PREPARATION = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "router-list-preparation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+    private static final Executor MAIN_THREAD = MAIN_HANDLER::post;
+
+    private AppExecutors() {
+    }
+
+    /** Single thread for SQLite and file access, so writes are applied in submission order. */
+    public static ExecutorService diskIO() {
+        return DISK_IO;
+    }
+
+    /**
+     * Single thread that decodes Firestore documents and merges and sorts the router list, so the
+     * UI only receives finished lists. State confined to this thread needs no locking.
+     */
+    public static ExecutorService listPreparation() {
+        return LIST_PREPARATION;
+    }
+
+    public static Executor mainThread() {
+        return MAIN_THREAD;
+    }
+}
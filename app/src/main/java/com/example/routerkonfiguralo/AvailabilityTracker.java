@@ -0,0 +1,168 @@
+package com.example.routerkonfiguralo;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps an {@link UptimeRollup} per router in memory for the list screen. A router's rollup is
+ * built from its {@link StatusHistory} the first time it is asked for, and from then on updated by
+ * the notification service with every status it records. Only the {@link #MAX_ROLLUPS} most
+ * recently asked for are kept; others are built again from the history when needed.
+ * <p>
+ * The history only holds each router's latest records, so after a restart the rollups cover less
+ * than their nominal windows. Descriptions then name the time actually covered instead of a
+ * window it falls short of. Rollups are updated from the service's ingest thread and queried from
+ * the list preparation and disk threads, never from the UI thread.
+ */
+public class AvailabilityTracker {
+    private static final String TAG = "AvailabilityTracker";
+    static final int MAX_ROLLUPS = 1000;
+    private static final String[] WINDOW_LABELS = {"24h", "7d", "30d"};
+
+    private static AvailabilityTracker instance;
+
+    private final StatusHistory history;
+    // Least recently used first
+    private final Map<String, UptimeRollup> rollups = new LinkedHashMap<String, UptimeRollup>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, UptimeRollup> eldest) {
+            return size() > MAX_ROLLUPS;
+        }
+    };
+
+    public static synchronized AvailabilityTracker getInstance(Context context) {
+        if (instance == null) {
+            StatusHistory history = null;
+            try {
+                history = StatusHistory.getInstance(context);
+            } catch (IOException e) {
+                // Rollups then only cover what is observed from now on
+                Log.e(TAG, "Error opening status history: " + e.getMessage(), e);
+            }
+            instance = new AvailabilityTracker(history);
+        }
+        return instance;
+    }
+
+    private AvailabilityTracker(StatusHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Applies a status observation to a router's rollup if it is already built. Record it in the
+     * history first, so a rollup built in between sees it; the repeated observation is a no-op.
+     */
+    public synchronized void record(String routerId, long timeMillis, boolean online) {
+        UptimeRollup rollup = rollups.get(routerId);
+        if (rollup != null) rollup.record(timeMillis, online);
+    }
+
+    public synchronized void forget(String routerId) {
+        rollups.remove(routerId);
+    }
+
+    /** A router's 24 hour, 7 day and 30 day availability as one line for its list row. */
+    public synchronized String describe(String routerId, long nowMillis) {
+        UptimeRollup rollup = rollup(routerId);
+        return describeWindows(rollup.last24Hours(nowMillis), rollup.last7Days(nowMillis),
+                rollup.last30Days(nowMillis));
+    }
+
+    /**
+     * Availability, outages and mean time to recovery of a whole fleet, summed over its routers.
+     * Routers without a kept rollup are replayed from the history into one reused rollup, without
+     * holding the lock the ingest thread needs, so memory does not grow with the fleet. Call it
+     * off the UI thread.
+     */
+    public String describeFleet(Collection<String> routerIds, long nowMillis) {
+        UptimeRollup.Stats day = new UptimeRollup.Stats();
+        UptimeRollup.Stats week = new UptimeRollup.Stats();
+        UptimeRollup.Stats month = new UptimeRollup.Stats();
+        UptimeRollup scratch = new UptimeRollup();
+        for (String routerId : routerIds) {
+            synchronized (this) {
+                UptimeRollup rollup = rollups.get(routerId);
+                if (rollup != null) {
+                    addWindows(rollup, nowMillis, day, week, month);
+                    continue;
+                }
+            }
+            scratch.clear();
+            replay(routerId, scratch);
+            addWindows(scratch, nowMillis, day, week, month);
+        }
+        StringBuilder text = new StringBuilder("Fleet availability: ")
+                .append(describeWindows(day, week, month))
+                .append("\nOutages in 24h: ").append(day.outages);
+        long mttr = week.meanTimeToRecoveryMillis();
+        if (mttr >= 0) {
+            text.append(" \u00b7 MTTR (7d): ").append(formatDuration(mttr));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Describes the 24 hour, 7 day and 30 day windows. A window that is not fully observed is
+     * labelled with the time observed instead, and the longer ones are left out, since they would
+     * cover the same history.
+     */
+    static String describeWindows(UptimeRollup.Stats day, UptimeRollup.Stats week, UptimeRollup.Stats month) {
+        UptimeRollup.Stats[] windows = {day, week, month};
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < windows.length; i++) {
+            UptimeRollup.Stats stats = windows[i];
+            if (i > 0) text.append(" \u00b7 ");
+            if (stats.observedMillis == 0 || stats.observedMillis >= stats.windowMillis) {
+                text.append(WINDOW_LABELS[i]).append(' ').append(percent(stats));
+            } else {
+                text.append(formatDuration(stats.observedMillis)).append(' ').append(percent(stats));
+                break;
+            }
+        }
+        return text.toString();
+    }
+
+    private static void addWindows(UptimeRollup rollup, long nowMillis, UptimeRollup.Stats day,
+                                   UptimeRollup.Stats week, UptimeRollup.Stats month) {
+        day.add(rollup.last24Hours(nowMillis));
+        week.add(rollup.last7Days(nowMillis));
+        month.add(rollup.last30Days(nowMillis));
+    }
+
+    private UptimeRollup rollup(String routerId) {
+        UptimeRollup rollup = rollups.get(routerId);
+        if (rollup == null) {
+            rollup = new UptimeRollup();
+            replay(routerId, rollup);
+            rollups.put(routerId, rollup);
+        }
+        return rollup;
+    }
+
+    private void replay(String routerId, UptimeRollup rollup) {
+        if (history != null) {
+            history.read(routerId, Long.MIN_VALUE, Long.MAX_VALUE,
+                    (time, rtt, flags) -> rollup.record(time, (flags & StatusHistory.FLAG_ONLINE) != 0));
+        }
+    }
+
+    private static String percent(UptimeRollup.Stats stats) {
+        double availability = stats.availability();
+        return Double.isNaN(availability) ? "n/a" : String.format(Locale.ROOT, "%.1f%%", availability * 100);
+    }
+
+    static String formatDuration(long millis) {
+        long minutes = millis / UptimeRollup.MINUTE;
+        if (minutes < 1) return (millis / 1000) + "s";
+        if (minutes < 60) return minutes + "m";
+        long hours = minutes / 60;
+        if (hours < 48) return hours + "h " + (minutes % 60) + "m";
+        return (hours / 24) + "d " + (hours % 24) + "h";
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.routerkonfiguralo;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.routerkonfiguralo.databinding.ActivityBulkPushBinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes one set of settings to a selection of routers through {@link ConfigPushJob}, showing
+ * live progress and a per-router result summary. Routers come from the local cache kept by the
+ * router list.
+ */
+public class BulkPushActivity extends AppCompatActivity {
+    private static final String TAG = "BulkPushActivity";
+
+    private ActivityBulkPushBinding binding;
+    private List<Router> routers = new ArrayList<>();
+    private boolean[] selected = new boolean[0];
+    private ConfigPushJob pushJob;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        binding = ActivityBulkPushBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle("Push Configuration");
+        }
+
+        binding.selectRoutersButton.setOnClickListener(v -> showRouterSelection());
+        binding.startPushButton.setOnClickListener(v -> startPush());
+        binding.cancelPushButton.setOnClickListener(v -> {
+            if (pushJob != null) pushJob.cancel();
+            binding.cancelPushButton.setEnabled(false);
+        });
+        loadRouters();
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        finish();
+        return true;
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (pushJob != null) {
+            pushJob.cancel();
+        }
+    }
+
+    private void loadRouters() {
+        String userId = RouterApplication.auth().getCurrentUser().getUid();
+        AppExecutors.diskIO().execute(() -> {
+            try {
+                List<Router> cached = RouterCache.getInstance(this).loadRouters(userId);
+                cached.sort(Router.BY_NAME);
+                AppExecutors.mainThread().execute(() -> {
+                    routers = cached;
+                    selected = new boolean[cached.size()];
+                    updateSelectionLabel();
+                    if (cached.isEmpty()) {
+                        showToast("No routers cached yet; open the router list once to sync them");
+                    }
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading routers: " + e.getMessage(), e);
+                AppExecutors.mainThread().execute(() -> showToast("Error loading routers: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void showRouterSelection() {
+        if (routers.isEmpty()) {
+            showToast("No routers to select");
+            return;
+        }
+
+        String[] labels = new String[routers.size()];
+        for (int i = 0; i < labels.length; i++) {
+            Router router = routers.get(i);
+            labels[i] = router.getName() + " (" + router.getIpAddress() + ")";
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Select Routers")
+                .setMultiChoiceItems(labels, selected, (dialog, which, isChecked) -> selected[which] = isChecked)
+                .setPositiveButton("OK", (dialog, which) -> updateSelectionLabel())
+                .setNeutralButton("All", (dialog, which) -> {
+                    Arrays.fill(selected, true);
+                    updateSelectionLabel();
+                })
+                .show();
+    }
+
+    private void updateSelectionLabel() {
+        int count = 0;
+        for (boolean isSelected : selected) {
+            if (isSelected) count++;
+        }
+        binding.selectRoutersButton.setText("Select Routers (" + count + " of " + routers.size() + ")");
+    }
+
+    private void startPush() {
+        Map<String, String> settings = parseSettings(binding.settingsInput.getText().toString());
+        if (settings == null) {
+            showToast("Enter settings as key=value, one per line");
+            return;
+        }
+
+        int concurrency;
+        try {
+            concurrency = Integer.parseInt(binding.concurrencyInput.getText().toString().trim());
+        } catch (NumberFormatException e) {
+            concurrency = 0;
+        }
+        if (concurrency < 1 || concurrency > 64) {
+            showToast("Parallel connections must be between 1 and 64");
+            return;
+        }
+
+        List<ConfigPushJob.Target> targets = new ArrayList<>();
+        for (int i = 0; i < routers.size(); i++) {
+            if (selected[i]) targets.add(ConfigPushJob.Target.of(routers.get(i)));
+        }
+        if (targets.isEmpty()) {
+            showToast("Select at least one router");
+            return;
+        }
+
+        setRunning(true);
+        binding.pushProgress.setMax(targets.size());
+        binding.pushProgress.setProgressCompat(0, false);
+        binding.progressText.setText("Pushing to " + targets.size() + " routers...");
+        binding.resultsText.setText("");
+
+        pushJob = new ConfigPushJob(concurrency, ConfigPushJob.DEFAULT_TIMEOUT_MILLIS,
+                ConfigPushJob.DEFAULT_MAX_ATTEMPTS, ConfigPushJob.DEFAULT_INITIAL_BACKOFF_MILLIS);
+        pushJob.start(targets, settings, new ConfigPushJob.ProgressListener() {
+            @Override
+            public void onResult(ConfigPushJob.PushResult result, int completed, int total) {
+                AppExecutors.mainThread().execute(() -> {
+                    if (isDestroyed()) return;
+                    binding.pushProgress.setProgressCompat(completed, true);
+                    binding.progressText.setText(completed + " of " + total + " done");
+                    binding.resultsText.append(formatResult(result) + "\n");
+                });
+            }
+
+            @Override
+            public void onComplete(List<ConfigPushJob.PushResult> results) {
+                AppExecutors.mainThread().execute(() -> {
+                    if (isDestroyed()) return;
+                    setRunning(false);
+                    binding.progressText.setText(summarize(results));
+                });
+            }
+        });
+    }
+
+    private void setRunning(boolean running) {
+        binding.startPushButton.setEnabled(!running);
+        binding.selectRoutersButton.setEnabled(!running);
+        binding.cancelPushButton.setEnabled(running);
+    }
+
+    /** Parses "key=value" lines; returns null if any non-blank line is malformed or none is given. */
+    static Map<String, String> parseSettings(String text) {
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (String line : text.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            int equals = line.indexOf('=');
+            if (equals <= 0) return null;
+            settings.put(line.substring(0, equals).trim(), line.substring(equals + 1).trim());
+        }
+        return settings.isEmpty() ? null : settings;
+    }
+
+    private static String formatResult(ConfigPushJob.PushResult result) {
+        String line = result.status + "  " + result.target.name + " (" + result.target.address + ")";
+        if (result.status != ConfigPushJob.Status.SUCCESS) {
+            line += ": " + result.message;
+        }
+        if (result.attempts > 1) {
+            line += ", " + result.attempts + " attempts";
+        }
+        return line;
+    }
+
+    private static String summarize(List<ConfigPushJob.PushResult> results) {
+        Map<ConfigPushJob.Status, Integer> counts = new EnumMap<>(ConfigPushJob.Status.class);
+        for (ConfigPushJob.PushResult result : results) {
+            Integer count = counts.get(result.status);
+            counts.put(result.status, count == null ? 1 : count + 1);
+        }
+        StringBuilder summary = new StringBuilder("Finished:");
+        for (Map.Entry<ConfigPushJob.Status, Integer> entry : counts.entrySet()) {
+            summary.append(' ').append(entry.getValue()).append(' ')
+                    .append(entry.getKey().name().toLowerCase().replace('_', ' ')).append(',');
+        }
+        summary.setLength(summary.length() - 1);
+        return summary.toString();
+    }
+
+    private void showToast(String message) {
+        Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+    }
+}
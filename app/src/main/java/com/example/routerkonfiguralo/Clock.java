@@ -0,0 +1,8 @@
+package com.example.routerkonfiguralo;
+
+/**
+ * Millisecond time source, injectable so time-based policies can be tested with a fake clock.
+ */
+public interface Clock {
+    long millis();
+}
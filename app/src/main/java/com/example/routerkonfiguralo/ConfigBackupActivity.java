@@ -0,0 +1,215 @@
+package com.example.routerkonfiguralo;
+
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.text.format.DateFormat;
+import android.text.format.Formatter;
+import android.util.Log;
+import android.widget.ArrayAdapter;
+import android.widget.ScrollView;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.routerkonfiguralo.databinding.ActivityConfigBackupsBinding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lists the configuration backups of one router, newest first, and shows any version or the diff
+ * between two versions.
+ */
+public class ConfigBackupActivity extends AppCompatActivity {
+    private static final String TAG = "ConfigBackupActivity";
+
+    private ActivityConfigBackupsBinding binding;
+    private ConfigBackupManager backupManager;
+    private String routerId;
+    private Router router;
+    private ArrayAdapter<String> versionAdapter;
+    private final List<ConfigBackupStore.Version> versions = new ArrayList<>();
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        binding = ActivityConfigBackupsBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle("Configuration Backups");
+        }
+
+        routerId = getIntent().getStringExtra("routerId");
+        if (routerId == null) {
+            Toast.makeText(this, "Router ID is missing", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
+        backupManager = ConfigBackupManager.getInstance(this);
+        versionAdapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, new ArrayList<>());
+        binding.versionList.setAdapter(versionAdapter);
+        binding.versionList.setOnItemClickListener((parent, view, position, id) ->
+                showVersionActions(versions.get(position)));
+        binding.backupNowButton.setEnabled(false);
+        binding.backupNowButton.setOnClickListener(v -> backupNow());
+
+        loadRouter();
+        loadVersions();
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        finish();
+        return true;
+    }
+
+    private void loadRouter() {
+        RouterApplication.firestore().collection(RouterCodec.COLLECTION).document(routerId)
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    if (!snapshot.exists()) {
+                        Toast.makeText(this, "Router not found in database", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    router = RouterDocuments.decode(snapshot);
+                    binding.routerTitle.setText(router.getName() + " (" + router.getIpAddress() + ")");
+                    binding.backupNowButton.setEnabled(true);
+                })
+                .addOnFailureListener(e -> Toast.makeText(this,
+                        "Error loading router: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+    }
+
+    private void backupNow() {
+        binding.backupNowButton.setEnabled(false);
+        backupManager.backupNow(router, new ConfigBackupManager.OnBackupListener() {
+            @Override
+            public void onBackup(ConfigBackupStore.Version version, boolean changed) {
+                if (isDestroyed()) return;
+                binding.backupNowButton.setEnabled(true);
+                Toast.makeText(ConfigBackupActivity.this, changed
+                        ? "Saved version " + version.number
+                        : "Configuration unchanged since version " + version.number, Toast.LENGTH_SHORT).show();
+                loadVersions();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (isDestroyed()) return;
+                binding.backupNowButton.setEnabled(true);
+                Toast.makeText(ConfigBackupActivity.this,
+                        "Backup failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    private void loadVersions() {
+        backupManager.executor().execute(() -> {
+            try {
+                ConfigBackupStore store = backupManager.store(routerId);
+                List<ConfigBackupStore.Version> loaded = new ArrayList<>(store.getVersions());
+                Collections.reverse(loaded);
+                long storedBytes = store.getStoredBytes();
+                AppExecutors.mainThread().execute(() -> showVersions(loaded, storedBytes));
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading backups: " + e.getMessage(), e);
+                AppExecutors.mainThread().execute(() -> Toast.makeText(this,
+                        "Error loading backups: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+            }
+        });
+    }
+
+    private void showVersions(List<ConfigBackupStore.Version> loaded, long storedBytes) {
+        if (isDestroyed()) return;
+        versions.clear();
+        versions.addAll(loaded);
+
+        List<String> labels = new ArrayList<>(loaded.size());
+        long rawBytes = 0;
+        for (ConfigBackupStore.Version version : loaded) {
+            rawBytes += version.size;
+            String label = "v" + version.number + "  "
+                    + DateFormat.format("yyyy-MM-dd HH:mm", version.timestamp) + "  "
+                    + Formatter.formatShortFileSize(this, version.size);
+            if (version.kind == ConfigBackupStore.Kind.DUPLICATE) {
+                label += "  (same as an earlier version)";
+            }
+            labels.add(label);
+        }
+        versionAdapter.clear();
+        versionAdapter.addAll(labels);
+        binding.storageText.setText(loaded.size() + " versions, "
+                + Formatter.formatShortFileSize(this, storedBytes) + " stored for "
+                + Formatter.formatShortFileSize(this, rawBytes) + " of configuration");
+    }
+
+    private void showVersionActions(ConfigBackupStore.Version version) {
+        List<String> actions = new ArrayList<>();
+        actions.add("View");
+        if (version.number > 1) actions.add("Diff with previous");
+        ConfigBackupStore.Version latest = versions.isEmpty() ? null : versions.get(0);
+        if (latest != null && latest.number != version.number) actions.add("Diff with latest");
+
+        new AlertDialog.Builder(this)
+                .setTitle("Version " + version.number)
+                .setItems(actions.toArray(new String[0]), (dialog, which) -> {
+                    String action = actions.get(which);
+                    if (action.equals("View")) {
+                        showText("Version " + version.number, version.number, -1);
+                    } else if (action.equals("Diff with previous")) {
+                        showText("v" + (version.number - 1) + " \u2192 v" + version.number,
+                                version.number - 1, version.number);
+                    } else {
+                        showText("v" + version.number + " \u2192 v" + latest.number,
+                                version.number, latest.number);
+                    }
+                })
+                .show();
+    }
+
+    /** Shows version {@code from}, or the diff from {@code from} to {@code to} when {@code to} > 0. */
+    private void showText(String title, int from, int to) {
+        backupManager.executor().execute(() -> {
+            try {
+                ConfigBackupStore store = backupManager.store(routerId);
+                String text;
+                if (to > 0) {
+                    List<String> diff = store.diff(from, to);
+                    if (diff == null) {
+                        text = "The versions differ in more than " + ConfigBackupStore.MAX_DIFF_EDITS + " lines";
+                    } else {
+                        text = diff.isEmpty() ? "No differences" : String.join("\n", diff);
+                    }
+                } else {
+                    text = new String(store.read(from), StandardCharsets.UTF_8);
+                }
+                AppExecutors.mainThread().execute(() -> {
+                    if (isDestroyed()) return;
+                    TextView textView = new TextView(this);
+                    textView.setText(text);
+                    textView.setTypeface(Typeface.MONOSPACE);
+                    textView.setTextIsSelectable(true);
+                    int padding = (int) (16 * getResources().getDisplayMetrics().density);
+                    textView.setPadding(padding, padding, padding, padding);
+                    ScrollView scrollView = new ScrollView(this);
+                    scrollView.addView(textView);
+                    new AlertDialog.Builder(this)
+                            .setTitle(title)
+                            .setView(scrollView)
+                            .setPositiveButton("Close", null)
+                            .show();
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error reading backup: " + e.getMessage(), e);
+                AppExecutors.mainThread().execute(() -> Toast.makeText(this,
+                        "Error reading backup: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+            }
+        });
+    }
+}
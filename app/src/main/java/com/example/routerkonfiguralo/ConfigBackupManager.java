@@ -0,0 +1,187 @@
+package com.example.routerkonfiguralo;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Takes configuration backups of routers and keeps one {@link ConfigBackupStore} per router under
+ * the app's files directory. The running configuration is read with an HTTP {@code GET /config}
+ * using the router's stored credentials, the counterpart of {@link ConfigPushJob}'s push.
+ * <p>
+ * All work runs on one background thread, so stores are never written concurrently.
+ */
+public class ConfigBackupManager {
+    private static final String TAG = "ConfigBackupManager";
+    // Excluded from backups in res/xml, since configurations contain secrets
+    private static final String BACKUP_DIR = "config-backups";
+    public static final long BACKUP_INTERVAL = 24 * 60 * 60 * 1000; // 1 day
+    private static final long DUE_CHECK_INTERVAL = 60 * 60 * 1000; // 1 hour
+    // Routers due within this margin are backed up too, so an inexact daily alarm that fires a
+    // little early does not skip them until the day after
+    private static final long DUE_SLACK = 60 * 60 * 1000; // 1 hour
+    private static final int TIMEOUT_MILLIS = 10 * 1000;
+    private static final int MAX_CONFIG_BYTES = 4 * 1024 * 1024;
+
+    public interface OnBackupListener {
+        /** Called on the main thread; {@code changed} is false when the configuration was unchanged. */
+        void onBackup(ConfigBackupStore.Version version, boolean changed);
+
+        void onError(Exception e);
+    }
+
+    private static ConfigBackupManager instance;
+
+    private final Context context;
+    private final File root;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "config-backup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Both maps are confined to the executor thread
+    private final Map<String, ConfigBackupStore> stores = new HashMap<>();
+    private final Map<String, Long> lastChecked = new HashMap<>();
+    private volatile long lastDueCheck;
+
+    public static synchronized ConfigBackupManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new ConfigBackupManager(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ConfigBackupManager(Context context) {
+        this.context = context;
+        this.root = new File(context.getFilesDir(), BACKUP_DIR);
+    }
+
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    /** Backs up one router now, whenever its last backup was taken. */
+    public void backupNow(Router router, OnBackupListener listener) {
+        executor.execute(() -> {
+            try {
+                ConfigBackupStore store = store(router.getId());
+                ConfigBackupStore.Version previous = store.getLatest();
+                long now = System.currentTimeMillis();
+                ConfigBackupStore.Version version = store.add(fetchConfig(router), now);
+                boolean changed = version != previous;
+                lastChecked.put(router.getId(), now);
+                AppExecutors.mainThread().execute(() -> listener.onBackup(version, changed));
+            } catch (Exception e) {
+                Log.e(TAG, "Error backing up " + router.getId() + ": " + e.getMessage(), e);
+                AppExecutors.mainThread().execute(() -> listener.onError(e));
+            }
+        });
+    }
+
+    /**
+     * Backs up every cached router of the user whose last backup is older than
+     * {@link #BACKUP_INTERVAL}. Meant for a daily schedule, since it reads the whole router cache;
+     * calls within an hour of the last one are ignored.
+     */
+    public void backupDue(String userId) {
+        long now = System.currentTimeMillis();
+        if (now - lastDueCheck < DUE_CHECK_INTERVAL) return;
+        lastDueCheck = now;
+
+        executor.execute(() -> {
+            List<Router> routers = RouterCache.getInstance(context).loadRouters(userId);
+            int backedUp = 0;
+            for (Router router : routers) {
+                try {
+                    ConfigBackupStore store = store(router.getId());
+                    ConfigBackupStore.Version latest = store.getLatest();
+                    // An unchanged configuration adds no version, so successful checks are
+                    // remembered separately; after a restart that costs at most one extra fetch
+                    Long checkedAt = lastChecked.get(router.getId());
+                    long lastBackup = Math.max(latest != null ? latest.timestamp : 0,
+                            checkedAt != null ? checkedAt : 0);
+                    if (now - lastBackup < BACKUP_INTERVAL - DUE_SLACK) continue;
+
+                    store.add(fetchConfig(router), now);
+                    lastChecked.put(router.getId(), now);
+                    backedUp++;
+                } catch (Exception e) {
+                    Log.d(TAG, "Scheduled backup of " + router.getId() + " failed: " + e.getMessage());
+                }
+            }
+            Log.d(TAG, "Scheduled backups taken: " + backedUp + " of " + routers.size());
+        });
+    }
+
+    /** Returns the store of one router; call on {@link #executor()}. */
+    public ConfigBackupStore store(String routerId) throws IOException {
+        ConfigBackupStore store = stores.get(routerId);
+        if (store == null) {
+            store = new ConfigBackupStore(directory(routerId));
+            stores.put(routerId, store);
+        }
+        return store;
+    }
+
+    public void deleteBackups(String routerId) {
+        executor.execute(() -> {
+            stores.remove(routerId);
+            lastChecked.remove(routerId);
+            File directory = directory(routerId);
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        });
+    }
+
+    private File directory(String routerId) {
+        // Firestore IDs are alphanumeric, but never let an ID escape the backup directory
+        return new File(root, routerId.replaceAll("[^A-Za-z0-9_-]", "_"));
+    }
+
+    private static byte[] fetchConfig(Router router) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) ConfigPushJob.configUrl(router.getIpAddress())
+                .openConnection();
+        try {
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setUseCaches(false);
+            connection.setInstanceFollowRedirects(false);
+            connection.setRequestProperty("Authorization",
+                    ConfigPushJob.basicAuth(router.getUsername(), router.getPassword()));
+
+            int code = connection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Router answered HTTP " + code);
+            }
+            try (InputStream in = connection.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    if (out.size() + read > MAX_CONFIG_BYTES) {
+                        throw new IOException("Configuration larger than " + MAX_CONFIG_BYTES + " bytes");
+                    }
+                    out.write(buffer, 0, read);
+                }
+                return out.toByteArray();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.routerkonfiguralo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Versioned configuration backups of one router, kept in a directory as an append-only pack file
+ * plus a line-per-version index.
+ * <p>
+ * Each version is stored as one of:
+ * <ul>
+ * <li>FULL: the whole configuration, deflated. Written for the first version, then whenever the
+ * delta chain reaches {@link #MAX_CHAIN} so any version is at most that many deltas from a full
+ * copy.</li>
+ * <li>DELTA: a deflated {@link ConfigDelta} against the previous version.</li>
+ * <li>DUPLICATE: only an index line pointing at an earlier version with the same SHA-256, e.g.
+ * after a change was reverted.</li>
+ * </ul>
+ * A backup identical to the latest version adds nothing, so storage grows with the amount of
+ * change rather than with the number of backups.
+ * <p>
+ * Records are appended to the pack before their index line, so an interrupted write leaves at
+ * most unreferenced pack bytes. Plain Java, so it can run in JVM tests.
+ */
+public class ConfigBackupStore {
+    public static final int MAX_CHAIN = 16;
+    /** Diffs of versions further apart than this many changed lines are not computed. */
+    public static final int MAX_DIFF_EDITS = 5000;
+
+    private static final String PACK_FILE = "pack";
+    private static final String INDEX_FILE = "index";
+
+    public enum Kind {
+        FULL,
+        DELTA,
+        DUPLICATE
+    }
+
+    public static class Version {
+        public final int number;
+        public final long timestamp;
+        public final String sha256;
+        public final Kind kind;
+        /** Raw configuration size in bytes. */
+        public final int size;
+        /** Bytes this version added to the pack; 0 for duplicates. */
+        public final int storedSize;
+        /** Base version for DELTA, original version for DUPLICATE, -1 for FULL. */
+        final int ref;
+        final long offset;
+        final int chainLength;
+
+        Version(int number, long timestamp, String sha256, Kind kind, int size, int storedSize, int ref,
+                long offset, int chainLength) {
+            this.number = number;
+            this.timestamp = timestamp;
+            this.sha256 = sha256;
+            this.kind = kind;
+            this.size = size;
+            this.storedSize = storedSize;
+            this.ref = ref;
+            this.offset = offset;
+            this.chainLength = chainLength;
+        }
+    }
+
+    private final File packFile;
+    private final File indexFile;
+    private final List<Version> versions = new ArrayList<>();
+    private final Map<String, Version> versionsByHash = new HashMap<>();
+    private long packLength;
+    // Most recently materialised version; reading forward through a chain reuses it
+    private int cachedNumber = -1;
+    private byte[] cachedContent;
+
+    public ConfigBackupStore(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.packFile = new File(directory, PACK_FILE);
+        this.indexFile = new File(directory, INDEX_FILE);
+        this.packLength = packFile.length();
+        loadIndex();
+    }
+
+    public synchronized List<Version> getVersions() {
+        return Collections.unmodifiableList(new ArrayList<>(versions));
+    }
+
+    /** Latest version, or null when nothing has been backed up yet. */
+    public synchronized Version getLatest() {
+        return versions.isEmpty() ? null : versions.get(versions.size() - 1);
+    }
+
+    public synchronized long getStoredBytes() {
+        return packLength + indexFile.length();
+    }
+
+    /**
+     * Stores a backup and returns its version. Returns the latest version unchanged when the
+     * configuration is identical to it.
+     */
+    public synchronized Version add(byte[] config, long timestamp) throws IOException {
+        String sha256 = sha256(config);
+        Version latest = getLatest();
+        if (latest != null && latest.sha256.equals(sha256)) {
+            return latest;
+        }
+
+        int number = versions.size() + 1;
+        Version existing = versionsByHash.get(sha256);
+        Version version;
+        if (existing != null) {
+            version = new Version(number, timestamp, sha256, Kind.DUPLICATE, config.length, 0,
+                    existing.number, -1, existing.chainLength);
+        } else {
+            byte[] full = deflate(config);
+            byte[] record = full;
+            Kind kind = Kind.FULL;
+            int ref = -1;
+            int chainLength = 0;
+            if (latest != null && latest.chainLength < MAX_CHAIN) {
+                byte[] delta = deflate(ConfigDelta.create(read(latest.number), config));
+                if (delta.length < full.length) {
+                    record = delta;
+                    kind = Kind.DELTA;
+                    ref = latest.number;
+                    chainLength = latest.chainLength + 1;
+                }
+            }
+            long offset = append(record);
+            version = new Version(number, timestamp, sha256, kind, config.length, record.length,
+                    ref, offset, chainLength);
+        }
+
+        appendIndex(version);
+        addVersion(version);
+        cachedNumber = number;
+        cachedContent = config;
+        return version;
+    }
+
+    /** Returns the configuration stored as {@code number}; the array must not be modified. */
+    public synchronized byte[] read(int number) throws IOException {
+        if (number < 1 || number > versions.size()) {
+            throw new IllegalArgumentException("No version " + number);
+        }
+        if (number == cachedNumber) return cachedContent;
+
+        Version version = versions.get(number - 1);
+        byte[] content;
+        switch (version.kind) {
+            case DUPLICATE:
+                content = read(version.ref);
+                break;
+            case DELTA:
+                content = ConfigDelta.apply(read(version.ref), inflate(readRecord(version), -1));
+                break;
+            default:
+                content = inflate(readRecord(version), version.size);
+                break;
+        }
+        if (content.length != version.size) {
+            throw new IOException("Version " + number + " is corrupt");
+        }
+        cachedNumber = number;
+        cachedContent = content;
+        return content;
+    }
+
+    /**
+     * Unified line diff from version {@code from} to version {@code to}, or null if more than
+     * {@link #MAX_DIFF_EDITS} lines changed, which would take too long to diff and to read.
+     */
+    public synchronized List<String> diff(int from, int to) throws IOException {
+        String a = new String(read(from), StandardCharsets.UTF_8);
+        String b = new String(read(to), StandardCharsets.UTF_8);
+        return LineDiff.unified(a, b, 3, MAX_DIFF_EDITS);
+    }
+
+    private void addVersion(Version version) {
+        versions.add(version);
+        if (version.kind != Kind.DUPLICATE) {
+            versionsByHash.put(version.sha256, version);
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        if (!indexFile.exists()) return;
+
+        byte[] index = new byte[(int) indexFile.length()];
+        try (RandomAccessFile file = new RandomAccessFile(indexFile, "r")) {
+            file.readFully(index);
+        }
+        int validLength = 0;
+        int lineStart = 0;
+        for (int i = 0; i < index.length; i++) {
+            if (index[i] != '\n') continue;
+            Version version = parseIndexLine(new String(index, lineStart, i - lineStart, StandardCharsets.UTF_8));
+            if (version == null) break;
+            addVersion(version);
+            lineStart = i + 1;
+            validLength = lineStart;
+        }
+
+        // Drop a torn last line, or lines whose pack bytes never reached the disk, so the next
+        // append starts on a clean line
+        if (validLength < index.length) {
+            try (RandomAccessFile file = new RandomAccessFile(indexFile, "rw")) {
+                file.setLength(validLength);
+            }
+        }
+    }
+
+    private Version parseIndexLine(String line) {
+        String[] fields = line.split("\t");
+        if (fields.length != 7) return null;
+        try {
+            int number = versions.size() + 1;
+            Kind kind = Kind.valueOf(fields[2]);
+            int size = Integer.parseInt(fields[3]);
+            int ref = Integer.parseInt(fields[4]);
+            long offset = Long.parseLong(fields[5]);
+            int storedSize = Integer.parseInt(fields[6]);
+            if (kind != Kind.DUPLICATE && (offset < 0 || offset + storedSize > packLength)) return null;
+            if (kind != Kind.FULL && (ref < 1 || ref >= number)) return null;
+
+            int chainLength = kind == Kind.FULL ? 0
+                    : versions.get(ref - 1).chainLength + (kind == Kind.DELTA ? 1 : 0);
+            return new Version(number, Long.parseLong(fields[0]), fields[1], kind, size, storedSize,
+                    ref, offset, chainLength);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void appendIndex(Version version) throws IOException {
+        String line = version.timestamp + "\t" + version.sha256 + "\t" + version.kind + "\t" + version.size
+                + "\t" + version.ref + "\t" + version.offset + "\t" + version.storedSize + "\n";
+        try (FileOutputStream out = new FileOutputStream(indexFile, true)) {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write(line);
+            writer.flush();
+            out.getFD().sync();
+        }
+    }
+
+    private long append(byte[] record) throws IOException {
+        long offset = packLength;
+        try (FileOutputStream out = new FileOutputStream(packFile, true)) {
+            out.write(record);
+            out.getFD().sync();
+        }
+        packLength += record.length;
+        return offset;
+    }
+
+    private byte[] readRecord(Version version) throws IOException {
+        byte[] record = new byte[version.storedSize];
+        try (RandomAccessFile file = new RandomAccessFile(packFile, "r")) {
+            file.seek(version.offset);
+            file.readFully(record);
+        }
+        return record;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** Inflates a record; {@code expectedSize} sizes the buffer when known, otherwise -1. */
+    private static byte[] inflate(byte[] data, int expectedSize) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(expectedSize >= 0 ? expectedSize : data.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated backup record");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt backup record", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
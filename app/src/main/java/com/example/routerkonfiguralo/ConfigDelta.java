@@ -0,0 +1,203 @@
+package com.example.routerkonfiguralo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Binary delta between two versions of a file, as a list of COPY (range of the base) and INSERT
+ * (literal bytes) instructions. Matches are found by indexing the base in fixed blocks and
+ * sliding a rolling hash over the target, so a small edit anywhere costs roughly its own size
+ * plus a few bytes per instruction.
+ */
+final class ConfigDelta {
+    private static final int BLOCK = 16;
+    private static final int PRIME = 31;
+    private static final int OP_INSERT = 0;
+    private static final int OP_COPY = 1;
+
+    private ConfigDelta() {
+    }
+
+    static byte[] create(byte[] base, byte[] target) {
+        Output out = new Output(target.length / 8 + 16);
+        out.writeVarint(target.length);
+        if (base.length < BLOCK || target.length < BLOCK) {
+            out.insert(target, 0, target.length);
+            return out.toByteArray();
+        }
+
+        // Open-addressed table of block hash -> first base offset + 1
+        int blocks = base.length / BLOCK;
+        int[] table = new int[Integer.highestOneBit(blocks * 2 - 1) << 1];
+        int[] hashes = new int[table.length];
+        int mask = table.length - 1;
+        for (int offset = 0; offset + BLOCK <= base.length; offset += BLOCK) {
+            int hash = hash(base, offset);
+            int slot = mix(hash) & mask;
+            while (table[slot] != 0 && hashes[slot] != hash) slot = (slot + 1) & mask;
+            if (table[slot] == 0) {
+                table[slot] = offset + 1;
+                hashes[slot] = hash;
+            }
+        }
+
+        int power = 1;
+        for (int i = 1; i < BLOCK; i++) power *= PRIME;
+
+        int literalStart = 0;
+        int pos = 0;
+        int hash = hash(target, 0);
+        while (pos + BLOCK <= target.length) {
+            int match = find(table, hashes, mask, hash);
+            if (match >= 0 && equalBlock(base, match, target, pos)) {
+                int baseStart = match;
+                int start = pos;
+                // Grow the match backwards into the pending literal, then forwards
+                while (start > literalStart && baseStart > 0 && base[baseStart - 1] == target[start - 1]) {
+                    start--;
+                    baseStart--;
+                }
+                int end = pos + BLOCK;
+                int baseEnd = match + BLOCK;
+                while (end < target.length && baseEnd < base.length && base[baseEnd] == target[end]) {
+                    end++;
+                    baseEnd++;
+                }
+
+                out.insert(target, literalStart, start - literalStart);
+                out.copy(baseStart, end - start);
+                pos = end;
+                literalStart = end;
+                if (pos + BLOCK <= target.length) hash = hash(target, pos);
+            } else {
+                if (pos + BLOCK < target.length) {
+                    hash = (hash - target[pos] * power) * PRIME + target[pos + BLOCK];
+                }
+                pos++;
+            }
+        }
+        out.insert(target, literalStart, target.length - literalStart);
+        return out.toByteArray();
+    }
+
+    static byte[] apply(byte[] base, byte[] delta) throws IOException {
+        Input in = new Input(delta);
+        int length = in.readVarint();
+        byte[] result = new byte[length];
+        int pos = 0;
+        while (in.hasMore()) {
+            int op = in.readByte();
+            int count;
+            if (op == OP_INSERT) {
+                count = in.readVarint();
+                checkRange(pos, count, length);
+                in.readBytes(result, pos, count);
+            } else if (op == OP_COPY) {
+                int offset = in.readVarint();
+                count = in.readVarint();
+                checkRange(pos, count, length);
+                checkRange(offset, count, base.length);
+                System.arraycopy(base, offset, result, pos, count);
+            } else {
+                throw new IOException("Corrupt delta: unknown op " + op);
+            }
+            pos += count;
+        }
+        if (pos != length) throw new IOException("Corrupt delta: " + pos + " of " + length + " bytes");
+        return result;
+    }
+
+    private static int find(int[] table, int[] hashes, int mask, int hash) {
+        int slot = mix(hash) & mask;
+        while (table[slot] != 0) {
+            if (hashes[slot] == hash) return table[slot] - 1;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static boolean equalBlock(byte[] base, int baseOffset, byte[] target, int targetOffset) {
+        for (int i = 0; i < BLOCK; i++) {
+            if (base[baseOffset + i] != target[targetOffset + i]) return false;
+        }
+        return true;
+    }
+
+    private static int hash(byte[] data, int offset) {
+        int hash = 0;
+        for (int i = 0; i < BLOCK; i++) hash = hash * PRIME + data[offset + i];
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void checkRange(int offset, int count, int length) throws IOException {
+        if (count < 0 || offset < 0 || offset > length - count) {
+            throw new IOException("Corrupt delta: range " + offset + "+" + count + " outside " + length);
+        }
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+        Output(int size) {
+            super(size);
+        }
+
+        void insert(byte[] data, int offset, int count) {
+            if (count == 0) return;
+            write(OP_INSERT);
+            writeVarint(count);
+            write(data, offset, count);
+        }
+
+        void copy(int offset, int count) {
+            write(OP_COPY);
+            writeVarint(offset);
+            writeVarint(count);
+        }
+
+        void writeVarint(int value) {
+            while ((value & ~0x7f) != 0) {
+                write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+    }
+
+    private static final class Input {
+        private final byte[] data;
+        private int pos;
+
+        Input(byte[] data) {
+            this.data = data;
+        }
+
+        boolean hasMore() {
+            return pos < data.length;
+        }
+
+        int readByte() throws IOException {
+            if (pos >= data.length) throw new IOException("Corrupt delta: truncated");
+            return data[pos++] & 0xff;
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Corrupt delta: varint too long");
+        }
+
+        void readBytes(byte[] target, int offset, int count) throws IOException {
+            if (count > data.length - pos) throw new IOException("Corrupt delta: truncated");
+            System.arraycopy(data, pos, target, offset, count);
+            pos += count;
+        }
+    }
+}
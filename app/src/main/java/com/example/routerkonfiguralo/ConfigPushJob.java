@@ -0,0 +1,381 @@
+package com.example.routerkonfiguralo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes one configuration change to many routers in parallel. Each router gets an HTTP
+ * {@code POST /config} with the settings as a form body and its stored credentials as Basic auth.
+ * <p>
+ * At most {@code maxConcurrency} requests are in flight at once. Connection failures, timeouts and
+ * 5xx/429 responses are retried up to {@code maxAttempts} times with exponential backoff and full
+ * jitter; waiting retries are scheduled rather than slept, so they do not hold a worker. Other
+ * 4xx responses, including bad credentials, fail the router at once.
+ * <p>
+ * Plain Java, so it can be tested against a local stub HTTP server.
+ */
+public class ConfigPushJob {
+    public static final String CONFIG_PATH = "/config";
+    public static final int DEFAULT_PORT = 80;
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+    public static final int DEFAULT_TIMEOUT_MILLIS = 5000;
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 500;
+    public static final long MAX_BACKOFF_MILLIS = 30 * 1000;
+
+    public enum Status {
+        SUCCESS,
+        AUTH_FAILED,
+        REJECTED,
+        TIMED_OUT,
+        UNREACHABLE,
+        CANCELLED
+    }
+
+    public interface ProgressListener {
+        /** Called once per router as soon as its outcome is final, on a worker thread. */
+        void onResult(PushResult result, int completed, int total);
+
+        /** Called once with every result in target order, after the last router finished. */
+        void onComplete(List<PushResult> results);
+    }
+
+    /** One router to push to, copied from its {@link Router} so the job never touches the model. */
+    public static class Target {
+        public final String routerId;
+        public final String name;
+        public final String address;
+        public final String username;
+        public final String password;
+
+        public Target(String routerId, String name, String address, String username, String password) {
+            this.routerId = routerId;
+            this.name = name;
+            this.address = address;
+            this.username = username;
+            this.password = password;
+        }
+
+        public static Target of(Router router) {
+            return new Target(router.getId(), router.getName(), router.getIpAddress(),
+                    router.getUsername(), router.getPassword());
+        }
+    }
+
+    public static class PushResult {
+        public final Target target;
+        public final Status status;
+        public final int attempts;
+        /** Last HTTP status code, or -1 when no response was received. */
+        public final int httpCode;
+        public final String message;
+        public final long elapsedMillis;
+
+        PushResult(Target target, Status status, int attempts, int httpCode, String message,
+                   long elapsedMillis) {
+            this.target = target;
+            this.status = status;
+            this.attempts = attempts;
+            this.httpCode = httpCode;
+            this.message = message;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+
+    private final int maxConcurrency;
+    private final int timeoutMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private volatile List<Attempt> attempts = Collections.emptyList();
+    private volatile ScheduledThreadPoolExecutor workers;
+
+    public ConfigPushJob() {
+        this(DEFAULT_MAX_CONCURRENCY, DEFAULT_TIMEOUT_MILLIS, DEFAULT_MAX_ATTEMPTS,
+                DEFAULT_INITIAL_BACKOFF_MILLIS);
+    }
+
+    public ConfigPushJob(int maxConcurrency, int timeoutMillis, int maxAttempts, long initialBackoffMillis) {
+        if (maxConcurrency <= 0 || timeoutMillis <= 0 || maxAttempts <= 0 || initialBackoffMillis < 0) {
+            throw new IllegalArgumentException("Invalid push options: concurrency=" + maxConcurrency
+                    + ", timeout=" + timeoutMillis + ", attempts=" + maxAttempts
+                    + ", backoff=" + initialBackoffMillis);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutMillis = timeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    /**
+     * Starts pushing {@code settings} to every target. A job runs once; create a new one per push.
+     */
+    public void start(List<Target> targets, Map<String, String> settings, ProgressListener listener) {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Push job already started");
+        }
+
+        int total = targets.size();
+        if (total == 0) {
+            listener.onComplete(Collections.emptyList());
+            return;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                Math.min(maxConcurrency, total), runnable -> {
+                    Thread thread = new Thread(runnable, "config-push-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.setRemoveOnCancelPolicy(true);
+        workers = executor;
+
+        byte[] body = encodeForm(settings);
+        Run run = new Run(total, listener);
+        List<Attempt> created = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            created.add(new Attempt(run, i, targets.get(i), body));
+        }
+        attempts = created;
+        for (Attempt attempt : created) {
+            executor.execute(attempt);
+        }
+    }
+
+    /**
+     * Stops starting new attempts. Requests already in flight finish; every router that has not
+     * reached a final result is reported as {@link Status#CANCELLED}.
+     */
+    public void cancel() {
+        if (!cancelled.compareAndSet(false, true) || workers == null) return;
+
+        // Run waiting retries now so they report CANCELLED instead of sitting out their backoff
+        for (Attempt attempt : attempts) {
+            ScheduledFuture<?> retry = attempt.pendingRetry;
+            if (retry != null && retry.cancel(false)) {
+                workers.execute(attempt);
+            }
+        }
+    }
+
+    /** Shared completion state of one {@link #start} call. */
+    private class Run {
+        final PushResult[] results;
+        final ProgressListener listener;
+        final AtomicInteger completed = new AtomicInteger();
+
+        Run(int total, ProgressListener listener) {
+            this.results = new PushResult[total];
+            this.listener = listener;
+        }
+
+        void finish(int index, PushResult result) {
+            results[index] = result;
+            int done = completed.incrementAndGet();
+            listener.onResult(result, done, results.length);
+            if (done == results.length) {
+                workers.shutdown();
+                List<PushResult> all = new ArrayList<>(results.length);
+                Collections.addAll(all, results);
+                listener.onComplete(all);
+            }
+        }
+    }
+
+    /** All attempts for one router; reschedules itself while the failure is retryable. */
+    private class Attempt implements Runnable {
+        final Run run;
+        final int index;
+        final Target target;
+        final byte[] body;
+        final long startedAt = System.nanoTime();
+        int number;
+        volatile ScheduledFuture<?> pendingRetry;
+
+        Attempt(Run run, int index, Target target, byte[] body) {
+            this.run = run;
+            this.index = index;
+            this.target = target;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            pendingRetry = null;
+            PushResult result = cancelled.get()
+                    ? result(target, Status.CANCELLED, number, -1, "Cancelled", startedAt)
+                    : push(target, body, ++number, startedAt);
+            if (result != null) {
+                run.finish(index, result);
+                return;
+            }
+
+            // Retryable failure; the worker is free while the backoff elapses
+            pendingRetry = workers.schedule(this, backoffMillis(number), TimeUnit.MILLISECONDS);
+            // cancel() may have swept the attempts before the retry was registered
+            if (cancelled.get() && pendingRetry.cancel(false)) {
+                workers.execute(this);
+            }
+        }
+    }
+
+    /**
+     * Makes one attempt; returns the final result, or null when the attempt should be retried.
+     */
+    private PushResult push(Target target, byte[] body, int attempt, long startedAt) {
+        URL url;
+        try {
+            url = configUrl(target.address);
+        } catch (IOException | IllegalArgumentException e) {
+            return result(target, Status.REJECTED, attempt, -1, "Invalid address: " + target.address, startedAt);
+        }
+
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setUseCaches(false);
+            connection.setInstanceFollowRedirects(false);
+            connection.setFixedLengthStreamingMode(body.length);
+            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+            connection.setRequestProperty("Authorization", basicAuth(target.username, target.password));
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+
+            int code = connection.getResponseCode();
+            drain(connection);
+            if (code >= 200 && code < 300) {
+                return result(target, Status.SUCCESS, attempt, code, "Applied", startedAt);
+            }
+            if (code == 401 || code == 403) {
+                return result(target, Status.AUTH_FAILED, attempt, code, "Login rejected", startedAt);
+            }
+            if (code >= 500 || code == 429) {
+                return retryOrFail(target, Status.REJECTED, attempt, code, "HTTP " + code, startedAt);
+            }
+            return result(target, Status.REJECTED, attempt, code, "HTTP " + code, startedAt);
+        } catch (SocketTimeoutException e) {
+            return retryOrFail(target, Status.TIMED_OUT, attempt, -1, "Timed out", startedAt);
+        } catch (IOException e) {
+            return retryOrFail(target, Status.UNREACHABLE, attempt, -1, String.valueOf(e.getMessage()), startedAt);
+        } finally {
+            if (connection != null) connection.disconnect();
+        }
+    }
+
+    private PushResult retryOrFail(Target target, Status status, int attempt, int httpCode, String message,
+                                   long startedAt) {
+        if (attempt < maxAttempts && !cancelled.get()) return null;
+        return result(target, status, attempt, httpCode, message, startedAt);
+    }
+
+    private static PushResult result(Target target, Status status, int attempts, int httpCode, String message,
+                                     long startedAt) {
+        return new PushResult(target, status, attempts, httpCode, message,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /** Full jitter: a random delay up to the exponential backoff for this attempt. */
+    long backoffMillis(int attempt) {
+        if (initialBackoffMillis == 0) return 0;
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Builds the config endpoint from a stored address: {@code host}, {@code host:port}, a bare
+     * IPv6 address, or a full {@code http(s)://} base URL.
+     */
+    static URL configUrl(String address) throws IOException {
+        if (address == null || address.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing address");
+        }
+        String base = address.trim();
+        if (!base.startsWith("http://") && !base.startsWith("https://")) {
+            int colon = base.lastIndexOf(':');
+            if (colon > 0 && base.indexOf(':') != colon && !base.startsWith("[")) {
+                // More than one colon: a bare IPv6 address without a port
+                base = "[" + base + "]:" + DEFAULT_PORT;
+            }
+            base = "http://" + base;
+        }
+        if (base.endsWith("/")) base = base.substring(0, base.length() - 1);
+        return new URL(base + CONFIG_PATH);
+    }
+
+    static byte[] encodeForm(Map<String, String> settings) {
+        StringBuilder form = new StringBuilder();
+        try {
+            for (Map.Entry<String, String> entry : new LinkedHashMap<>(settings).entrySet()) {
+                if (form.length() > 0) form.append('&');
+                form.append(URLEncoder.encode(entry.getKey(), "UTF-8"))
+                        .append('=')
+                        .append(URLEncoder.encode(entry.getValue(), "UTF-8"));
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+        return form.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String basicAuth(String username, String password) {
+        String credentials = (username != null ? username : "") + ":" + (password != null ? password : "");
+        return "Basic " + base64(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // java.util.Base64 needs API 26 and android.util.Base64 is not available in JVM tests
+    private static final char[] BASE64 =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    static String base64(byte[] data) {
+        StringBuilder out = new StringBuilder((data.length + 2) / 3 * 4);
+        for (int i = 0; i < data.length; i += 3) {
+            int b0 = data[i] & 0xff;
+            int b1 = i + 1 < data.length ? data[i + 1] & 0xff : 0;
+            int b2 = i + 2 < data.length ? data[i + 2] & 0xff : 0;
+            out.append(BASE64[b0 >> 2])
+                    .append(BASE64[(b0 << 4 | b1 >> 4) & 0x3f])
+                    .append(i + 1 < data.length ? BASE64[(b1 << 2 | b2 >> 6) & 0x3f] : '=')
+                    .append(i + 2 < data.length ? BASE64[b2 & 0x3f] : '=');
+        }
+        return out.toString();
+    }
+
+    /** Reads the response so the connection can be reused by the next request to the same router. */
+    private static void drain(HttpURLConnection connection) {
+        try (InputStream in = connection.getResponseCode() < 400
+                ? connection.getInputStream() : connection.getErrorStream()) {
+            if (in == null) return;
+            byte[] buffer = new byte[1024];
+            while (in.read(buffer) >= 0) {
+                // discard
+            }
+        } catch (IOException ignored) {
+            // The status code is all the job needs
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.routerkonfiguralo;
+
+import android.content.Context;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encrypts router credentials for storage on the device with AES-GCM.
+ * <p>
+ * The data key is random and stored in the no-backup files directory, wrapped by a key that
+ * never leaves the Android Keystore, so neither a backup nor a copied database can be decrypted
+ * elsewhere. The Keystore is only used once per process to unwrap the data key; encrypting and
+ * decrypting a value is then plain Java and cheap enough for every cached router.
+ */
+public final class CredentialCipher {
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String WRAPPING_KEY_ALIAS = "router-credentials";
+    private static final String DATA_KEY_FILE = "credential-key";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int KEY_BYTES = 32;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private static CredentialCipher instance;
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    public static synchronized CredentialCipher getInstance(Context context)
+            throws GeneralSecurityException, IOException {
+        if (instance == null) {
+            instance = new CredentialCipher(loadDataKey(new File(context.getNoBackupFilesDir(), DATA_KEY_FILE)));
+        }
+        return instance;
+    }
+
+    CredentialCipher(SecretKey key) {
+        this.key = key;
+    }
+
+    /** Encrypts a value as IV followed by ciphertext and tag; null stays null. */
+    public byte[] encrypt(String value) throws GeneralSecurityException {
+        if (value == null) return null;
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+        byte[] ciphertext = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        byte[] sealed = Arrays.copyOf(iv, IV_BYTES + ciphertext.length);
+        System.arraycopy(ciphertext, 0, sealed, IV_BYTES, ciphertext.length);
+        return sealed;
+    }
+
+    /** Decrypts a value from {@link #encrypt}; fails if it was altered or sealed with another key. */
+    public String decrypt(byte[] sealed) throws GeneralSecurityException {
+        if (sealed == null) return null;
+        if (sealed.length < IV_BYTES) throw new GeneralSecurityException("Sealed value too short");
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, sealed, 0, IV_BYTES));
+        return new String(cipher.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Unwraps the data key, or creates one if it is missing or can no longer be unwrapped, e.g.
+     * after the Keystore was reset. Values sealed with a lost key then fail to decrypt.
+     */
+    private static SecretKey loadDataKey(File file) throws GeneralSecurityException, IOException {
+        CredentialCipher wrapper = new CredentialCipher(wrappingKey());
+        if (file.exists()) {
+            byte[] wrapped = new byte[(int) file.length()];
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.readFully(wrapped);
+            }
+            try {
+                return new SecretKeySpec(wrapper.unwrap(wrapped), "AES");
+            } catch (GeneralSecurityException e) {
+                // Fall through and replace the key
+            }
+        }
+
+        byte[] dataKey = new byte[KEY_BYTES];
+        new SecureRandom().nextBytes(dataKey);
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(wrapper.wrap(dataKey));
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(file)) throw new IOException("Cannot write " + file);
+        return new SecretKeySpec(dataKey, "AES");
+    }
+
+    // Keystore keys choose their own IV, so the wrapped form is IV followed by ciphertext
+    private byte[] wrap(byte[] dataKey) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, key);
+        byte[] ciphertext = cipher.doFinal(dataKey);
+        byte[] iv = cipher.getIV();
+        byte[] wrapped = Arrays.copyOf(iv, iv.length + ciphertext.length);
+        System.arraycopy(ciphertext, 0, wrapped, iv.length, ciphertext.length);
+        return wrapped;
+    }
+
+    private byte[] unwrap(byte[] wrapped) throws GeneralSecurityException {
+        if (wrapped.length < IV_BYTES) throw new GeneralSecurityException("Wrapped key too short");
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, wrapped, 0, IV_BYTES));
+        return cipher.doFinal(wrapped, IV_BYTES, wrapped.length - IV_BYTES);
+    }
+
+    private static SecretKey wrappingKey() throws GeneralSecurityException, IOException {
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+        keyStore.load(null);
+        KeyStore.Entry entry = keyStore.getEntry(WRAPPING_KEY_ALIAS, null);
+        if (entry instanceof KeyStore.SecretKeyEntry) {
+            return ((KeyStore.SecretKeyEntry) entry).getSecretKey();
+        }
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEYSTORE);
+        generator.init(new KeyGenParameterSpec.Builder(WRAPPING_KEY_ALIAS,
+                KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                .setKeySize(256)
+                .build());
+        return generator.generateKey();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.routerkonfiguralo;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time from a {@link Reader}, so a file is never held in
+ * memory as a whole. Supports quoted fields with embedded commas, quotes and line breaks, and
+ * both LF and CRLF line endings. A leading byte order mark, as spreadsheet exports often write,
+ * is skipped. Also writes fields with the matching escaping.
+ */
+public class CsvRecordReader {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long recordNumber;
+    private boolean started;
+
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** Number of records returned so far; the 1-based number of the last record. */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /** Returns the next record's fields, or null at the end of the input. Blank lines are skipped. */
+    public List<String> next() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == '\uFEFF') read();
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        int c;
+        while ((c = read()) >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') read();
+                if (fields.isEmpty() && !fieldStarted && field.length() == 0) continue;
+                break;
+            } else {
+                field.append((char) c);
+                fieldStarted = true;
+            }
+        }
+        if (c < 0 && fields.isEmpty() && !fieldStarted && field.length() == 0) return null;
+
+        fields.add(field.toString());
+        recordNumber++;
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        limit = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    /** Appends one record, quoting fields that need it, followed by CRLF. */
+    public static void writeRecord(Appendable out, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) out.append(',');
+            String field = fields[i] != null ? fields[i] : "";
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0
+                    || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                out.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                out.append(field);
+            }
+        }
+        out.append("\r\n");
+    }
+}
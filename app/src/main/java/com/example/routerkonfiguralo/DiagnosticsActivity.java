@@ -0,0 +1,90 @@
+package com.example.routerkonfiguralo;
+
+import android.net.Uri;
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.routerkonfiguralo.databinding.ActivityDiagnosticsBinding;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Hidden screen showing the {@link MetricsRegistry} percentiles, opened by long-pressing the
+ * welcome text on the main screen. The snapshot can be exported as JSON to attach to bug reports.
+ */
+public class DiagnosticsActivity extends AppCompatActivity {
+    private static final String TAG = "DiagnosticsActivity";
+
+    private ActivityDiagnosticsBinding binding;
+
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/json"), this::exportSnapshot);
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        binding = ActivityDiagnosticsBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle("Diagnostics");
+        }
+
+        binding.refreshButton.setOnClickListener(v -> showMetrics());
+        binding.resetButton.setOnClickListener(v -> {
+            MetricsRegistry.getInstance().reset();
+            showMetrics();
+        });
+        binding.exportButton.setOnClickListener(v -> exportLauncher.launch("metrics-"
+                + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date()) + ".json"));
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showMetrics();
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        finish();
+        return true;
+    }
+
+    private void showMetrics() {
+        String text = MetricsRegistry.getInstance().toText();
+        binding.metricsText.setText(text.isEmpty() ? "No metrics recorded yet" : text);
+    }
+
+    private void exportSnapshot(Uri uri) {
+        if (uri == null) return;
+
+        // Taken now, so the file matches what is on screen rather than when the write finishes
+        String json = MetricsRegistry.getInstance().toJson(System.currentTimeMillis());
+        AppExecutors.diskIO().execute(() -> {
+            String message;
+            try (OutputStream output = getContentResolver().openOutputStream(uri, "wt")) {
+                if (output == null) throw new IOException("Cannot open " + uri);
+                output.write(json.getBytes(StandardCharsets.UTF_8));
+                message = "Metrics exported";
+            } catch (Exception e) {
+                Log.e(TAG, "Error exporting metrics: " + e.getMessage(), e);
+                message = "Export failed: " + e.getMessage();
+            }
+            String result = message;
+            AppExecutors.mainThread().execute(() ->
+                    Toast.makeText(getApplicationContext(), result, Toast.LENGTH_SHORT).show());
+        });
+    }
+}
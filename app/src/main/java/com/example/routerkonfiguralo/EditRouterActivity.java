@@ -1,5 +1,6 @@
 package com.example.routerkonfiguralo;
 
+import android.content.Intent;
 import android.os.Bundle;
 import android.util.Log;
 import android.widget.Toast;
@@ -12,7 +13,6 @@ import com.example.routerkonfiguralo.databinding.ActivityEditRouterBinding;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.util.HashMap;
 import java.util.Map;
 
 public class EditRouterActivity extends AppCompatActivity {
@@ -43,8 +43,8 @@ public class EditRouterActivity extends AppCompatActivity {
                 }
             });
 
-            db = FirebaseFirestore.getInstance();
-            mAuth = FirebaseAuth.getInstance();
+            db = RouterApplication.firestore();
+            mAuth = RouterApplication.auth();
             routerId = getIntent().getStringExtra("routerId");
 
             if (routerId == null) {
@@ -72,24 +72,19 @@ public class EditRouterActivity extends AppCompatActivity {
 
     private void loadRouterData() {
         try {
-            db.collection("routers").document(routerId)
+            db.collection(RouterCodec.COLLECTION).document(routerId)
                     .get()
                     .addOnSuccessListener(documentSnapshot -> {
                         try {
                             if (documentSnapshot.exists()) {
-                                String name = documentSnapshot.getString("name");
-                                String ipAddress = documentSnapshot.getString("ipAddress");
-                                String username = documentSnapshot.getString("username");
-                                String password = documentSnapshot.getString("password");
-                                String model = documentSnapshot.getString("model");
-                                String firmwareVersion = documentSnapshot.getString("firmwareVersion");
-
-                                if (name != null) binding.routerNameInput.setText(name);
-                                if (ipAddress != null) binding.routerIpInput.setText(ipAddress);
-                                if (username != null) binding.routerUsernameInput.setText(username);
-                                if (password != null) binding.routerPasswordInput.setText(password);
-                                if (model != null) binding.routerModelInput.setText(model);
-                                if (firmwareVersion != null) binding.routerFirmwareInput.setText(firmwareVersion);
+                                Router router = RouterDocuments.decode(documentSnapshot);
+
+                                if (router.getName() != null) binding.routerNameInput.setText(router.getName());
+                                if (router.getIpAddress() != null) binding.routerIpInput.setText(router.getIpAddress());
+                                if (router.getUsername() != null) binding.routerUsernameInput.setText(router.getUsername());
+                                if (router.getPassword() != null) binding.routerPasswordInput.setText(router.getPassword());
+                                if (router.getModel() != null) binding.routerModelInput.setText(router.getModel());
+                                if (router.getFirmwareVersion() != null) binding.routerFirmwareInput.setText(router.getFirmwareVersion());
                             } else {
                                 showError("Router not found in database");
                             }
@@ -107,6 +102,11 @@ public class EditRouterActivity extends AppCompatActivity {
 
     private void setupSaveButton() {
         binding.saveButton.setOnClickListener(v -> saveRouterData());
+        binding.backupsButton.setOnClickListener(v -> {
+            Intent intent = new Intent(this, ConfigBackupActivity.class);
+            intent.putExtra("routerId", routerId);
+            startActivity(intent);
+        });
     }
 
     private void saveRouterData() {
@@ -118,22 +118,19 @@ public class EditRouterActivity extends AppCompatActivity {
             String model = binding.routerModelInput.getText().toString().trim();
             String firmwareVersion = binding.routerFirmwareInput.getText().toString().trim();
 
-            if (name.isEmpty() || ipAddress.isEmpty() || username.isEmpty() || password.isEmpty() ||
-                    model.isEmpty() || firmwareVersion.isEmpty()) {
-                Toast.makeText(this, "Please fill in all fields", Toast.LENGTH_SHORT).show();
+            Router router = new Router(name, ipAddress, username, password, model);
+            router.setFirmwareVersion(firmwareVersion);
+            router.setTimestamp(System.currentTimeMillis());
+
+            String error = RouterValidator.validate(router);
+            if (error != null) {
+                Toast.makeText(this, error, Toast.LENGTH_SHORT).show();
                 return;
             }
+            Map<String, Object> updates = RouterCodec.encodeSettings(router);
+            updates.put(RouterCodec.FIELD_USER_ID, mAuth.getCurrentUser().getUid());
 
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("name", name);
-            updates.put("ipAddress", ipAddress);
-            updates.put("username", username);
-            updates.put("password", password);
-            updates.put("model", model);
-            updates.put("firmwareVersion", firmwareVersion);
-            updates.put("userId", mAuth.getCurrentUser().getUid());
-
-            db.collection("routers").document(routerId)
+            db.collection(RouterCodec.COLLECTION).document(routerId)
                     .update(updates)
                     .addOnSuccessListener(aVoid -> {
                         Toast.makeText(this, "Router updated successfully", Toast.LENGTH_SHORT).show();
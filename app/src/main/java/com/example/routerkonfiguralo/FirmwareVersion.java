@@ -0,0 +1,116 @@
+package com.example.routerkonfiguralo;
+
+import java.util.Arrays;
+
+/**
+ * Turns vendor firmware strings into sort keys that order by version number rather than by text,
+ * so "10.2" sorts after "9.1". The key is the sequence of numeric components: "v7.14.2" gives
+ * [7, 14, 2] and "1.0.3 Build 230512" gives [1, 0, 3, 230512]. Digits inside a word, such as the
+ * model in "AC1200 v2.1", are not components. A pre-release word adds a negative marker, so
+ * "7.14.2-rc1" gives [7, 14, 2, RC, 1] and sorts before "7.14.2".
+ * Keys are parsed once per {@link Router}, which makes comparing them allocation-free.
+ */
+public final class FirmwareVersion {
+    // Longer versions are compared by their first components only
+    static final int MAX_COMPONENTS = 8;
+
+    // Pre-release markers sort below the end of a key, which sorts below every number
+    static final long ALPHA = -4;
+    static final long BETA = -3;
+    static final long RELEASE_CANDIDATE = -2;
+    private static final long END = -1;
+
+    private FirmwareVersion() {
+    }
+
+    /**
+     * Returns the components of a version, or null if it has no numeric component. Components
+     * too large for a long saturate at {@link Long#MAX_VALUE}.
+     */
+    public static long[] parse(String version) {
+        if (version == null) return null;
+
+        long[] components = new long[MAX_COMPONENTS];
+        int count = 0;
+        boolean preRelease = false;
+        int length = version.length();
+        int i = 0;
+        while (i < length && count < MAX_COMPONENTS) {
+            char c = version.charAt(i);
+            if (isDigit(c)) {
+                long value = 0;
+                for (; i < length && isDigit(version.charAt(i)); i++) {
+                    int digit = version.charAt(i) - '0';
+                    value = value > (Long.MAX_VALUE - digit) / 10 ? Long.MAX_VALUE : value * 10 + digit;
+                }
+                components[count++] = value;
+            } else if (Character.isLetter(c)) {
+                int start = i;
+                while (i < length && Character.isLetter(version.charAt(i))) i++;
+                long marker = count > 0 && !preRelease ? preReleaseMarker(version, start, i) : 0;
+                if (marker < 0) {
+                    // Digits right after the word number the pre-release, as in "rc2"
+                    components[count++] = marker;
+                    preRelease = true;
+                } else if (i - start > 1 || (c != 'v' && c != 'V')) {
+                    // Digits glued to any other word but a lone "v" belong to the word, as in "AC1200"
+                    while (i < length && isDigit(version.charAt(i))) i++;
+                }
+            } else {
+                i++;
+            }
+        }
+        if (count == 0) return null;
+        return Arrays.copyOf(components, count);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static long preReleaseMarker(String version, int start, int end) {
+        String word = version.substring(start, end);
+        if (word.equalsIgnoreCase("alpha")) return ALPHA;
+        if (word.equalsIgnoreCase("beta")) return BETA;
+        if (word.equalsIgnoreCase("rc") || word.equalsIgnoreCase("pre") || word.equalsIgnoreCase("preview")) {
+            return RELEASE_CANDIDATE;
+        }
+        return 0;
+    }
+
+    /**
+     * Compares keys component by component. A key that is a prefix of another sorts first, so
+     * "1.2" comes before "1.2.1", unless the other continues with a pre-release marker, so
+     * "1.2-beta" comes before "1.2". Null keys sort last.
+     */
+    public static int compareKeys(long[] a, long[] b) {
+        if (a == b) return 0;
+        if (a == null) return 1;
+        if (b == null) return -1;
+
+        int length = Math.max(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            long x = i < a.length ? a[i] : END;
+            long y = i < b.length ? b[i] : END;
+            if (x != y) return Long.compare(x, y);
+        }
+        return 0;
+    }
+
+    /**
+     * Encodes a key as {@link #MAX_COMPONENTS} components of 8 big-endian bytes, padded with the
+     * end marker and with the sign bit flipped, so byte-wise comparison, as SQLite does for BLOBs,
+     * gives the order of {@link #compareKeys}. Returns null for a null key.
+     */
+    public static byte[] toBytes(long[] key) {
+        if (key == null) return null;
+        byte[] bytes = new byte[MAX_COMPONENTS * 8];
+        for (int i = 0; i < MAX_COMPONENTS; i++) {
+            long component = (i < key.length ? key[i] : END) ^ Long.MIN_VALUE;
+            for (int b = 0; b < 8; b++) {
+                bytes[i * 8 + b] = (byte) (component >>> (56 - 8 * b));
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.routerkonfiguralo;
+
+/**
+ * An IPv4 or IPv6 address parsed once into 128 bits held in two longs. IPv4 addresses are stored
+ * in their IPv4-mapped IPv6 form (::ffff:a.b.c.d), so both families share one numeric order and one
+ * range index, and the IPv4 value is the low int. Immutable; ordered numerically.
+ */
+public final class IpAddress implements Comparable<IpAddress> {
+    private static final long IPV4_MAPPED_PREFIX = 0xffffL << 32;
+    /** IPv4 prefix lengths map onto the last 32 of the 128 bits. */
+    static final int IPV4_PREFIX_OFFSET = 96;
+
+    private final long high;
+    private final long low;
+
+    IpAddress(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static IpAddress ofIpv4(int address) {
+        return new IpAddress(0, IPV4_MAPPED_PREFIX | (address & 0xffffffffL));
+    }
+
+    /**
+     * Parses a dotted IPv4 or an IPv6 address, including "::" compression and an embedded IPv4
+     * tail. Returns null if the text is not an address.
+     */
+    public static IpAddress parse(String text) {
+        if (text == null) return null;
+        String address = text.trim();
+        long ipv4 = parseIpv4(address);
+        if (ipv4 >= 0) return ofIpv4((int) ipv4);
+        return parseIpv6(address);
+    }
+
+    /**
+     * Like {@link #parse} but also accepts the forms routers are entered with: "host:port" for
+     * IPv4, "[address]:port" for IPv6, and an IPv6 zone such as "fe80::1%wlan0".
+     */
+    public static IpAddress parseHost(String text) {
+        if (text == null) return null;
+        String host = text.trim();
+        if (host.startsWith("[")) {
+            int end = host.indexOf(']');
+            if (end < 0 || !isPortSuffix(host, end + 1)) return null;
+            host = host.substring(1, end);
+        } else {
+            int colon = host.indexOf(':');
+            if (colon > 0 && host.lastIndexOf(':') == colon) {
+                if (!isPortSuffix(host, colon)) return null;
+                host = host.substring(0, colon);
+            }
+        }
+        int zone = host.indexOf('%');
+        if (zone > 0) host = host.substring(0, zone);
+        return parse(host);
+    }
+
+    /**
+     * The port of an address accepted by {@link #parseHost}, or {@code defaultPort} if it has
+     * none. Only meaningful for text that {@link #parseHost} parsed.
+     */
+    public static int parsePort(String text, int defaultPort) {
+        String host = text.trim();
+        int colon = host.startsWith("[") ? host.indexOf(']') + 1 : host.indexOf(':');
+        if (colon <= 0 || colon >= host.length() || host.charAt(colon) != ':') return defaultPort;
+        if (!host.startsWith("[") && host.lastIndexOf(':') != colon) return defaultPort;
+        return Integer.parseInt(host.substring(colon + 1));
+    }
+
+    /**
+     * Packs a dotted IPv4 address into the low 32 bits without allocating, or returns -1. Octets
+     * with leading zeros are rejected, since some parsers read "010" as octal.
+     */
+    public static long parseIpv4(String address) {
+        if (address == null) return -1;
+
+        long packed = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = 0; i <= address.length(); i++) {
+            char c = i < address.length() ? address.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                if (value == 0) return -1;
+                value = value < 0 ? c - '0' : value * 10 + (c - '0');
+                if (value > 255) return -1;
+            } else if (c == '.' && value >= 0 && octets < 4) {
+                packed = (packed << 8) | value;
+                octets++;
+                value = -1;
+            } else {
+                return -1;
+            }
+        }
+        return octets == 4 ? packed : -1;
+    }
+
+    private static IpAddress parseIpv6(String address) {
+        if (address.isEmpty() || address.indexOf(':') < 0) return null;
+
+        int[] groups = new int[8];
+        int count = 0;
+        int gap = -1;
+        int i = 0;
+        int length = address.length();
+        if (address.startsWith("::")) {
+            gap = 0;
+            i = 2;
+        } else if (address.charAt(0) == ':') {
+            return null;
+        }
+        while (i < length) {
+            int end = i;
+            while (end < length && address.charAt(end) != ':') end++;
+            String group = address.substring(i, end);
+            if (group.indexOf('.') >= 0) {
+                // Embedded IPv4 tail, only allowed as the last two groups
+                long ipv4 = parseIpv4(group);
+                if (ipv4 < 0 || end != length || count > 6) return null;
+                groups[count++] = (int) (ipv4 >>> 16);
+                groups[count++] = (int) (ipv4 & 0xffff);
+                break;
+            }
+            if (group.isEmpty() || group.length() > 4 || count == 8) return null;
+            int value = 0;
+            for (int j = 0; j < group.length(); j++) {
+                int digit = Character.digit(group.charAt(j), 16);
+                if (digit < 0) return null;
+                value = (value << 4) | digit;
+            }
+            groups[count++] = value;
+
+            if (end == length) break;
+            if (end + 1 < length && address.charAt(end + 1) == ':') {
+                if (gap >= 0) return null;
+                gap = count;
+                i = end + 2;
+            } else if (end + 1 == length) {
+                // Trailing single colon
+                return null;
+            } else {
+                i = end + 1;
+            }
+        }
+
+        if (gap < 0 && count != 8) return null;
+        if (gap >= 0 && count == 8) return null;
+        int[] full = new int[8];
+        if (gap < 0) {
+            System.arraycopy(groups, 0, full, 0, 8);
+        } else {
+            System.arraycopy(groups, 0, full, 0, gap);
+            System.arraycopy(groups, gap, full, 8 - (count - gap), count - gap);
+        }
+
+        long high = 0;
+        long low = 0;
+        for (int g = 0; g < 4; g++) {
+            high = (high << 16) | full[g];
+            low = (low << 16) | full[g + 4];
+        }
+        return new IpAddress(high, low);
+    }
+
+    private static boolean isPortSuffix(String host, int colon) {
+        if (colon == host.length()) return true;
+        if (host.charAt(colon) != ':' || colon + 1 == host.length() || host.length() - colon > 6) return false;
+        int port = 0;
+        for (int i = colon + 1; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c < '0' || c > '9') return false;
+            port = port * 10 + (c - '0');
+        }
+        return port > 0 && port <= 65535;
+    }
+
+    public boolean isIpv4() {
+        return high == 0 && (low & 0xffffffff00000000L) == IPV4_MAPPED_PREFIX;
+    }
+
+    /** The IPv4 value; only meaningful if {@link #isIpv4()}. */
+    public int toIpv4() {
+        return (int) low;
+    }
+
+    /** The 128 bits as 16 big-endian bytes, which compare byte by byte in numeric order. */
+    byte[] toBytes() {
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (low >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    /** Inverse of {@link #toBytes()}; null unless given exactly 16 bytes. */
+    static IpAddress fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != 16) return null;
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 8; i++) {
+            high = (high << 8) | (bytes[i] & 0xff);
+            low = (low << 8) | (bytes[i + 8] & 0xff);
+        }
+        return new IpAddress(high, low);
+    }
+
+    long getHigh() {
+        return high;
+    }
+
+    long getLow() {
+        return low;
+    }
+
+    /** Keeps the first {@code prefixLength} of the 128 bits and clears the rest. */
+    IpAddress mask(int prefixLength) {
+        if (prefixLength >= 128) return this;
+        if (prefixLength <= 0) return new IpAddress(0, 0);
+        if (prefixLength <= 64) {
+            return new IpAddress(high & (-1L << (64 - prefixLength)), 0);
+        }
+        return new IpAddress(high, low & (-1L << (128 - prefixLength)));
+    }
+
+    /** Sets the last {@code 128 - prefixLength} bits. */
+    IpAddress fill(int prefixLength) {
+        if (prefixLength >= 128) return this;
+        if (prefixLength <= 0) return new IpAddress(-1L, -1L);
+        if (prefixLength < 64) {
+            return new IpAddress(high | (-1L >>> prefixLength), -1L);
+        }
+        return new IpAddress(high, low | (-1L >>> (prefixLength - 64)));
+    }
+
+    @Override
+    public int compareTo(IpAddress other) {
+        int byHigh = Long.compareUnsigned(high, other.high);
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(low, other.low);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IpAddress)) return false;
+        IpAddress other = (IpAddress) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high) * 31 + Long.hashCode(low);
+    }
+
+    /** Dotted form for IPv4, otherwise eight full hex groups without compression. */
+    @Override
+    public String toString() {
+        if (isIpv4()) {
+            int v4 = toIpv4();
+            return ((v4 >>> 24) & 0xff) + "." + ((v4 >>> 16) & 0xff) + "."
+                    + ((v4 >>> 8) & 0xff) + "." + (v4 & 0xff);
+        }
+        StringBuilder text = new StringBuilder(39);
+        for (int g = 0; g < 8; g++) {
+            long word = g < 4 ? high : low;
+            int shift = 48 - 16 * (g % 4);
+            if (g > 0) text.append(':');
+            text.append(Integer.toHexString((int) ((word >>> shift) & 0xffff)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.routerkonfiguralo;
+
+/**
+ * A CIDR range such as "10.20.0.0/16" or "2001:db8::/32", kept as its first and last address so
+ * it can be looked up as a range in a sorted index.
+ */
+public final class IpSubnet {
+    /** Routers are grouped into IPv4 /24 and IPv6 /64 subnets by default. */
+    public static final int DEFAULT_IPV4_GROUP_PREFIX = 24;
+    public static final int DEFAULT_IPV6_GROUP_PREFIX = 64;
+
+    private final IpAddress first;
+    private final IpAddress last;
+    // Prefix length in the family's own terms, e.g. 16 for an IPv4 /16
+    private final int prefixLength;
+
+    private IpSubnet(IpAddress address, int prefixLength) {
+        int bits = address.isIpv4() ? prefixLength + IpAddress.IPV4_PREFIX_OFFSET : prefixLength;
+        this.first = address.mask(bits);
+        this.last = address.fill(bits);
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * Parses "address/prefix"; host bits of the address are ignored. Returns null if the text is
+     * not a CIDR range.
+     */
+    public static IpSubnet parse(String text) {
+        if (text == null) return null;
+        int slash = text.indexOf('/');
+        if (slash <= 0 || slash == text.length() - 1 || text.length() - slash > 4) return null;
+
+        IpAddress address = IpAddress.parse(text.substring(0, slash));
+        if (address == null) return null;
+        int prefixLength = 0;
+        for (int i = slash + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return null;
+            prefixLength = prefixLength * 10 + (c - '0');
+        }
+        return prefixLength <= (address.isIpv4() ? 32 : 128) ? new IpSubnet(address, prefixLength) : null;
+    }
+
+    /** The subnet a router's address is grouped under. */
+    public static IpSubnet groupOf(IpAddress address) {
+        return new IpSubnet(address, address.isIpv4() ? DEFAULT_IPV4_GROUP_PREFIX : DEFAULT_IPV6_GROUP_PREFIX);
+    }
+
+    public IpAddress getFirst() {
+        return first;
+    }
+
+    public IpAddress getLast() {
+        return last;
+    }
+
+    public boolean contains(IpAddress address) {
+        return address.compareTo(first) >= 0 && address.compareTo(last) <= 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IpSubnet)) return false;
+        IpSubnet other = (IpSubnet) o;
+        return prefixLength == other.prefixLength && first.equals(other.first);
+    }
+
+    @Override
+    public int hashCode() {
+        return first.hashCode() * 31 + prefixLength;
+    }
+
+    /** E.g. "10.20.0.0/16". */
+    @Override
+    public String toString() {
+        return first + "/" + prefixLength;
+    }
+}
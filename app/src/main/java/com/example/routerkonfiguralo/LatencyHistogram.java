@@ -0,0 +1,126 @@
+package com.example.routerkonfiguralo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory latency histogram with log-linear buckets: every power-of-two range of
+ * microseconds is split into {@link #SUB_BUCKETS} equal buckets, so a reported percentile is at
+ * most 1/8 above the true value. Values from 1 us to about 38 hours fit; larger ones land in the
+ * last bucket. Recording is lock-free and allocation-free, so it can sit on hot paths of any
+ * thread.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Exponents 0..34 cover values below 2^37 us
+    private static final int MAX_EXPONENT = 34;
+    static final int BUCKET_COUNT = (MAX_EXPONENT + 1) * SUB_BUCKETS;
+
+    /** Point-in-time copy of a histogram; values are in microseconds. */
+    public static final class Snapshot {
+        public final long count;
+        public final long sumMicros;
+        public final long maxMicros;
+        private final long[] counts;
+
+        Snapshot(long count, long sumMicros, long maxMicros, long[] counts) {
+            this.count = count;
+            this.sumMicros = sumMicros;
+            this.maxMicros = maxMicros;
+            this.counts = counts;
+        }
+
+        public double meanMicros() {
+            return count == 0 ? 0 : (double) sumMicros / count;
+        }
+
+        /**
+         * Upper bound of the bucket holding the value at {@code quantile} (0..1], capped at the
+         * largest recorded value; 0 when nothing was recorded.
+         */
+        public long percentileMicros(double quantile) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /** Records a duration measured with {@link System#nanoTime()}. */
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000);
+    }
+
+    /** Records the time elapsed since {@code startNanos}, a {@link System#nanoTime()} value. */
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public void recordMillis(long millis) {
+        recordMicros(millis * 1000);
+    }
+
+    public void recordMicros(long micros) {
+        if (micros < 0) micros = 0;
+        counts.incrementAndGet(bucketIndex(micros));
+        sumMicros.addAndGet(micros);
+        long max;
+        while (micros > (max = maxMicros.get()) && !maxMicros.compareAndSet(max, micros)) {
+            // Retry until this value is stored or a larger one was
+        }
+    }
+
+    /**
+     * Copies the current state. Recordings in flight may be partially included, so the sum can
+     * be slightly out of step with the count.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(total, sumMicros.get(), maxMicros.get(), copy);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        sumMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKETS} get one bucket each; above that, the exponent picks the
+     * power-of-two range and the next {@link #SUB_BUCKET_BITS} bits pick the bucket within it.
+     */
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS + 1;
+        if (exponent > MAX_EXPONENT) return BUCKET_COUNT - 1;
+        int subBucket = (int) (micros >>> (exponent - 1)) & (SUB_BUCKETS - 1);
+        return exponent * SUB_BUCKETS + subBucket;
+    }
+
+    /** Largest value that falls into bucket {@code index}. */
+    static long upperBound(int index) {
+        int exponent = index / SUB_BUCKETS;
+        int subBucket = index % SUB_BUCKETS;
+        if (exponent == 0) return subBucket;
+        long width = 1L << (exponent - 1);
+        return ((SUB_BUCKETS + (long) subBucket) << (exponent - 1)) + width - 1;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.routerkonfiguralo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Line diff of two texts in unified format, using Myers' O(ND) algorithm so the cost grows with
+ * the number of changed lines rather than with the product of the file sizes. The linear-space
+ * variant is used: each step searches for the middle snake of the shortest edit script from both
+ * ends at once and recurses on the two halves, so memory is O(N + M) however large D gets. Time
+ * is still O((N + M) D), so callers bound D and get no diff for texts that differ more.
+ */
+final class LineDiff {
+    private static final int EQUAL = 0;
+    private static final int DELETE = 1;
+    private static final int INSERT = 2;
+    private static final long TOO_MANY_EDITS = -1;
+
+    private LineDiff() {
+    }
+
+    /**
+     * Returns unified diff lines ("@@" hunk headers, then lines prefixed with ' ', '-' or '+'),
+     * with {@code context} unchanged lines around each change. Empty when the texts are equal,
+     * null when more than {@code maxEdits} lines would have to be deleted or inserted.
+     */
+    static List<String> unified(String from, String to, int context, int maxEdits) {
+        String[] a = splitLines(from);
+        String[] b = splitLines(to);
+
+        List<int[]> ops = new ArrayList<>();
+        int vLength = a.length + b.length + 4;
+        // A script of D edits is found by the time both searches take ceil(D / 2) steps
+        int maxSteps = maxEdits / 2 + 1;
+        if (!diff(a, 0, a.length, b, 0, b.length, ops, new int[vLength], new int[vLength], maxSteps)) {
+            return null;
+        }
+        int edits = 0;
+        for (int[] op : ops) {
+            if (op[0] != EQUAL) edits++;
+        }
+        return edits <= maxEdits ? format(ops, a, b, context) : null;
+    }
+
+    private static String[] splitLines(String text) {
+        if (text.isEmpty()) return new String[0];
+        String[] lines = text.split("\r?\n", -1);
+        // A final line break ends the last line rather than starting an empty one
+        return lines[lines.length - 1].isEmpty() ? Arrays.copyOf(lines, lines.length - 1) : lines;
+    }
+
+    /**
+     * Appends the edit script of a[aStart..aEnd) to b[bStart..bEnd) as {op, aIndex, bIndex}.
+     * {@code forward} and {@code backward} are scratch space for the middle snake search, shared
+     * by all levels of the recursion, which are used one at a time. Returns false, leaving the
+     * script incomplete, if the middle snake is more than {@code maxSteps} steps from either end.
+     */
+    private static boolean diff(String[] a, int aStart, int aEnd, String[] b, int bStart, int bEnd,
+                                List<int[]> ops, int[] forward, int[] backward, int maxSteps) {
+        // Common prefix and suffix need no search
+        int prefix = 0;
+        while (aStart + prefix < aEnd && bStart + prefix < bEnd && a[aStart + prefix].equals(b[bStart + prefix])) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (aEnd - suffix > aStart + prefix && bEnd - suffix > bStart + prefix
+                && a[aEnd - 1 - suffix].equals(b[bEnd - 1 - suffix])) {
+            suffix++;
+        }
+        for (int i = 0; i < prefix; i++) ops.add(new int[]{EQUAL, aStart + i, bStart + i});
+        aStart += prefix;
+        bStart += prefix;
+        aEnd -= suffix;
+        bEnd -= suffix;
+
+        if (aStart == aEnd || bStart == bEnd) {
+            for (int x = aStart; x < aEnd; x++) ops.add(new int[]{DELETE, x, bStart});
+            for (int y = bStart; y < bEnd; y++) ops.add(new int[]{INSERT, aEnd, y});
+        } else {
+            long split = middleSnake(a, aStart, aEnd, b, bStart, bEnd, forward, backward, maxSteps);
+            if (split == TOO_MANY_EDITS) return false;
+            int x = aStart + (int) (split >>> 32);
+            int y = bStart + (int) split;
+            if (!diff(a, aStart, x, b, bStart, y, ops, forward, backward, maxSteps)
+                    || !diff(a, x, aEnd, b, y, bEnd, ops, forward, backward, maxSteps)) {
+                return false;
+            }
+        }
+
+        for (int i = suffix; i > 0; i--) ops.add(new int[]{EQUAL, aEnd + suffix - i, bEnd + suffix - i});
+        return true;
+    }
+
+    /**
+     * Finds a point on a shortest edit script of two non-empty ranges that splits it in half,
+     * by running Myers' search forwards from the start and backwards from the end until the two
+     * meet. Returns the point's offsets into the ranges packed as (x << 32) | y, or
+     * {@link #TOO_MANY_EDITS} if they have not met after {@code maxSteps} steps.
+     */
+    private static long middleSnake(String[] a, int aStart, int aEnd, String[] b, int bStart, int bEnd,
+                                    int[] forward, int[] backward, int maxSteps) {
+        int n = aEnd - aStart;
+        int m = bEnd - bStart;
+        int delta = n - m;
+        // With an odd delta the paths meet during a forward step, otherwise during a backward one
+        boolean odd = (delta & 1) != 0;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD + 1;
+        // forward[offset + k]: furthest x reached on diagonal k = x - y from the start, -1 if none;
+        // backward: the same for the search from the end, in coordinates counted from the end
+        Arrays.fill(forward, 0, 2 * offset + 1, -1);
+        Arrays.fill(backward, 0, 2 * offset + 1, -1);
+
+        for (int d = 0; d <= maxD; d++) {
+            if (d > maxSteps) return TOO_MANY_EDITS;
+            for (int k = -d; k <= d; k += 2) {
+                int x = furthest(forward, offset, k, d, n, m);
+                forward[offset + k] = x;
+                if (x < 0) continue;
+                int y = x - k;
+                while (x < n && y < m && a[aStart + x].equals(b[bStart + y])) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                // Diagonal k is diagonal delta - k as seen from the end
+                int back = delta - k;
+                if (odd && back >= -(d - 1) && back <= d - 1 && backward[offset + back] >= 0
+                        && x + backward[offset + back] >= n) {
+                    return ((long) x << 32) | y;
+                }
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int x = furthest(backward, offset, k, d, n, m);
+                backward[offset + k] = x;
+                if (x < 0) continue;
+                int y = x - k;
+                while (x < n && y < m && a[aEnd - 1 - x].equals(b[bEnd - 1 - y])) {
+                    x++;
+                    y++;
+                }
+                backward[offset + k] = x;
+                int front = delta - k;
+                if (!odd && front >= -d && front <= d && forward[offset + front] >= 0
+                        && forward[offset + front] + x >= n) {
+                    return ((long) (n - x) << 32) | (m - y);
+                }
+            }
+        }
+        // Unreachable: the searches always meet by d = maxD
+        return ((long) n << 32) | m;
+    }
+
+    /**
+     * The x where the d-th step on diagonal k starts: one line down from diagonal k + 1 or one
+     * line right from diagonal k - 1, whichever gets further without leaving the n by m grid.
+     * Returns -1 if neither is possible.
+     */
+    private static int furthest(int[] v, int offset, int k, int d, int n, int m) {
+        if (d == 0) return 0;
+        int down = k < d ? v[offset + k + 1] : -1;
+        if (down >= 0 && down - k > m) down = -1;
+        int right = k > -d && v[offset + k - 1] >= 0 ? v[offset + k - 1] + 1 : -1;
+        if (right > n) right = -1;
+        return Math.max(down, right);
+    }
+
+    private static List<String> format(List<int[]> ops, String[] a, String[] b, int context) {
+        List<String> lines = new ArrayList<>();
+        int i = 0;
+        while (i < ops.size()) {
+            if (ops.get(i)[0] == EQUAL) {
+                i++;
+                continue;
+            }
+
+            // Extend the hunk while the next change is within 2 * context unchanged lines
+            int start = Math.max(0, i - context);
+            int end = i;
+            int equalRun = 0;
+            for (int j = i; j < ops.size(); j++) {
+                if (ops.get(j)[0] == EQUAL) {
+                    if (++equalRun > 2 * context) break;
+                } else {
+                    equalRun = 0;
+                    end = j;
+                }
+            }
+            end = Math.min(ops.size() - 1, end + context);
+
+            int aFrom = -1;
+            int bFrom = -1;
+            int aCount = 0;
+            int bCount = 0;
+            List<String> body = new ArrayList<>();
+            for (int j = start; j <= end; j++) {
+                int[] op = ops.get(j);
+                if (op[0] != INSERT && aFrom < 0) aFrom = op[1];
+                if (op[0] != DELETE && bFrom < 0) bFrom = op[2];
+                if (op[0] == EQUAL) {
+                    body.add(" " + a[op[1]]);
+                    aCount++;
+                    bCount++;
+                } else if (op[0] == DELETE) {
+                    body.add("-" + a[op[1]]);
+                    aCount++;
+                } else {
+                    body.add("+" + b[op[2]]);
+                    bCount++;
+                }
+            }
+            // Unified diff numbers lines from 1; an empty side starts at the line before
+            lines.add("@@ -" + (aCount == 0 ? ops.get(start)[1] : aFrom + 1) + "," + aCount
+                    + " +" + (bCount == 0 ? ops.get(start)[2] : bFrom + 1) + "," + bCount + " @@");
+            lines.addAll(body);
+            i = end + 1;
+        }
+        return lines;
+    }
+}
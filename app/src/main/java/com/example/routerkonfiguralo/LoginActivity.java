@@ -16,11 +16,18 @@ public class LoginActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        mAuth = RouterApplication.auth();
+
+        // A signed-in user goes straight to the main screen, without inflating the login form
+        if (mAuth.getCurrentUser() != null) {
+            startActivity(new Intent(this, MainActivity.class));
+            finish();
+            return;
+        }
+
         binding = ActivityLoginBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        mAuth = FirebaseAuth.getInstance();
-
         binding.loginButton.setOnClickListener(v -> {
             String email = binding.emailEditText.getText().toString();
             String password = binding.passwordEditText.getText().toString();
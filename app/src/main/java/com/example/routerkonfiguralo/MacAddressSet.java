@@ -0,0 +1,255 @@
+package com.example.routerkonfiguralo;
+
+import java.util.Arrays;
+
+/**
+ * Set of MAC addresses packed into the low 48 bits of a long, stored in an open-addressing table
+ * of primitives. Add, remove and contains are O(1) and allocate nothing once the table is sized,
+ * and each address costs 8 bytes instead of a 17-character String. Removal shifts the following
+ * entries back, so the table never fills up with tombstones.
+ */
+public final class MacAddressSet {
+    /** Marks a free slot and an unparsable address; never a valid 48-bit value. */
+    public static final long INVALID = -1L;
+    private static final int BYTES_PER_ADDRESS = 6;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] table;
+    private int size;
+
+    public MacAddressSet() {
+        this(0);
+    }
+
+    public MacAddressSet(int expectedSize) {
+        table = newTable(capacityFor(expectedSize));
+    }
+
+    public MacAddressSet(MacAddressSet other) {
+        table = other.table.clone();
+        size = other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Adds an address; returns false if it was already present. */
+    public boolean add(long mac) {
+        checkAddress(mac);
+        int slot = findSlot(mac);
+        if (table[slot] == mac) return false;
+
+        table[slot] = mac;
+        size++;
+        // Keep the load factor at or below 1/2 so probe sequences stay short
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    /** Parses and adds an address; returns false if it was present or is not a MAC address. */
+    public boolean add(String mac) {
+        long packed = parse(mac);
+        return packed != INVALID && add(packed);
+    }
+
+    public boolean contains(long mac) {
+        return mac != INVALID && table[findSlot(mac)] == mac;
+    }
+
+    public boolean contains(String mac) {
+        return contains(parse(mac));
+    }
+
+    /** Removes an address; returns false if it was not present. */
+    public boolean remove(long mac) {
+        if (mac == INVALID) return false;
+        int slot = findSlot(mac);
+        if (table[slot] != mac) return false;
+
+        table[slot] = INVALID;
+        size--;
+        // Shift back later entries of the same probe run so lookups never stop at the gap
+        int mask = table.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (table[next] != INVALID) {
+            int home = hash(table[next]) & mask;
+            // Move the entry unless its home slot lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                table[next] = INVALID;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return true;
+    }
+
+    public boolean remove(String mac) {
+        return remove(parse(mac));
+    }
+
+    public void clear() {
+        Arrays.fill(table, INVALID);
+        size = 0;
+    }
+
+    /** Returns the addresses in ascending order. */
+    public long[] toArray() {
+        long[] values = new long[size];
+        int i = 0;
+        for (long mac : table) {
+            if (mac != INVALID) values[i++] = mac;
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    /**
+     * Returns the addresses in this set that {@code other} lacks, in ascending order. With the
+     * current and previous snapshot of a router, {@code current.difference(previous)} gives the
+     * devices that joined and {@code previous.difference(current)} those that left.
+     */
+    public long[] difference(MacAddressSet other) {
+        long[] values = new long[size];
+        int count = 0;
+        for (long mac : table) {
+            if (mac != INVALID && !other.contains(mac)) values[count++] = mac;
+        }
+        long[] result = Arrays.copyOf(values, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /** Serializes to 6 bytes per address, big-endian and in ascending order. */
+    public byte[] toBytes() {
+        long[] values = toArray();
+        byte[] bytes = new byte[values.length * BYTES_PER_ADDRESS];
+        int offset = 0;
+        for (long mac : values) {
+            for (int shift = 40; shift >= 0; shift -= 8) {
+                bytes[offset++] = (byte) (mac >>> shift);
+            }
+        }
+        return bytes;
+    }
+
+    /** Reads the format written by {@link #toBytes()}; a trailing partial address is ignored. */
+    public static MacAddressSet fromBytes(byte[] bytes) {
+        int count = bytes.length / BYTES_PER_ADDRESS;
+        MacAddressSet set = new MacAddressSet(count);
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            long mac = 0;
+            for (int b = 0; b < BYTES_PER_ADDRESS; b++) {
+                mac = (mac << 8) | (bytes[offset++] & 0xff);
+            }
+            set.add(mac);
+        }
+        return set;
+    }
+
+    /**
+     * Packs an address written as six hex pairs separated by ':' or '-', in either case, or
+     * returns {@link #INVALID}. Does not allocate.
+     */
+    public static long parse(String mac) {
+        if (mac == null || mac.length() != 17) return INVALID;
+
+        long packed = 0;
+        for (int i = 0; i < 17; i++) {
+            char c = mac.charAt(i);
+            if (i % 3 == 2) {
+                if (c != ':' && c != '-') return INVALID;
+                continue;
+            }
+            int digit = Character.digit(c, 16);
+            if (digit < 0) return INVALID;
+            packed = (packed << 4) | digit;
+        }
+        return packed;
+    }
+
+    /** Formats a packed address as lowercase colon-separated hex, e.g. "a4:2b:b0:01:02:03". */
+    public static String format(long mac) {
+        char[] chars = new char[17];
+        for (int i = 0; i < 6; i++) {
+            int octet = (int) (mac >>> (40 - 8 * i)) & 0xff;
+            chars[i * 3] = Character.forDigit(octet >>> 4, 16);
+            chars[i * 3 + 1] = Character.forDigit(octet & 0xf, 16);
+            if (i < 5) chars[i * 3 + 2] = ':';
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MacAddressSet)) return false;
+        MacAddressSet other = (MacAddressSet) o;
+        if (size != other.size) return false;
+        for (long mac : table) {
+            if (mac != INVALID && !other.contains(mac)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (long mac : table) {
+            if (mac != INVALID) hash += Long.hashCode(mac);
+        }
+        return hash;
+    }
+
+    private int findSlot(long mac) {
+        int mask = table.length - 1;
+        int slot = hash(mac) & mask;
+        while (table[slot] != INVALID && table[slot] != mac) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = newTable(capacity);
+        for (long mac : old) {
+            if (mac != INVALID) table[findSlot(mac)] = mac;
+        }
+    }
+
+    // Vendor prefixes repeat across a network, so mix all bits before masking
+    private static int hash(long mac) {
+        long h = mac * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, INVALID);
+        return table;
+    }
+
+    private static void checkAddress(long mac) {
+        if ((mac >>> 48) != 0) {
+            throw new IllegalArgumentException("Not a 48-bit MAC address: " + Long.toHexString(mac));
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.routerkonfiguralo;
 
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.Trace;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.routerkonfiguralo.databinding.ActivityMainBinding;
@@ -12,14 +17,23 @@ import com.google.firebase.auth.FirebaseAuth;
 public class MainActivity extends AppCompatActivity {
     private ActivityMainBinding binding;
     private FirebaseAuth mAuth;
+    private RouterInventoryTransfer inventoryTransfer;
+    private AlertDialog progressDialog;
+
+    // Launchers must be registered before the activity is created
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::importRouters);
+    private final ActivityResultLauncher<String> exportCsvLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/csv"),
+            uri -> exportRouters(uri, RouterInventoryTransfer.Format.CSV));
+    private final ActivityResultLauncher<String> exportJsonLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/json"),
+            uri -> exportRouters(uri, RouterInventoryTransfer.Format.JSON));
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        binding = ActivityMainBinding.inflate(getLayoutInflater());
-        setContentView(binding.getRoot());
-
-        mAuth = FirebaseAuth.getInstance();
+        mAuth = RouterApplication.auth();
 
         // Ellenőrizzük, hogy be van-e jelentkezve a felhasználó
         if (mAuth.getCurrentUser() == null) {
@@ -28,6 +42,14 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
+        Trace.beginSection("MainActivity.inflate");
+        try {
+            binding = ActivityMainBinding.inflate(getLayoutInflater());
+            setContentView(binding.getRoot());
+        } finally {
+            Trace.endSection();
+        }
+
         binding.logoutButton.setOnClickListener(v -> {
             mAuth.signOut();
             startActivity(new Intent(MainActivity.this, LoginActivity.class));
@@ -37,6 +59,11 @@ public class MainActivity extends AppCompatActivity {
         // Üdvözlő szöveg beállítása a felhasználó email címével
         String welcomeText = "Üdvözöllek " + mAuth.getCurrentUser().getEmail() + "!";
         binding.welcomeText.setText(welcomeText);
+        // Hidden entry to the metrics screen, for bug reports
+        binding.welcomeText.setOnLongClickListener(v -> {
+            startActivity(new Intent(MainActivity.this, DiagnosticsActivity.class));
+            return true;
+        });
 
         binding.addRouterButton.setOnClickListener(v -> {
             startActivity(new Intent(MainActivity.this, AddRouterActivity.class));
@@ -45,5 +72,109 @@ public class MainActivity extends AppCompatActivity {
         binding.viewRoutersButton.setOnClickListener(v -> {
             startActivity(new Intent(MainActivity.this, RouterListActivity.class));
         });
+
+        binding.bulkPushButton.setOnClickListener(v -> {
+            startActivity(new Intent(MainActivity.this, BulkPushActivity.class));
+        });
+
+        binding.importRoutersButton.setOnClickListener(v ->
+                importLauncher.launch(new String[]{"text/csv", "text/comma-separated-values",
+                        "application/json", "text/plain"}));
+        binding.exportRoutersButton.setOnClickListener(v -> new AlertDialog.Builder(this)
+                .setTitle("Export format")
+                .setItems(new String[]{"CSV", "JSON"}, (dialog, which) -> {
+                    if (which == 0) {
+                        exportCsvLauncher.launch("routers.csv");
+                    } else {
+                        exportJsonLauncher.launch("routers.json");
+                    }
+                })
+                .show());
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        hideProgress();
+    }
+
+    private void importRouters(Uri uri) {
+        if (uri == null) return;
+
+        int resumeAfter = inventoryTransfer().resumePoint(uri);
+        if (resumeAfter > 0) {
+            Toast.makeText(this, "Resuming import after record " + resumeAfter, Toast.LENGTH_SHORT).show();
+        }
+        showProgress("Importing routers...");
+        inventoryTransfer().importFrom(uri, new TransferProgress("Imported", "Import"));
+    }
+
+    private void exportRouters(Uri uri, RouterInventoryTransfer.Format format) {
+        if (uri == null) return;
+
+        showProgress("Exporting routers...");
+        inventoryTransfer().exportTo(uri, format, new TransferProgress("Exported", "Export"));
+    }
+
+    /** Created on first import or export, so startup does not touch Firestore. */
+    private RouterInventoryTransfer inventoryTransfer() {
+        if (inventoryTransfer == null) {
+            inventoryTransfer = new RouterInventoryTransfer(this, RouterApplication.firestore(),
+                    mAuth.getCurrentUser().getUid());
+        }
+        return inventoryTransfer;
+    }
+
+    private void showProgress(String message) {
+        progressDialog = new AlertDialog.Builder(this)
+                .setMessage(message)
+                .setCancelable(false)
+                .show();
+    }
+
+    private void hideProgress() {
+        if (progressDialog != null) {
+            progressDialog.dismiss();
+            progressDialog = null;
+        }
+    }
+
+    /** Shows transfer progress in the dialog and the outcome in a Toast. */
+    private class TransferProgress implements RouterInventoryTransfer.ProgressListener {
+        private final String doneVerb;
+        private final String operation;
+
+        TransferProgress(String doneVerb, String operation) {
+            this.doneVerb = doneVerb;
+            this.operation = operation;
+        }
+
+        @Override
+        public void onProgress(int transferred, int skipped) {
+            if (progressDialog != null) {
+                progressDialog.setMessage(doneVerb + " " + transferred + " routers"
+                        + (skipped > 0 ? ", skipped " + skipped : "") + "...");
+            }
+        }
+
+        @Override
+        public void onComplete(int transferred, int skipped, String firstError) {
+            hideProgress();
+            if (isFinishing()) return;
+            String message = doneVerb + " " + transferred + " routers";
+            if (skipped > 0) {
+                message += ", skipped " + skipped + " invalid";
+                if (firstError != null) message += " (" + firstError + ")";
+            }
+            Toast.makeText(MainActivity.this, message, Toast.LENGTH_LONG).show();
+        }
+
+        @Override
+        public void onError(Exception e) {
+            hideProgress();
+            if (isFinishing()) return;
+            Toast.makeText(MainActivity.this, operation + " failed: " + e.getMessage(),
+                    Toast.LENGTH_LONG).show();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,197 @@
+package com.example.routerkonfiguralo;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide counters, gauges and {@link LatencyHistogram}s, looked up by name. Hot paths
+ * should look a metric up once and keep the reference; recording is then lock-free. Everything is
+ * in memory and starts from zero with the process; the diagnostics screen shows and exports it.
+ * <p>
+ * Free of Android APIs, so the classes recording into it stay testable on the JVM.
+ */
+public final class MetricsRegistry {
+    // Metric names, grouped by the prefix the diagnostics screen sorts on
+    public static final String FIRESTORE_PAGE_QUERY = "firestore.page_query";
+    public static final String FIRESTORE_PAGE_QUERY_ERRORS = "firestore.page_query.errors";
+    public static final String FIRESTORE_RECONCILE_QUERY = "firestore.reconcile_query";
+    public static final String CODEC_DECODE = "codec.decode";
+    public static final String CODEC_INVALID_DEVICES = "codec.invalid_devices";
+    public static final String LIST_DECODE = "list.decode";
+    public static final String LIST_ORDER = "list.order";
+    public static final String LIST_INDEX = "list.index";
+    public static final String LIST_SEARCH = "list.search";
+    public static final String LIST_PUBLISH = "list.publish";
+    public static final String LIST_FLEET_AVAILABILITY = "list.fleet_availability";
+    public static final String ADAPTER_BIND = "adapter.bind";
+    public static final String NOTIFICATION_INGEST_BATCH = "notification.ingest_batch";
+    public static final String NOTIFICATION_LAG = "notification.lag";
+    public static final String NOTIFICATION_POSTED = "notification.posted";
+    public static final String NOTIFICATION_TRACKED_ROUTERS = "notification.tracked_routers";
+    public static final String PROBE_RTT = "probe.rtt";
+    public static final String PROBE_UNREACHABLE = "probe.unreachable";
+    public static final String WRITES_FLUSHED = "writes.flushed";
+    public static final String WRITES_COALESCED = "writes.coalesced";
+    public static final String WRITES_SKIPPED = "writes.skipped";
+
+    public static final class Counter {
+        private final AtomicLong value = new AtomicLong();
+
+        public void increment() {
+            value.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+    }
+
+    public static final class Gauge {
+        private final AtomicLong value = new AtomicLong();
+
+        public void set(long newValue) {
+            value.set(newValue);
+        }
+
+        public long get() {
+            return value.get();
+        }
+    }
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile long resetAtMillis = System.currentTimeMillis();
+
+    MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    public Gauge gauge(String name) {
+        return gauges.computeIfAbsent(name, key -> new Gauge());
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /** Clears histograms and counters; gauges keep their value since they describe current state. */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        for (Counter counter : counters.values()) {
+            counter.value.set(0);
+        }
+        resetAtMillis = System.currentTimeMillis();
+    }
+
+    /** Plain-text table for the diagnostics screen, one metric per line, sorted by name. */
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+            text.append(entry.getKey()).append('\n')
+                    .append(String.format(Locale.ROOT,
+                            "  n=%d  p50=%s  p90=%s  p99=%s  max=%s%n", snapshot.count,
+                            formatMicros(snapshot.percentileMicros(0.5)),
+                            formatMicros(snapshot.percentileMicros(0.9)),
+                            formatMicros(snapshot.percentileMicros(0.99)),
+                            formatMicros(snapshot.maxMicros)));
+        }
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            text.append(entry.getKey()).append(" = ").append(entry.getValue().get()).append('\n');
+        }
+        for (Map.Entry<String, Gauge> entry : new TreeMap<>(gauges).entrySet()) {
+            text.append(entry.getKey()).append(" = ").append(entry.getValue().get()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * JSON snapshot for bug reports. Latencies are in microseconds; {@code since} is when the
+     * process started or the metrics were last reset, in epoch milliseconds.
+     */
+    public String toJson(long nowMillis) {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"timestamp\": ").append(nowMillis).append(",\n");
+        json.append("  \"since\": ").append(resetAtMillis).append(",\n");
+
+        json.append("  \"histograms\": {");
+        String separator = "\n";
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+            json.append(separator).append("    ").append(quote(entry.getKey())).append(": {")
+                    .append("\"count\": ").append(snapshot.count)
+                    .append(", \"mean_us\": ").append(Math.round(snapshot.meanMicros()))
+                    .append(", \"p50_us\": ").append(snapshot.percentileMicros(0.5))
+                    .append(", \"p90_us\": ").append(snapshot.percentileMicros(0.9))
+                    .append(", \"p99_us\": ").append(snapshot.percentileMicros(0.99))
+                    .append(", \"p999_us\": ").append(snapshot.percentileMicros(0.999))
+                    .append(", \"max_us\": ").append(snapshot.maxMicros)
+                    .append('}');
+            separator = ",\n";
+        }
+        json.append(separator.equals("\n") ? "},\n" : "\n  },\n");
+
+        appendValues(json, "counters", counters, Counter::get);
+        json.append(",\n");
+        appendValues(json, "gauges", gauges, Gauge::get);
+        json.append("\n}\n");
+        return json.toString();
+    }
+
+    private interface ValueReader<T> {
+        long read(T metric);
+    }
+
+    private static <T> void appendValues(StringBuilder json, String name, Map<String, T> metrics,
+                                         ValueReader<T> reader) {
+        json.append("  ").append(quote(name)).append(": {");
+        String separator = "\n";
+        for (Map.Entry<String, T> entry : new TreeMap<>(metrics).entrySet()) {
+            json.append(separator).append("    ").append(quote(entry.getKey())).append(": ")
+                    .append(reader.read(entry.getValue()));
+            separator = ",\n";
+        }
+        json.append(separator.equals("\n") ? "}" : "\n  }");
+    }
+
+    // Metric names are constants, but quote properly in case one ever carries user data
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    static String formatMicros(long micros) {
+        if (micros < 1000) return micros + "us";
+        if (micros < 1_000_000) return String.format(Locale.ROOT, "%.1fms", micros / 1000.0);
+        return String.format(Locale.ROOT, "%.2fs", micros / 1_000_000.0);
+    }
+}
@@ -19,7 +19,7 @@ public class RegisterActivity extends AppCompatActivity {
         binding = ActivityRegisterBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        mAuth = FirebaseAuth.getInstance();
+        mAuth = RouterApplication.auth();
 
         binding.registerButton.setOnClickListener(v -> registerUser());
         binding.loginTextView.setOnClickListener(v -> {
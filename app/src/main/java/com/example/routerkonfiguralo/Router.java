@@ -1,28 +1,47 @@
 package com.example.routerkonfiguralo;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Comparator;
 
 public class Router {
+    /** Name order, ignoring case; routers without a name go last. */
+    public static final Comparator<Router> BY_NAME = (a, b) -> compareNames(a.name, b.name);
+
+    /** Firmware version order, then name; routers without a version go last. */
+    public static final Comparator<Router> BY_FIRMWARE = (a, b) -> {
+        int byVersion = FirmwareVersion.compareKeys(a.firmwareSortKey, b.firmwareSortKey);
+        return byVersion != 0 ? byVersion : compareNames(a.name, b.name);
+    };
+
+    /** Numeric address order, then name; routers without a valid address go last. */
+    public static final Comparator<Router> BY_ADDRESS = (a, b) -> {
+        int byAddress = compareAddresses(a.parsedAddress, b.parsedAddress);
+        return byAddress != 0 ? byAddress : compareNames(a.name, b.name);
+    };
+
     private String name;
     private String ipAddress;
+    // Parsed once from ipAddress; null if it is not a valid address
+    private IpAddress parsedAddress;
     private String username;
     private String password;
     private String model;
     private String firmwareVersion;
-    private List<String> connectedDevices;
+    // Parsed once from firmwareVersion, see FirmwareVersion
+    private long[] firmwareSortKey;
+    private MacAddressSet connectedDevices;
     private boolean isOnline;
     private String id;
+    private long timestamp;
 
     public Router() {
-        this.connectedDevices = new ArrayList<>();
+        this.connectedDevices = new MacAddressSet();
         this.isOnline = false;
     }
 
     public Router(String name, String ipAddress, String username, String password, String model) {
         this();
         this.name = name;
-        this.ipAddress = ipAddress;
+        setIpAddress(ipAddress);
         this.username = username;
         this.password = password;
         this.model = model;
@@ -43,6 +62,11 @@ public class Router {
 
     public void setIpAddress(String ipAddress) {
         this.ipAddress = ipAddress;
+        this.parsedAddress = IpAddress.parseHost(ipAddress);
+    }
+
+    public IpAddress getParsedAddress() {
+        return parsedAddress;
     }
 
     public String getUsername() {
@@ -75,20 +99,37 @@ public class Router {
 
     public void setFirmwareVersion(String firmwareVersion) {
         this.firmwareVersion = firmwareVersion;
+        this.firmwareSortKey = FirmwareVersion.parse(firmwareVersion);
+    }
+
+    /** Sort key of the firmware version, see {@link FirmwareVersion#parse}; null if it has none. */
+    public long[] getFirmwareSortKey() {
+        return firmwareSortKey;
     }
 
-    public List<String> getConnectedDevices() {
+    public MacAddressSet getConnectedDevices() {
         return connectedDevices;
     }
 
-    public void addConnectedDevice(String device) {
-        if (!connectedDevices.contains(device)) {
-            connectedDevices.add(device);
+    public void setConnectedDevices(MacAddressSet connectedDevices) {
+        this.connectedDevices = connectedDevices;
+    }
+
+    /**
+     * Adds a device by MAC address; returns false if it was already known.
+     *
+     * @throws IllegalArgumentException if {@code device} is not a MAC address
+     */
+    public boolean addConnectedDevice(String device) {
+        long mac = MacAddressSet.parse(device);
+        if (mac == MacAddressSet.INVALID) {
+            throw new IllegalArgumentException("Not a MAC address: " + device);
         }
+        return connectedDevices.add(mac);
     }
 
-    public void removeConnectedDevice(String device) {
-        connectedDevices.remove(device);
+    public boolean removeConnectedDevice(String device) {
+        return connectedDevices.remove(device);
     }
 
     public boolean isOnline() {
@@ -107,6 +148,26 @@ public class Router {
         this.id = id;
     }
 
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    private static int compareAddresses(IpAddress a, IpAddress b) {
+        if (a == null) return b == null ? 0 : 1;
+        if (b == null) return -1;
+        return a.compareTo(b);
+    }
+
+    private static int compareNames(String a, String b) {
+        if (a == null) return b == null ? 0 : 1;
+        if (b == null) return -1;
+        return a.compareToIgnoreCase(b);
+    }
+
     @Override
     public String toString() {
         return "Router{" +
@@ -1,6 +1,6 @@
 package com.example.routerkonfiguralo;
 
-import android.annotation.SuppressLint;
+import android.os.Trace;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,14 +10,61 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
-public class RouterAdapter extends RecyclerView.Adapter<RouterAdapter.RouterViewHolder> {
-    private List<Router> routerList;
-    private OnRouterDeleteListener deleteListener;
-    private OnRouterEditListener editListener;
+public class RouterAdapter extends ListAdapter<RouterListItem, RecyclerView.ViewHolder> {
+    // Payload bits describing which row fields changed between two versions of a router
+    static final int PAYLOAD_NAME = 1;
+    static final int PAYLOAD_IP = 1 << 1;
+    static final int PAYLOAD_MODEL = 1 << 2;
+    static final int PAYLOAD_STATUS = 1 << 3;
+    static final int PAYLOAD_AVAILABILITY = 1 << 4;
+    private static final int PAYLOAD_ALL = PAYLOAD_NAME | PAYLOAD_IP | PAYLOAD_MODEL | PAYLOAD_STATUS
+            | PAYLOAD_AVAILABILITY;
+
+    private static final int VIEW_TYPE_ROUTER = 0;
+    private static final int VIEW_TYPE_HEADER = 1;
+
+    private static final LatencyHistogram BIND_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.ADAPTER_BIND);
+
+    private static final DiffUtil.ItemCallback<RouterListItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<RouterListItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull RouterListItem oldItem, @NonNull RouterListItem newItem) {
+            return oldItem.getKey().equals(newItem.getKey());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull RouterListItem oldItem, @NonNull RouterListItem newItem) {
+            if (oldItem.isHeader()) return oldItem.sameHeaderAs(newItem);
+            if (oldItem.isPlaceholder() || newItem.isPlaceholder()) {
+                return oldItem.isPlaceholder() && newItem.isPlaceholder();
+            }
+            return changedFields(oldItem, newItem) == 0;
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull RouterListItem oldItem, @NonNull RouterListItem newItem) {
+            // A row entering or leaving the loaded window is bound in full
+            if (oldItem.isHeader() || oldItem.isPlaceholder() || newItem.isPlaceholder()) return null;
+            return changedFields(oldItem, newItem);
+        }
+    };
+
+    private final OnRouterDeleteListener deleteListener;
+    private final OnRouterEditListener editListener;
+    private final OnSubnetToggleListener subnetToggleListener;
+    private final Map<String, Long> stableIds = new HashMap<>();
+    private long nextStableId = 0;
     private int lastPosition = -1;
 
     public interface OnRouterDeleteListener {
@@ -28,41 +75,101 @@ public class RouterAdapter extends RecyclerView.Adapter<RouterAdapter.RouterView
         void onRouterEdit(String routerId);
     }
 
-    public RouterAdapter(List<Router> routerList, OnRouterDeleteListener deleteListener, OnRouterEditListener editListener) {
-        this.routerList = routerList;
+    public interface OnSubnetToggleListener {
+        void onSubnetToggle(String headerKey);
+    }
+
+    public RouterAdapter(OnRouterDeleteListener deleteListener, OnRouterEditListener editListener,
+                         OnSubnetToggleListener subnetToggleListener) {
+        super(DIFF_CALLBACK);
         this.deleteListener = deleteListener;
         this.editListener = editListener;
+        this.subnetToggleListener = subnetToggleListener;
+        setHasStableIds(true);
+    }
+
+    static int changedFields(RouterListItem oldItem, RouterListItem newItem) {
+        int changed = changedFields(oldItem.router, newItem.router);
+        if (!Objects.equals(oldItem.availability, newItem.availability)) changed |= PAYLOAD_AVAILABILITY;
+        return changed;
+    }
+
+    static int changedFields(Router oldItem, Router newItem) {
+        int changed = 0;
+        if (!Objects.equals(oldItem.getName(), newItem.getName())) changed |= PAYLOAD_NAME;
+        if (!Objects.equals(oldItem.getIpAddress(), newItem.getIpAddress())) changed |= PAYLOAD_IP;
+        if (!Objects.equals(oldItem.getModel(), newItem.getModel())) changed |= PAYLOAD_MODEL;
+        if (oldItem.isOnline() != newItem.isOnline()) changed |= PAYLOAD_STATUS;
+        return changed;
     }
 
-    @NonNull
     @Override
-    public RouterViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_router, parent, false);
-        return new RouterViewHolder(view);
+    public int getItemViewType(int position) {
+        return getItem(position).isHeader() ? VIEW_TYPE_HEADER : VIEW_TYPE_ROUTER;
     }
 
+    @NonNull
     @Override
-    public void onBindViewHolder(@NonNull RouterViewHolder holder, @SuppressLint("RecyclerView") int position) {
-        Router router = routerList.get(position);
-        holder.routerName.setText(router.getName());
-        holder.routerIp.setText(router.getIpAddress());
-        holder.routerModel.setText(router.getModel());
-        holder.routerStatus.setText(router.isOnline() ? "Online" : "Offline");
-        holder.routerStatus.setTextColor(holder.itemView.getContext().getColor(
-                router.isOnline() ? android.R.color.holo_green_dark : android.R.color.holo_red_dark));
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == VIEW_TYPE_HEADER) {
+            SubnetHeaderViewHolder holder = new SubnetHeaderViewHolder(
+                    inflater.inflate(R.layout.item_subnet_header, parent, false));
+            holder.itemView.setOnClickListener(v -> {
+                RouterListItem item = itemAt(holder);
+                if (item != null && subnetToggleListener != null) {
+                    subnetToggleListener.onSubnetToggle(item.getKey());
+                }
+            });
+            return holder;
+        }
 
+        RouterViewHolder holder = new RouterViewHolder(inflater.inflate(R.layout.item_router, parent, false));
         holder.deleteButton.setOnClickListener(v -> {
-            if (deleteListener != null) {
-                deleteListener.onRouterDelete(router.getId());
+            RouterListItem item = itemAt(holder);
+            if (item != null && deleteListener != null) {
+                deleteListener.onRouterDelete(item.routerId);
             }
         });
 
         holder.editButton.setOnClickListener(v -> {
-            if (editListener != null) {
-                editListener.onRouterEdit(router.getId());
+            RouterListItem item = itemAt(holder);
+            if (item != null && editListener != null) {
+                editListener.onRouterEdit(item.routerId);
             }
         });
+        return holder;
+    }
+
+    @Nullable
+    private RouterListItem itemAt(RecyclerView.ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : getItem(position);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        long start = System.nanoTime();
+        Trace.beginSection("RouterAdapter.bind");
+        try {
+            bindRow(holder, position);
+        } finally {
+            Trace.endSection();
+            BIND_LATENCY.recordSince(start);
+        }
+    }
+
+    private void bindRow(RecyclerView.ViewHolder holder, int position) {
+        RouterListItem item = getItem(position);
+        if (item.isHeader()) {
+            bindHeader((SubnetHeaderViewHolder) holder, item);
+            return;
+        }
+        if (item.isPlaceholder()) {
+            bindPlaceholder((RouterViewHolder) holder);
+            return;
+        }
+        bindFields((RouterViewHolder) holder, item, PAYLOAD_ALL);
 
         // Apply animation
         if (position > lastPosition) {
@@ -73,20 +180,87 @@ public class RouterAdapter extends RecyclerView.Adapter<RouterAdapter.RouterView
     }
 
     @Override
-    public void onViewDetachedFromWindow(@NonNull RouterViewHolder holder) {
-        super.onViewDetachedFromWindow(holder);
-        holder.itemView.clearAnimation();
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty() || getItem(position).isHeader() || getItem(position).isPlaceholder()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Trace.beginSection("RouterAdapter.bindPayload");
+        try {
+            int changed = 0;
+            for (Object payload : payloads) {
+                changed |= (Integer) payload;
+            }
+            bindFields((RouterViewHolder) holder, getItem(position), changed);
+        } finally {
+            Trace.endSection();
+            BIND_LATENCY.recordSince(start);
+        }
+    }
+
+    private void bindHeader(SubnetHeaderViewHolder holder, RouterListItem item) {
+        holder.subnetName.setText(item.subnet != null ? item.subnet.toString() : "Other addresses");
+        holder.routerCount.setText(String.valueOf(item.routerCount));
+        holder.expandIndicator.setText(item.collapsed ? "\u25B8" : "\u25BE");
+    }
+
+    // Rows outside the loaded window stay blank until their router is read from the cache
+    private void bindPlaceholder(RouterViewHolder holder) {
+        holder.routerName.setText("");
+        holder.routerIp.setText("");
+        holder.routerModel.setText("");
+        holder.routerStatus.setText("");
+        holder.routerAvailability.setText("");
+    }
+
+    private void bindFields(RouterViewHolder holder, RouterListItem item, int fields) {
+        Router router = item.router;
+        if ((fields & PAYLOAD_NAME) != 0) {
+            holder.routerName.setText(router.getName());
+        }
+        if ((fields & PAYLOAD_IP) != 0) {
+            holder.routerIp.setText(router.getIpAddress());
+        }
+        if ((fields & PAYLOAD_MODEL) != 0) {
+            holder.routerModel.setText(router.getModel());
+        }
+        if ((fields & PAYLOAD_STATUS) != 0) {
+            holder.routerStatus.setText(router.isOnline() ? "Online" : "Offline");
+            holder.routerStatus.setTextColor(holder.itemView.getContext().getColor(
+                    router.isOnline() ? android.R.color.holo_green_dark : android.R.color.holo_red_dark));
+        }
+        if ((fields & PAYLOAD_AVAILABILITY) != 0) {
+            // Computed with the list on its preparation thread, so binding never touches history
+            holder.routerAvailability.setText(item.availability);
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String key = getItem(position).getKey();
+        Long stableId = stableIds.get(key);
+        if (stableId == null) {
+            stableId = nextStableId++;
+            stableIds.put(key, stableId);
+        }
+        return stableId;
     }
 
     @Override
-    public int getItemCount() {
-        return routerList.size();
+    public void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewDetachedFromWindow(holder);
+        holder.itemView.clearAnimation();
     }
 
-    public void updateData(List<Router> newList) {
-        this.routerList = newList;
-        lastPosition = -1; // Reset animation position
-        notifyDataSetChanged();
+    /**
+     * Submits a new version of the list, which must not be modified afterwards. The diff against
+     * the current list is computed on a background thread, and only rows whose displayed fields
+     * changed are rebound.
+     */
+    public void updateData(List<RouterListItem> newList) {
+        submitList(newList);
     }
 
     static class RouterViewHolder extends RecyclerView.ViewHolder {
@@ -94,6 +268,7 @@ public class RouterAdapter extends RecyclerView.Adapter<RouterAdapter.RouterView
         TextView routerIp;
         TextView routerModel;
         TextView routerStatus;
+        TextView routerAvailability;
         ImageButton deleteButton;
         ImageButton editButton;
 
@@ -103,8 +278,22 @@ public class RouterAdapter extends RecyclerView.Adapter<RouterAdapter.RouterView
             routerIp = itemView.findViewById(R.id.routerIp);
             routerModel = itemView.findViewById(R.id.routerModel);
             routerStatus = itemView.findViewById(R.id.routerStatus);
+            routerAvailability = itemView.findViewById(R.id.routerAvailability);
             deleteButton = itemView.findViewById(R.id.deleteButton);
             editButton = itemView.findViewById(R.id.editButton);
         }
     }
-} 
\ No newline at end of file
+
+    static class SubnetHeaderViewHolder extends RecyclerView.ViewHolder {
+        TextView subnetName;
+        TextView routerCount;
+        TextView expandIndicator;
+
+        SubnetHeaderViewHolder(View itemView) {
+            super(itemView);
+            subnetName = itemView.findViewById(R.id.subnetName);
+            routerCount = itemView.findViewById(R.id.subnetRouterCount);
+            expandIndicator = itemView.findViewById(R.id.subnetExpandIndicator);
+        }
+    }
+}
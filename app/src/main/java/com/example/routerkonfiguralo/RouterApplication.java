@@ -0,0 +1,169 @@
+package com.example.routerkonfiguralo;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
+import android.util.Log;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.PersistentCacheSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application-wide initialization graph. Firebase instances are created on first use from one
+ * place, and work that the first screen does not need runs only after that screen has drawn its
+ * first frame. Startup steps are wrapped in trace sections so they show up in system traces and
+ * macrobenchmarks.
+ */
+public class RouterApplication extends Application {
+    private static final String TAG = "RouterApplication";
+    // Local Firestore cache; the SDK default is 100 MB, far more than a router inventory needs
+    private static final long FIRESTORE_CACHE_BYTES = 40L * 1024 * 1024;
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+    // Only touched on the main thread
+    private static final List<Runnable> deferredTasks = new ArrayList<>();
+    private static boolean firstFrameDrawn;
+
+    @Override
+    public void onCreate() {
+        Trace.beginSection("RouterApplication.onCreate");
+        try {
+            super.onCreate();
+            registerActivityLifecycleCallbacks(new FirstFrameWatcher());
+
+            runAfterFirstFrame(() -> {
+                Trace.beginSection("RouterApplication.deferredInit");
+                try {
+                    RouterNotificationService.createNotificationChannel(this);
+                } finally {
+                    Trace.endSection();
+                }
+                // Applies the Firestore settings and opens its cache off the main thread
+                AppExecutors.diskIO().execute(RouterApplication::firestore);
+            });
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    public static FirebaseAuth auth() {
+        return AuthHolder.AUTH;
+    }
+
+    /** The Firestore instance, configured with the app's settings before anything else uses it. */
+    public static FirebaseFirestore firestore() {
+        return FirestoreHolder.FIRESTORE;
+    }
+
+    /**
+     * Runs {@code task} on the main thread once the first activity has drawn its first frame, or
+     * right away (posted) if that has already happened. Must be called on the main thread.
+     */
+    public static void runAfterFirstFrame(Runnable task) {
+        if (firstFrameDrawn) {
+            MAIN_HANDLER.post(task);
+        } else {
+            deferredTasks.add(task);
+        }
+    }
+
+    private static void onFirstFrameDrawn() {
+        if (firstFrameDrawn) return;
+        firstFrameDrawn = true;
+        List<Runnable> tasks = new ArrayList<>(deferredTasks);
+        deferredTasks.clear();
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                Log.e(TAG, "Deferred initialization failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Holder classes are initialized on first access, which the JVM makes thread-safe
+    private static final class AuthHolder {
+        static final FirebaseAuth AUTH = createAuth();
+
+        private static FirebaseAuth createAuth() {
+            Trace.beginSection("RouterApplication.createAuth");
+            try {
+                return FirebaseAuth.getInstance();
+            } finally {
+                Trace.endSection();
+            }
+        }
+    }
+
+    private static final class FirestoreHolder {
+        static final FirebaseFirestore FIRESTORE = createFirestore();
+
+        private static FirebaseFirestore createFirestore() {
+            Trace.beginSection("RouterApplication.createFirestore");
+            try {
+                FirebaseFirestore firestore = FirebaseFirestore.getInstance();
+                firestore.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                        .setLocalCacheSettings(PersistentCacheSettings.newBuilder()
+                                .setSizeBytes(FIRESTORE_CACHE_BYTES)
+                                .build())
+                        .build());
+                return firestore;
+            } finally {
+                Trace.endSection();
+            }
+        }
+    }
+
+    /**
+     * Waits for the first activity to resume, then for its first frame: a frame callback fires at
+     * the start of the next frame, and a message posted from it is only handled after that
+     * frame's traversal has run.
+     */
+    private static final class FirstFrameWatcher implements ActivityLifecycleCallbacks {
+        private boolean scheduled;
+
+        @Override
+        public void onActivityResumed(@NonNull Activity activity) {
+            if (scheduled) return;
+            scheduled = true;
+            Choreographer.getInstance().postFrameCallback(frameTimeNanos ->
+                    MAIN_HANDLER.post(RouterApplication::onFirstFrameDrawn));
+        }
+
+        @Override
+        public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(@NonNull Activity activity) {
+        }
+    }
+}
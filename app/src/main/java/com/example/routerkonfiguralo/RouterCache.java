@@ -0,0 +1,362 @@
+package com.example.routerkonfiguralo;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * On-device copy of the user's routers. It holds the whole fleet, so the router list reads its
+ * order from here and keeps only the rows near the screen in memory. Sort keys for every list
+ * order are stored next to the fields, so ordering never needs the routers themselves.
+ * Also records the sync cursors: the newest document {@code timestamp} seen so far and the time
+ * of the last full resync. Router usernames and passwords are stored encrypted with
+ * {@link CredentialCipher}. All methods do disk I/O and must be called off the main thread.
+ */
+public class RouterCache extends SQLiteOpenHelper {
+    private static final String TAG = "RouterCache";
+    // Excluded from backups in res/xml, since it holds credentials
+    private static final String DATABASE_NAME = "router_cache.db";
+    private static final int DATABASE_VERSION = 4;
+    // SQLite allows 999 bound arguments per statement
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    private static final String TABLE_ROUTERS = "routers";
+    private static final String TABLE_SYNC_STATE = "sync_state";
+
+    private static final String COLUMN_ID = "id";
+    private static final String COLUMN_USER_ID = "user_id";
+    private static final String COLUMN_NAME = "name";
+    private static final String COLUMN_IP_ADDRESS = "ip_address";
+    private static final String COLUMN_USERNAME = "username";
+    private static final String COLUMN_PASSWORD = "password";
+    private static final String COLUMN_MODEL = "model";
+    private static final String COLUMN_FIRMWARE_VERSION = "firmware_version";
+    private static final String COLUMN_IS_ONLINE = "is_online";
+    private static final String COLUMN_TIMESTAMP = "timestamp";
+    private static final String COLUMN_NAME_KEY = "name_key";
+    private static final String COLUMN_ADDRESS_KEY = "address_key";
+    private static final String COLUMN_FIRMWARE_KEY = "firmware_key";
+    private static final String COLUMN_SUBNET_KEY = "subnet_key";
+    private static final String COLUMN_SYNCED_AT = "synced_at";
+    private static final String COLUMN_LAST_SYNC = "last_sync";
+    private static final String COLUMN_LAST_FULL_SYNC = "last_full_sync";
+
+    private static final String[] ROUTER_COLUMNS = {
+            COLUMN_ID, COLUMN_NAME, COLUMN_IP_ADDRESS, COLUMN_USERNAME, COLUMN_PASSWORD,
+            COLUMN_MODEL, COLUMN_FIRMWARE_VERSION, COLUMN_IS_ONLINE, COLUMN_TIMESTAMP
+    };
+
+    /** Orders of the router list; each matches the comparator of the same name in {@link Router}. */
+    public enum Order {
+        /** Document ID order, the order in which {@link RouterPageLoader} reads pages. */
+        DOCUMENT(COLUMN_ID),
+        NAME(COLUMN_NAME_KEY + " IS NULL, " + COLUMN_NAME_KEY + ", " + COLUMN_ID),
+        FIRMWARE(COLUMN_FIRMWARE_KEY + " IS NULL, " + COLUMN_FIRMWARE_KEY + ", "
+                + COLUMN_NAME_KEY + " IS NULL, " + COLUMN_NAME_KEY + ", " + COLUMN_ID),
+        ADDRESS(COLUMN_ADDRESS_KEY + " IS NULL, " + COLUMN_ADDRESS_KEY + ", "
+                + COLUMN_NAME_KEY + " IS NULL, " + COLUMN_NAME_KEY + ", " + COLUMN_ID);
+
+        final String orderBy;
+
+        Order(String orderBy) {
+            this.orderBy = orderBy;
+        }
+    }
+
+    /** Router IDs of a user in list order, optionally with the subnet group of each. */
+    public static class Ordering {
+        public final List<String> ids;
+        /**
+         * Subnet group of each router, parallel to {@link #ids}, or null when not grouped. Groups
+         * are contiguous and in address order; routers without a valid address have a null group
+         * and come last.
+         */
+        public final List<IpSubnet> subnets;
+
+        Ordering(List<String> ids, List<IpSubnet> subnets) {
+            this.ids = ids;
+            this.subnets = subnets;
+        }
+    }
+
+    /** Receives routers one at a time, so a full scan never holds the whole fleet. */
+    public interface RouterVisitor {
+        void visit(Router router);
+    }
+
+    /** Sync cursors of one user; both are 0 when the user has never synced on this device. */
+    public static class SyncState {
+        public final long lastSync;
+        public final long lastFullSync;
+
+        SyncState(long lastSync, long lastFullSync) {
+            this.lastSync = lastSync;
+            this.lastFullSync = lastFullSync;
+        }
+    }
+
+    private static RouterCache instance;
+
+    public static synchronized RouterCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new RouterCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private final Context context;
+
+    private RouterCache(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.context = context;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_ROUTERS + " ("
+                + COLUMN_ID + " TEXT PRIMARY KEY, "
+                + COLUMN_USER_ID + " TEXT NOT NULL, "
+                + COLUMN_NAME + " TEXT, "
+                + COLUMN_IP_ADDRESS + " TEXT, "
+                + COLUMN_USERNAME + " BLOB, "
+                + COLUMN_PASSWORD + " BLOB, "
+                + COLUMN_MODEL + " TEXT, "
+                + COLUMN_FIRMWARE_VERSION + " TEXT, "
+                + COLUMN_IS_ONLINE + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_TIMESTAMP + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_NAME_KEY + " TEXT, "
+                + COLUMN_ADDRESS_KEY + " BLOB, "
+                + COLUMN_FIRMWARE_KEY + " BLOB, "
+                + COLUMN_SUBNET_KEY + " BLOB, "
+                + COLUMN_SYNCED_AT + " INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE INDEX idx_routers_user ON " + TABLE_ROUTERS + " (" + COLUMN_USER_ID + ")");
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_STATE + " ("
+                + COLUMN_USER_ID + " TEXT PRIMARY KEY, "
+                + COLUMN_LAST_SYNC + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_LAST_FULL_SYNC + " INTEGER NOT NULL DEFAULT 0)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // The cache can always be rebuilt from Firestore; this also drops the plaintext
+        // credentials of caches before version 4
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ROUTERS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SYNC_STATE);
+        onCreate(db);
+    }
+
+    /** Every cached router of the user, for screens that work on the whole fleet at once. */
+    public List<Router> loadRouters(String userId) {
+        List<Router> routers = new ArrayList<>();
+        forEachRouter(userId, routers::add);
+        return routers;
+    }
+
+    /** Visits every cached router of the user without keeping them. */
+    public void forEachRouter(String userId, RouterVisitor visitor) {
+        try (Cursor cursor = getReadableDatabase().query(TABLE_ROUTERS, ROUTER_COLUMNS,
+                COLUMN_USER_ID + " = ?", new String[]{userId}, null, null, null)) {
+            while (cursor.moveToNext()) {
+                visitor.visit(readRouter(cursor));
+            }
+        }
+    }
+
+    /** The cached routers among {@code routerIds}, in no particular order. */
+    public List<Router> loadRouters(String userId, List<String> routerIds) {
+        List<Router> routers = new ArrayList<>(routerIds.size());
+        for (int start = 0; start < routerIds.size(); start += MAX_IDS_PER_QUERY) {
+            List<String> chunk = routerIds.subList(start, Math.min(start + MAX_IDS_PER_QUERY, routerIds.size()));
+            String[] args = new String[chunk.size() + 1];
+            args[0] = userId;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i);
+            }
+            char[] placeholders = new char[chunk.size() * 2 - 1];
+            Arrays.fill(placeholders, ',');
+            for (int i = 0; i < placeholders.length; i += 2) {
+                placeholders[i] = '?';
+            }
+            try (Cursor cursor = getReadableDatabase().query(TABLE_ROUTERS, ROUTER_COLUMNS,
+                    COLUMN_USER_ID + " = ? AND " + COLUMN_ID + " IN (" + new String(placeholders) + ")",
+                    args, null, null, null)) {
+                while (cursor.moveToNext()) {
+                    routers.add(readRouter(cursor));
+                }
+            }
+        }
+        return routers;
+    }
+
+    /**
+     * Reads the IDs of the user's routers in list order, grouped by subnet first if asked to.
+     * Only the ID and the sort keys are read, never the routers.
+     */
+    public Ordering loadOrdering(String userId, Order order, boolean groupBySubnet) {
+        List<String> ids = new ArrayList<>();
+        List<IpSubnet> subnets = groupBySubnet ? new ArrayList<>() : null;
+        String orderBy = groupBySubnet
+                ? COLUMN_SUBNET_KEY + " IS NULL, " + COLUMN_SUBNET_KEY + ", " + order.orderBy
+                : order.orderBy;
+        try (Cursor cursor = getReadableDatabase().query(TABLE_ROUTERS,
+                new String[]{COLUMN_ID, COLUMN_SUBNET_KEY},
+                COLUMN_USER_ID + " = ?", new String[]{userId}, null, null, orderBy)) {
+            byte[] previousKey = null;
+            IpSubnet subnet = null;
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(0));
+                if (subnets == null) continue;
+                byte[] key = cursor.getBlob(1);
+                // Groups are contiguous, so one IpSubnet is shared by all routers of a group
+                if (!Arrays.equals(key, previousKey)) {
+                    IpAddress first = IpAddress.fromBytes(key);
+                    subnet = first != null ? IpSubnet.groupOf(first) : null;
+                    previousKey = key;
+                }
+                subnets.add(subnet);
+            }
+        }
+        return new Ordering(ids, subnets);
+    }
+
+    public long countRouters(String userId) {
+        return DatabaseUtils.queryNumEntries(getReadableDatabase(), TABLE_ROUTERS,
+                COLUMN_USER_ID + " = ?", new String[]{userId});
+    }
+
+    public SyncState getSyncState(String userId) {
+        try (Cursor cursor = getReadableDatabase().query(TABLE_SYNC_STATE,
+                new String[]{COLUMN_LAST_SYNC, COLUMN_LAST_FULL_SYNC},
+                COLUMN_USER_ID + " = ?", new String[]{userId}, null, null, null)) {
+            if (cursor.moveToFirst()) {
+                return new SyncState(cursor.getLong(0), cursor.getLong(1));
+            }
+        }
+        return new SyncState(0, 0);
+    }
+
+    /**
+     * Stores the routers and removals of one sync step and advances the sync cursor. Stored
+     * routers are marked as seen at {@code syncedAt}, see {@link #removeUnseen}.
+     */
+    public void applyChanges(String userId, Collection<Router> upserts, Collection<String> removedIds,
+                             long lastSync, long syncedAt) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Router router : upserts) {
+                db.insertWithOnConflict(TABLE_ROUTERS, null, toValues(userId, router, syncedAt),
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            for (String routerId : removedIds) {
+                db.delete(TABLE_ROUTERS, COLUMN_ID + " = ?", new String[]{routerId});
+            }
+            ContentValues state = new ContentValues();
+            state.put(COLUMN_LAST_SYNC, lastSync);
+            if (db.update(TABLE_SYNC_STATE, state, COLUMN_USER_ID + " = ?", new String[]{userId}) == 0) {
+                state.put(COLUMN_USER_ID, userId);
+                db.insert(TABLE_SYNC_STATE, null, state);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Ends a full resync that started at {@code syncStartedAt}: deletes the routers it did not
+     * see, unless their timestamp is after {@code keepAfter}, and records the sync. Returns the
+     * IDs of the deleted routers.
+     */
+    public List<String> removeUnseen(String userId, long syncStartedAt, long keepAfter, long lastSync,
+                                    long syncedAt) {
+        SQLiteDatabase db = getWritableDatabase();
+        String where = COLUMN_USER_ID + " = ? AND " + COLUMN_SYNCED_AT + " < ? AND " + COLUMN_TIMESTAMP + " <= ?";
+        String[] args = {userId, String.valueOf(syncStartedAt), String.valueOf(keepAfter)};
+        List<String> removedIds = new ArrayList<>();
+        db.beginTransaction();
+        try {
+            try (Cursor cursor = db.query(TABLE_ROUTERS, new String[]{COLUMN_ID}, where, args,
+                    null, null, null)) {
+                while (cursor.moveToNext()) {
+                    removedIds.add(cursor.getString(0));
+                }
+            }
+            db.delete(TABLE_ROUTERS, where, args);
+            ContentValues state = new ContentValues();
+            state.put(COLUMN_USER_ID, userId);
+            state.put(COLUMN_LAST_SYNC, lastSync);
+            state.put(COLUMN_LAST_FULL_SYNC, syncedAt);
+            db.insertWithOnConflict(TABLE_SYNC_STATE, null, state, SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return removedIds;
+    }
+
+    public void deleteRouter(String routerId) {
+        getWritableDatabase().delete(TABLE_ROUTERS, COLUMN_ID + " = ?", new String[]{routerId});
+    }
+
+    private Router readRouter(Cursor cursor) {
+        Router router = new Router();
+        router.setId(cursor.getString(0));
+        router.setName(cursor.getString(1));
+        router.setIpAddress(cursor.getString(2));
+        try {
+            CredentialCipher cipher = CredentialCipher.getInstance(context);
+            router.setUsername(cipher.decrypt(cursor.getBlob(3)));
+            router.setPassword(cipher.decrypt(cursor.getBlob(4)));
+        } catch (GeneralSecurityException | IOException e) {
+            // Left empty until the router is synced again; pushes and backups then fail to log in
+            Log.e(TAG, "Error decrypting credentials of " + router.getId() + ": " + e.getMessage(), e);
+        }
+        router.setModel(cursor.getString(5));
+        router.setFirmwareVersion(cursor.getString(6));
+        router.setOnline(cursor.getInt(7) != 0);
+        router.setTimestamp(cursor.getLong(8));
+        return router;
+    }
+
+    private ContentValues toValues(String userId, Router router, long syncedAt) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_ID, router.getId());
+        values.put(COLUMN_USER_ID, userId);
+        values.put(COLUMN_NAME, router.getName());
+        values.put(COLUMN_IP_ADDRESS, router.getIpAddress());
+        try {
+            CredentialCipher cipher = CredentialCipher.getInstance(context);
+            values.put(COLUMN_USERNAME, cipher.encrypt(router.getUsername()));
+            values.put(COLUMN_PASSWORD, cipher.encrypt(router.getPassword()));
+        } catch (GeneralSecurityException | IOException e) {
+            // Never fall back to plaintext; the router is cached without credentials
+            Log.e(TAG, "Error encrypting credentials of " + router.getId() + ": " + e.getMessage(), e);
+            values.putNull(COLUMN_USERNAME);
+            values.putNull(COLUMN_PASSWORD);
+        }
+        values.put(COLUMN_MODEL, router.getModel());
+        values.put(COLUMN_FIRMWARE_VERSION, router.getFirmwareVersion());
+        values.put(COLUMN_IS_ONLINE, router.isOnline() ? 1 : 0);
+        values.put(COLUMN_TIMESTAMP, router.getTimestamp());
+        values.put(COLUMN_NAME_KEY, router.getName() != null ? router.getName().toLowerCase(Locale.ROOT) : null);
+        IpAddress address = router.getParsedAddress();
+        values.put(COLUMN_ADDRESS_KEY, address != null ? address.toBytes() : null);
+        values.put(COLUMN_SUBNET_KEY, address != null ? IpSubnet.groupOf(address).getFirst().toBytes() : null);
+        values.put(COLUMN_FIRMWARE_KEY, FirmwareVersion.toBytes(router.getFirmwareSortKey()));
+        values.put(COLUMN_SYNCED_AT, syncedAt);
+        return values;
+    }
+}
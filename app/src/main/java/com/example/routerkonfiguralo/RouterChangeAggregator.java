@@ -0,0 +1,153 @@
+package com.example.routerkonfiguralo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects router change events over a short window and turns them into one digest per window.
+ * Changes of the same router inside a window are merged. A token bucket limits how many
+ * notifications a digest may post: a handful of changes get one child notification each plus a
+ * group summary, while a fleet-wide event is reported by one standalone digest notification. When
+ * not even that fits the budget, the changes stay pending and are merged into the next window.
+ */
+public class RouterChangeAggregator {
+    public static final long DEFAULT_WINDOW_MILLIS = 5000;
+    // Above this many routers only the digest notification is posted
+    static final int MAX_CHILD_NOTIFICATIONS = 8;
+    private static final int BUCKET_CAPACITY = 10;
+    private static final long BUCKET_REFILL_MILLIS = 15 * 1000;
+
+    /** Accumulated changes of one router. */
+    public static class RouterChange {
+        public final String routerId;
+        /** Clock time of the first change merged into this one, for measuring notification lag. */
+        public final long queuedAt;
+        private String routerName;
+        private final StringBuilder text = new StringBuilder();
+        // Latest reported status transition, or null if only other fields changed
+        private Boolean wentOnline;
+
+        RouterChange(String routerId, long queuedAt) {
+            this.routerId = routerId;
+            this.queuedAt = queuedAt;
+        }
+
+        public String getRouterName() {
+            return routerName;
+        }
+
+        public String getText() {
+            return text.toString().trim();
+        }
+
+        public Boolean getWentOnline() {
+            return wentOnline;
+        }
+    }
+
+    /** What to post for one window. */
+    public static class Digest {
+        public final List<RouterChange> changes;
+        /**
+         * Whether each change gets its own notification under a group summary; otherwise a single
+         * notification outside any group reports them all.
+         */
+        public final boolean postChildren;
+        public final int wentOffline;
+        public final int wentOnline;
+
+        Digest(List<RouterChange> changes, boolean postChildren) {
+            this.changes = Collections.unmodifiableList(changes);
+            this.postChildren = postChildren;
+            int offline = 0;
+            int online = 0;
+            for (RouterChange change : changes) {
+                if (change.wentOnline == null) continue;
+                if (change.wentOnline) online++; else offline++;
+            }
+            this.wentOffline = offline;
+            this.wentOnline = online;
+        }
+
+        /** E.g. "37 routers went offline, 2 came back online". */
+        public String getSummaryTitle() {
+            StringBuilder title = new StringBuilder();
+            appendPart(title, wentOffline, " went offline");
+            appendPart(title, wentOnline, " came back online");
+            appendPart(title, changes.size() - wentOffline - wentOnline, " changed");
+            return title.toString();
+        }
+
+        // Only the first part names the routers: "3 routers went offline, 2 came back online"
+        private static void appendPart(StringBuilder title, int count, String phrase) {
+            if (count == 0) return;
+            if (title.length() > 0) {
+                title.append(", ").append(count);
+            } else {
+                title.append(count).append(count == 1 ? " router" : " routers");
+            }
+            title.append(phrase);
+        }
+    }
+
+    private final Map<String, RouterChange> pending = new LinkedHashMap<>();
+    private final Clock clock;
+    private final TokenBucket bucket;
+
+    public RouterChangeAggregator(Clock clock) {
+        this.clock = clock;
+        this.bucket = new TokenBucket(clock, BUCKET_CAPACITY, BUCKET_REFILL_MILLIS);
+    }
+
+    /**
+     * Adds a change of one router.
+     *
+     * @param wentOnline the new status if the status changed, otherwise null
+     * @return true if the window was empty, i.e. the caller should schedule a {@link #drain()}
+     */
+    public synchronized boolean add(String routerId, String routerName, String text, Boolean wentOnline) {
+        boolean startsWindow = pending.isEmpty();
+        RouterChange change = pending.get(routerId);
+        if (change == null) {
+            change = new RouterChange(routerId, clock.millis());
+            pending.put(routerId, change);
+        }
+        change.routerName = routerName;
+        change.text.append(text);
+        if (wentOnline != null) {
+            // Offline then back online within one window is still worth reporting as online
+            change.wentOnline = wentOnline;
+        }
+        return startsWindow;
+    }
+
+    /**
+     * Ends the current window. Returns null when there is nothing to post, or when the rate limit
+     * leaves no budget; in the latter case the changes are kept and {@link #hasPending()} is true.
+     */
+    public synchronized Digest drain() {
+        if (pending.isEmpty()) return null;
+
+        List<RouterChange> changes = new ArrayList<>(pending.values());
+        int size = changes.size();
+        // A single change needs no summary, several need their children plus one summary
+        int fullCost = size == 1 ? 1 : size + 1;
+        Digest digest;
+        if (size <= MAX_CHILD_NOTIFICATIONS && bucket.tryAcquire(fullCost)) {
+            digest = new Digest(changes, true);
+        } else if (bucket.tryAcquire(1)) {
+            digest = new Digest(changes, false);
+        } else {
+            return null;
+        }
+        pending.clear();
+        return digest;
+    }
+
+    public synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+}
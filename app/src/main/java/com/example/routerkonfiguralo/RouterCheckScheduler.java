@@ -0,0 +1,151 @@
+package com.example.routerkonfiguralo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps a next-check time per router. A router whose status just changed is checked again after
+ * the minimum interval; every unchanged result doubles its interval up to the maximum. Checks due
+ * within the wakeup window of each other are handed out together so they share one wakeup.
+ * <p>
+ * Plain Java with an injectable clock, so the policy can be tested without Android.
+ */
+public class RouterCheckScheduler {
+    public static final long DEFAULT_MIN_INTERVAL = 60 * 1000; // 1 minute
+    public static final long DEFAULT_MAX_INTERVAL = 60 * 60 * 1000; // 1 hour
+    public static final long DEFAULT_WAKEUP_WINDOW = 30 * 1000; // 30 seconds
+
+    private static class Entry implements Comparable<Entry> {
+        final String routerId;
+        long nextCheckAt;
+        long interval;
+
+        Entry(String routerId, long nextCheckAt, long interval) {
+            this.routerId = routerId;
+            this.nextCheckAt = nextCheckAt;
+            this.interval = interval;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTime = Long.compare(nextCheckAt, other.nextCheckAt);
+            return byTime != 0 ? byTime : routerId.compareTo(other.routerId);
+        }
+    }
+
+    private final Clock clock;
+    private final long minInterval;
+    private final long maxInterval;
+    private final long wakeupWindow;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> queue = new TreeSet<>();
+
+    public RouterCheckScheduler(Clock clock) {
+        this(clock, DEFAULT_MIN_INTERVAL, DEFAULT_MAX_INTERVAL, DEFAULT_WAKEUP_WINDOW);
+    }
+
+    public RouterCheckScheduler(Clock clock, long minInterval, long maxInterval, long wakeupWindow) {
+        if (minInterval <= 0 || maxInterval < minInterval || wakeupWindow < 0) {
+            throw new IllegalArgumentException("Invalid intervals: min=" + minInterval
+                    + ", max=" + maxInterval + ", window=" + wakeupWindow);
+        }
+        this.clock = clock;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.wakeupWindow = wakeupWindow;
+    }
+
+    /**
+     * Starts scheduling a router; a new router is due immediately. Does nothing if it is tracked.
+     */
+    public synchronized void track(String routerId) {
+        if (entries.containsKey(routerId)) return;
+
+        Entry entry = new Entry(routerId, clock.millis(), minInterval);
+        entries.put(routerId, entry);
+        queue.add(entry);
+    }
+
+    public synchronized void untrack(String routerId) {
+        Entry entry = entries.remove(routerId);
+        if (entry != null) {
+            queue.remove(entry);
+        }
+    }
+
+    /**
+     * Stops scheduling every router that is not in {@code routerIds}.
+     */
+    public synchronized void retainAll(Collection<String> routerIds) {
+        Set<String> keep = new HashSet<>(routerIds);
+        List<String> removed = new ArrayList<>();
+        for (String routerId : entries.keySet()) {
+            if (!keep.contains(routerId)) removed.add(routerId);
+        }
+        for (String routerId : removed) {
+            untrack(routerId);
+        }
+    }
+
+    /**
+     * Returns every router due now or within the wakeup window. Their next check is provisionally
+     * pushed out by their current interval, so they are not handed out again while in flight.
+     */
+    public synchronized List<String> pollDue() {
+        long now = clock.millis();
+        List<Entry> due = new ArrayList<>();
+        for (Entry entry : queue) {
+            if (entry.nextCheckAt > now + wakeupWindow) break;
+            due.add(entry);
+        }
+
+        List<String> routerIds = new ArrayList<>(due.size());
+        for (Entry entry : due) {
+            reschedule(entry, now + entry.interval);
+            routerIds.add(entry.routerId);
+        }
+        return routerIds;
+    }
+
+    /**
+     * Adapts a router's interval to the outcome of its check and schedules the next one.
+     *
+     * @param changed whether the check observed a different status than before
+     */
+    public synchronized void recordResult(String routerId, boolean changed) {
+        Entry entry = entries.get(routerId);
+        if (entry == null) return;
+
+        entry.interval = changed ? minInterval : Math.min(entry.interval * 2, maxInterval);
+        reschedule(entry, clock.millis() + entry.interval);
+    }
+
+    /**
+     * Time of the earliest due check, or {@link Long#MAX_VALUE} when nothing is tracked.
+     */
+    public synchronized long nextWakeupAt() {
+        return queue.isEmpty() ? Long.MAX_VALUE : queue.first().nextCheckAt;
+    }
+
+    /** Current check interval of a router, or -1 if it is not tracked. */
+    public synchronized long intervalOf(String routerId) {
+        Entry entry = entries.get(routerId);
+        return entry != null ? entry.interval : -1;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void reschedule(Entry entry, long nextCheckAt) {
+        queue.remove(entry);
+        entry.nextCheckAt = nextCheckAt;
+        queue.add(entry);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.routerkonfiguralo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps {@link Router} to and from the field map of a Firestore document. Every screen and the
+ * notification service use it, so the document layout is defined in one place. Decoding walks the
+ * map once and dispatches on the field name, with no reflection, unlike
+ * {@code DocumentSnapshot.toObject()}.
+ * <p>
+ * Connected devices are stored as one bytes field of packed MAC addresses, see
+ * {@link MacAddressSet#toBytes()}. The codec reads and writes them as a {@code byte[]};
+ * {@link RouterDocuments} converts to and from Firestore's {@code Blob}.
+ * <p>
+ * Free of Android and Firebase APIs, so it can be tested and benchmarked on the JVM.
+ */
+public final class RouterCodec {
+    public static final String COLLECTION = "routers";
+
+    // Compile-time constants, so every use shares the same interned string
+    public static final String FIELD_NAME = "name";
+    public static final String FIELD_IP_ADDRESS = "ipAddress";
+    public static final String FIELD_USERNAME = "username";
+    public static final String FIELD_PASSWORD = "password";
+    public static final String FIELD_MODEL = "model";
+    public static final String FIELD_FIRMWARE_VERSION = "firmwareVersion";
+    public static final String FIELD_CONNECTED_DEVICES = "connectedDevices";
+    public static final String FIELD_IS_ONLINE = "isOnline";
+    public static final String FIELD_USER_ID = "userId";
+    public static final String FIELD_TIMESTAMP = "timestamp";
+
+    private static final LatencyHistogram DECODE_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.CODEC_DECODE);
+    private static final MetricsRegistry.Counter INVALID_DEVICES =
+            MetricsRegistry.getInstance().counter(MetricsRegistry.CODEC_INVALID_DEVICES);
+
+    private RouterCodec() {
+    }
+
+    /**
+     * Decodes a document's fields. Missing or mistyped fields keep the {@link Router} defaults;
+     * unknown fields are ignored.
+     */
+    public static Router decode(String id, Map<String, Object> data) {
+        long start = System.nanoTime();
+        Router router = new Router();
+        router.setId(id);
+        if (data == null) return router;
+
+        for (Map.Entry<String, Object> field : data.entrySet()) {
+            Object value = field.getValue();
+            switch (field.getKey()) {
+                case FIELD_NAME:
+                    router.setName(asString(value));
+                    break;
+                case FIELD_IP_ADDRESS:
+                    router.setIpAddress(asString(value));
+                    break;
+                case FIELD_USERNAME:
+                    router.setUsername(asString(value));
+                    break;
+                case FIELD_PASSWORD:
+                    router.setPassword(asString(value));
+                    break;
+                case FIELD_MODEL:
+                    router.setModel(asString(value));
+                    break;
+                case FIELD_FIRMWARE_VERSION:
+                    router.setFirmwareVersion(asString(value));
+                    break;
+                case FIELD_CONNECTED_DEVICES:
+                    if (value instanceof byte[]) {
+                        router.setConnectedDevices(MacAddressSet.fromBytes((byte[]) value));
+                    } else if (value instanceof List) {
+                        // Older documents list the addresses as strings; entries that are not MAC
+                        // addresses are dropped and counted
+                        for (Object device : (List<?>) value) {
+                            long mac = device instanceof String ? MacAddressSet.parse((String) device)
+                                    : MacAddressSet.INVALID;
+                            if (mac != MacAddressSet.INVALID) {
+                                router.getConnectedDevices().add(mac);
+                            } else {
+                                INVALID_DEVICES.increment();
+                            }
+                        }
+                    }
+                    break;
+                case FIELD_IS_ONLINE:
+                    router.setOnline(Boolean.TRUE.equals(value));
+                    break;
+                case FIELD_TIMESTAMP:
+                    if (value instanceof Number) router.setTimestamp(((Number) value).longValue());
+                    break;
+                default:
+                    break;
+            }
+        }
+        DECODE_LATENCY.recordSince(start);
+        return router;
+    }
+
+    /**
+     * Encodes the fields a user edits, plus the modification timestamp. Suitable for
+     * {@code update()}, since it leaves the status and owner untouched.
+     */
+    public static Map<String, Object> encodeSettings(Router router) {
+        Map<String, Object> data = new HashMap<>();
+        data.put(FIELD_NAME, router.getName());
+        data.put(FIELD_IP_ADDRESS, router.getIpAddress());
+        data.put(FIELD_USERNAME, router.getUsername());
+        data.put(FIELD_PASSWORD, router.getPassword());
+        data.put(FIELD_MODEL, router.getModel());
+        data.put(FIELD_FIRMWARE_VERSION, router.getFirmwareVersion());
+        data.put(FIELD_TIMESTAMP, router.getTimestamp());
+        return data;
+    }
+
+    /**
+     * Encodes a complete router document owned by {@code userId}. Connected devices are a
+     * {@code byte[]}, which has to become a {@code Blob} before it is written.
+     */
+    public static Map<String, Object> encode(Router router, String userId) {
+        Map<String, Object> data = encodeSettings(router);
+        data.put(FIELD_IS_ONLINE, router.isOnline());
+        data.put(FIELD_USER_ID, userId);
+        if (!router.getConnectedDevices().isEmpty()) {
+            data.put(FIELD_CONNECTED_DEVICES, router.getConnectedDevices().toBytes());
+        }
+        return data;
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.routerkonfiguralo;
+
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Map;
+
+/**
+ * The Firestore side of {@link RouterCodec}: converts the connected devices between the codec's
+ * {@code byte[]} and the {@link Blob} Firestore stores, so the codec itself stays plain Java.
+ */
+public final class RouterDocuments {
+    private RouterDocuments() {
+    }
+
+    public static Router decode(DocumentSnapshot document) {
+        Map<String, Object> data = document.getData();
+        if (data != null) {
+            Object devices = data.get(RouterCodec.FIELD_CONNECTED_DEVICES);
+            // getData() returns a fresh map, so it can be changed in place
+            if (devices instanceof Blob) {
+                data.put(RouterCodec.FIELD_CONNECTED_DEVICES, ((Blob) devices).toBytes());
+            }
+        }
+        return RouterCodec.decode(document.getId(), data);
+    }
+
+    public static Map<String, Object> encode(Router router, String userId) {
+        Map<String, Object> data = RouterCodec.encode(router, userId);
+        Object devices = data.get(RouterCodec.FIELD_CONNECTED_DEVICES);
+        if (devices instanceof byte[]) {
+            data.put(RouterCodec.FIELD_CONNECTED_DEVICES, Blob.fromBytes((byte[]) devices));
+        }
+        return data;
+    }
+}
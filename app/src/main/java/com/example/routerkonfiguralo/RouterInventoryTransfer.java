@@ -0,0 +1,395 @@
+package com.example.routerkonfiguralo;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.JsonWriter;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bulk import and export of a user's routers as CSV or JSON. Files are streamed record by record
+ * in both directions, so their size is not limited by memory.
+ * <p>
+ * Import validates every record with the add form's rules, skips invalid ones and writes the rest
+ * in {@link WriteBatch}es of {@link #BATCH_SIZE}. After each committed batch a checkpoint is
+ * saved; importing the same file again after an interruption resumes after the last committed
+ * record. Document ids are derived from the import and record number, so a batch that is written
+ * again after a crash overwrites its own documents instead of duplicating them.
+ * <p>
+ * Export reads the collection page by page. Exported files contain the router passwords, because
+ * an import needs them.
+ * <p>
+ * Every Firestore call is awaited with a timeout: offline, a batch commit never completes, and
+ * it would hold the single transfer thread, and every transfer queued behind it, forever.
+ */
+public class RouterInventoryTransfer {
+    private static final String TAG = "RouterInventoryTransfer";
+    // Firestore's limit of writes per batch
+    static final int BATCH_SIZE = 500;
+    private static final String PREFS_NAME = "router_import";
+    private static final String KEY_URI = "uri";
+    private static final String KEY_IMPORT_ID = "import_id";
+    private static final String KEY_RECORDS_DONE = "records_done";
+    private static final String KEY_IMPORTED = "imported";
+    private static final String KEY_SKIPPED = "skipped";
+    private static final long FIRESTORE_TIMEOUT_SECONDS = 60;
+
+    private static final String[] COLUMNS = {
+            RouterCodec.FIELD_NAME,
+            RouterCodec.FIELD_IP_ADDRESS,
+            RouterCodec.FIELD_USERNAME,
+            RouterCodec.FIELD_PASSWORD,
+            RouterCodec.FIELD_MODEL,
+            RouterCodec.FIELD_FIRMWARE_VERSION
+    };
+
+    // Transfers block on network and file I/O, so they get their own thread
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "router-transfer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public enum Format {
+        CSV, JSON;
+
+        /** Picks the format from a document's MIME type, defaulting to CSV. */
+        public static Format of(String mimeType) {
+            return mimeType != null && mimeType.contains("json") ? JSON : CSV;
+        }
+    }
+
+    /** Callbacks run on the main thread. */
+    public interface ProgressListener {
+        /** Called after every batch, or every page on export. */
+        void onProgress(int transferred, int skipped);
+
+        void onComplete(int transferred, int skipped, String firstError);
+
+        void onError(Exception e);
+    }
+
+    private final ContentResolver contentResolver;
+    private final SharedPreferences checkpoints;
+    private final FirebaseFirestore db;
+    private final String userId;
+
+    public RouterInventoryTransfer(Context context, FirebaseFirestore db, String userId) {
+        this.contentResolver = context.getContentResolver();
+        this.checkpoints = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.db = db;
+        this.userId = userId;
+    }
+
+    /** Number of records a new import of this file would skip because an earlier run committed them. */
+    public int resumePoint(Uri uri) {
+        return uri.toString().equals(checkpoints.getString(KEY_URI, null))
+                ? checkpoints.getInt(KEY_RECORDS_DONE, 0) : 0;
+    }
+
+    public void importFrom(Uri uri, ProgressListener listener) {
+        EXECUTOR.execute(() -> {
+            try {
+                runImport(uri, Format.of(contentResolver.getType(uri)), listener);
+            } catch (Exception e) {
+                Log.e(TAG, "Error importing routers: " + e.getMessage(), e);
+                AppExecutors.mainThread().execute(() -> listener.onError(e));
+            }
+        });
+    }
+
+    public void exportTo(Uri uri, Format format, ProgressListener listener) {
+        EXECUTOR.execute(() -> {
+            try {
+                runExport(uri, format, listener);
+            } catch (Exception e) {
+                Log.e(TAG, "Error exporting routers: " + e.getMessage(), e);
+                AppExecutors.mainThread().execute(() -> listener.onError(e));
+            }
+        });
+    }
+
+    private void runImport(Uri uri, Format format, ProgressListener listener) throws Exception {
+        int resumeAfter = resumePoint(uri);
+        String importId = resumeAfter > 0 ? checkpoints.getString(KEY_IMPORT_ID, null) : null;
+        if (importId == null) {
+            importId = UUID.randomUUID().toString();
+            resumeAfter = 0;
+            saveCheckpoint(uri, importId, 0, 0, 0);
+        }
+
+        InputStream input = contentResolver.openInputStream(uri);
+        if (input == null) throw new IOException("Cannot open " + uri);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try (RecordSource records = format == Format.JSON ? new JsonRecords(reader) : new CsvRecords(reader)) {
+            CollectionReference routers = db.collection(RouterCodec.COLLECTION);
+            WriteBatch batch = db.batch();
+            int batched = 0;
+            int recordNumber = 0;
+            int imported = resumeAfter > 0 ? checkpoints.getInt(KEY_IMPORTED, 0) : 0;
+            int skipped = resumeAfter > 0 ? checkpoints.getInt(KEY_SKIPPED, 0) : 0;
+            String firstError = null;
+
+            Map<String, String> record;
+            while ((record = records.next()) != null) {
+                recordNumber++;
+                if (recordNumber <= resumeAfter) continue;
+
+                Router router = toRouter(record);
+                String error = RouterValidator.validate(router);
+                if (error != null) {
+                    skipped++;
+                    if (firstError == null) firstError = "Record " + recordNumber + ": " + error;
+                    continue;
+                }
+                batch.set(routers.document(importId + "-" + recordNumber), RouterDocuments.encode(router, userId));
+                batched++;
+                imported++;
+
+                if (batched == BATCH_SIZE) {
+                    awaitCommit(batch.commit());
+                    saveCheckpoint(uri, importId, recordNumber, imported, skipped);
+                    reportProgress(listener, imported, skipped);
+                    batch = db.batch();
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                awaitCommit(batch.commit());
+            }
+            checkpoints.edit().clear().apply();
+
+            int total = imported;
+            int totalSkipped = skipped;
+            String error = firstError;
+            AppExecutors.mainThread().execute(() -> listener.onComplete(total, totalSkipped, error));
+        }
+    }
+
+    /**
+     * Waits for a batch commit. On a timeout the batch stays queued in Firestore and may still
+     * be written later; importing the file again resumes after the last checkpoint and
+     * overwrites the same documents.
+     */
+    private static void awaitCommit(Task<Void> commit) throws Exception {
+        try {
+            Tasks.await(commit, FIRESTORE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("No response from the server; check the connection and import the file again to resume", e);
+        }
+    }
+
+    private static QuerySnapshot awaitNextPage(RouterPageLoader pages) throws Exception {
+        try {
+            return pages.awaitNextPage(FIRESTORE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("No response from the server; check the connection and try again", e);
+        }
+    }
+
+    private void saveCheckpoint(Uri uri, String importId, int recordsDone, int imported, int skipped) {
+        // commit() rather than apply(): the checkpoint must be on disk before the next batch
+        checkpoints.edit()
+                .putString(KEY_URI, uri.toString())
+                .putString(KEY_IMPORT_ID, importId)
+                .putInt(KEY_RECORDS_DONE, recordsDone)
+                .putInt(KEY_IMPORTED, imported)
+                .putInt(KEY_SKIPPED, skipped)
+                .commit();
+    }
+
+    private static Router toRouter(Map<String, String> record) {
+        Router router = new Router(trim(record.get(RouterCodec.FIELD_NAME)),
+                trim(record.get(RouterCodec.FIELD_IP_ADDRESS)),
+                trim(record.get(RouterCodec.FIELD_USERNAME)),
+                trim(record.get(RouterCodec.FIELD_PASSWORD)),
+                trim(record.get(RouterCodec.FIELD_MODEL)));
+        router.setFirmwareVersion(trim(record.get(RouterCodec.FIELD_FIRMWARE_VERSION)));
+        router.setTimestamp(System.currentTimeMillis());
+        return router;
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    private void runExport(Uri uri, Format format, ProgressListener listener) throws Exception {
+        OutputStream output = contentResolver.openOutputStream(uri, "wt");
+        if (output == null) throw new IOException("Cannot open " + uri);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        int exported = 0;
+        JsonWriter json = null;
+        try {
+            if (format == Format.JSON) {
+                json = new JsonWriter(writer);
+                json.setIndent("  ");
+                json.beginArray();
+            } else {
+                CsvRecordReader.writeRecord(writer, COLUMNS);
+            }
+
+            RouterPageLoader pages = new RouterPageLoader(db, userId, BATCH_SIZE);
+            QuerySnapshot page;
+            while ((page = awaitNextPage(pages)) != null) {
+                for (DocumentSnapshot document : page.getDocuments()) {
+                    Router router = RouterDocuments.decode(document);
+                    String[] values = {router.getName(), router.getIpAddress(), router.getUsername(),
+                            router.getPassword(), router.getModel(), router.getFirmwareVersion()};
+                    if (json != null) {
+                        json.beginObject();
+                        for (int i = 0; i < COLUMNS.length; i++) {
+                            json.name(COLUMNS[i]).value(values[i]);
+                        }
+                        json.endObject();
+                    } else {
+                        CsvRecordReader.writeRecord(writer, values);
+                    }
+                    exported++;
+                }
+                reportProgress(listener, exported, 0);
+            }
+
+            if (json != null) {
+                json.endArray();
+                json.flush();
+            }
+        } finally {
+            if (json != null) {
+                json.close();
+            } else {
+                writer.close();
+            }
+        }
+
+        int total = exported;
+        AppExecutors.mainThread().execute(() -> listener.onComplete(total, 0, null));
+    }
+
+    private static void reportProgress(ProgressListener listener, int transferred, int skipped) {
+        AppExecutors.mainThread().execute(() -> listener.onProgress(transferred, skipped));
+    }
+
+    /** Records of an import file as column name to value, one at a time. */
+    private interface RecordSource extends Closeable {
+        /** Returns the next record, or null at the end. */
+        Map<String, String> next() throws IOException;
+    }
+
+    /** CSV with a header row naming the columns; unknown columns are ignored. */
+    private static class CsvRecords implements RecordSource {
+        private final BufferedReader reader;
+        private final CsvRecordReader csv;
+        private List<String> header;
+
+        CsvRecords(BufferedReader reader) {
+            this.reader = reader;
+            this.csv = new CsvRecordReader(reader);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                header = csv.next();
+                if (header == null) return null;
+                for (int i = 0; i < header.size(); i++) {
+                    header.set(i, canonicalColumn(header.get(i)));
+                }
+            }
+
+            List<String> fields = csv.next();
+            if (fields == null) return null;
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < fields.size() && i < header.size(); i++) {
+                record.put(header.get(i), fields.get(i));
+            }
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /** A JSON array of objects; fields that are not strings, numbers or booleans are ignored. */
+    private static class JsonRecords implements RecordSource {
+        private final JsonReader json;
+        private boolean started;
+
+        JsonRecords(BufferedReader reader) {
+            this.json = new JsonReader(reader);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (!started) {
+                json.beginArray();
+                started = true;
+            }
+            if (!json.hasNext()) return null;
+
+            Map<String, String> record = new HashMap<>();
+            json.beginObject();
+            while (json.hasNext()) {
+                String column = canonicalColumn(json.nextName());
+                JsonToken token = json.peek();
+                if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                    record.put(column, json.nextString());
+                } else if (token == JsonToken.BOOLEAN) {
+                    record.put(column, String.valueOf(json.nextBoolean()));
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+
+    // Accepts column names in any case, e.g. "IpAddress" or "ipaddress"
+    private static String canonicalColumn(String name) {
+        // Spreadsheet exports often start with a byte order mark
+        String trimmed = name.replace("\uFEFF", "").trim();
+        for (String column : COLUMNS) {
+            if (column.equalsIgnoreCase(trimmed)) return column;
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+}
@@ -5,8 +5,12 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Trace;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.MenuItem;
+import android.view.View;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
 import android.widget.Toast;
@@ -18,30 +22,114 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.routerkonfiguralo.databinding.ActivityRouterListBinding;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-public class RouterListActivity extends AppCompatActivity implements RouterAdapter.OnRouterDeleteListener, RouterAdapter.OnRouterEditListener {
+public class RouterListActivity extends AppCompatActivity implements RouterAdapter.OnRouterDeleteListener,
+        RouterAdapter.OnRouterEditListener, RouterAdapter.OnSubnetToggleListener {
     private static final int NOTIFICATION_PERMISSION_CODE = 123;
+    // A full resync (which also catches routers deleted from other devices) runs at most once a day
+    private static final long FULL_RESYNC_INTERVAL = 24 * 60 * 60 * 1000;
+    // Overlap for the timestamp cursor, covering clock skew between the devices writing timestamps
+    private static final long SYNC_CURSOR_OVERLAP = 5 * 60 * 1000;
+    // The fleet availability replays every router's history, so it is recomputed at most once a
+    // minute unless the fleet size changes
+    private static final long FLEET_AVAILABILITY_INTERVAL = 60 * 1000;
+    // From onCreate until the first rows reach the adapter; measured by the startup benchmark
+    private static final String FIRST_LIST_SECTION = "RouterListActivity.firstList";
+    // Timings of the list pipeline, shown on the diagnostics screen
+    private static final LatencyHistogram DECODE_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.LIST_DECODE);
+    private static final LatencyHistogram ORDER_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.LIST_ORDER);
+    private static final LatencyHistogram INDEX_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.LIST_INDEX);
+    private static final LatencyHistogram SEARCH_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.LIST_SEARCH);
+    private static final LatencyHistogram PUBLISH_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.LIST_PUBLISH);
+    private static final LatencyHistogram FLEET_AVAILABILITY_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.LIST_FLEET_AVAILABILITY);
     private ActivityRouterListBinding binding;
     private FirebaseFirestore db;
     private FirebaseAuth mAuth;
     private RouterAdapter adapter;
-    private List<Router> routerList;
+    // Last list handed to the adapter; only replaced on the main thread
+    private List<RouterListItem> routerList = Collections.emptyList();
+    private RouterCache routerCache;
+    private String userId;
+    private int pageSize;
+    private int prefetchDistance;
+    // Rows kept in memory above and below the visible ones
+    private int windowRows;
+    private volatile boolean isStarted = false;
+    // Pages of the visible range last reported to the list preparation thread; main thread only
+    private int reportedFirstPage = -1;
+    private int reportedLastPage = -1;
+
+    // Sync state below is confined to AppExecutors.listPreparation()
+    private RouterCache.Order order = RouterCache.Order.DOCUMENT;
+    // IDs of all cached routers in list order; null until first read from the cache
+    private RouterCache.Ordering ordering;
+    // Incremented per ordering read, so the disk thread skips reads that a newer one replaces
+    private volatile int orderingRequests;
+    private String fleetAvailability = "";
+    // Disk thread only: when the fleet availability was last computed, and over how many routers
+    private long fleetAvailabilityAt;
+    private int fleetAvailabilityCount = -1;
+    // Routers of the rows near the visible ones, the only routers held in memory
+    private final Map<String, Router> loadedRouters = new HashMap<>();
+    private final Set<String> windowIds = new HashSet<>();
+    private final Set<String> loadingIds = new HashSet<>();
+    private int firstVisible = 0;
+    private int lastVisible;
+    // Built from the cache on the first search; null until then
+    private RouterSearchIndex searchIndex;
+    // Changes made while the index is being built, replayed onto it; null values are removals
+    private Map<String, Router> pendingIndexChanges;
+    private String searchQuery = "";
+    private boolean groupBySubnet = false;
+    private final Set<String> collapsedSubnets = new HashSet<>();
+    private ListenerRegistration routerListener;
+    // Set when the listener attaches, until its first snapshot from the server triggers checkForDeletions()
+    private boolean deletionCheckPending;
+    private boolean cacheLoaded = false;
+    private long syncCursor;
+    private long lastFullSync;
+    // Non-null while a paged full resync is running
+    private RouterPageLoader pageLoader;
+    private boolean pageOnScroll;
+    private long fullSyncStartedAt;
     private Animation buttonClickAnim;
     private Animation buttonReleaseAnim;
     private boolean isActivityActive = false;
+    // Main thread only
+    private boolean firstListShown = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(FIRST_LIST_SECTION, 0);
+        }
         try {
             binding = ActivityRouterListBinding.inflate(getLayoutInflater());
             setContentView(binding.getRoot());
@@ -64,10 +152,6 @@ public class RouterListActivity extends AppCompatActivity implements RouterAdapt
                 }
             }
 
-            // Load animations
-            buttonClickAnim = AnimationUtils.loadAnimation(this, R.anim.button_click);
-            buttonReleaseAnim = AnimationUtils.loadAnimation(this, R.anim.button_release);
-
             // Enable back button in action bar
             if (getSupportActionBar() != null) {
                 getSupportActionBar().setDisplayHomeAsUpEnabled(true);
@@ -75,20 +159,39 @@ public class RouterListActivity extends AppCompatActivity implements RouterAdapt
             }
 
             // Initialize Firebase instances
-            db = FirebaseFirestore.getInstance();
-            mAuth = FirebaseAuth.getInstance();
+            db = RouterApplication.firestore();
+            mAuth = RouterApplication.auth();
 
             // Initialize RecyclerView
-            routerList = new ArrayList<>();
-            adapter = new RouterAdapter(routerList, this, this);
+            adapter = new RouterAdapter(this, this, this);
             binding.routerRecyclerView.setLayoutManager(new LinearLayoutManager(this));
             binding.routerRecyclerView.setAdapter(adapter);
+            binding.routerRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                    // Also called after layouts that change the visible rows
+                    reportVisibleRange();
+                    if (dy > 0) prefetchNextPageIfNeeded();
+                }
+            });
+
+            // Render the cached routers while the server catches up
+            userId = mAuth.getCurrentUser().getUid();
+            routerCache = RouterCache.getInstance(this);
+            pageSize = getResources().getInteger(R.integer.router_page_size);
+            prefetchDistance = getResources().getInteger(R.integer.router_prefetch_distance);
+            windowRows = pageSize * getResources().getInteger(R.integer.router_window_pages);
+            lastVisible = pageSize - 1;
+            loadCachedRouters();
 
             // Set up sorting buttons with animations
             setupSortingButtons();
+            setupSearch();
 
-            // Start notification service
-            startNotificationService();
+            // The service and its first Firestore listener can wait until the list is on screen
+            RouterApplication.runAfterFirstFrame(() -> {
+                if (!isFinishing()) startNotificationService();
+            });
         } catch (Exception e) {
             Log.e("RouterListActivity", "Error in onCreate: " + e.getMessage(), e);
             Toast.makeText(this, "Error initializing: " + e.getMessage(), Toast.LENGTH_LONG).show();
@@ -100,17 +203,22 @@ public class RouterListActivity extends AppCompatActivity implements RouterAdapt
     protected void onStart() {
         super.onStart();
         isActivityActive = true;
-        loadRouters();
+        isStarted = true;
+        AppExecutors.listPreparation().execute(this::startSync);
     }
 
     @Override
     protected void onStop() {
         super.onStop();
         isActivityActive = false;
+        isStarted = false;
+        AppExecutors.listPreparation().execute(this::stopRouterListener);
         // Clear any pending animations
         if (binding != null) {
             binding.sortByNameButton.clearAnimation();
             binding.sortByFirmwareButton.clearAnimation();
+            binding.sortByAddressButton.clearAnimation();
+            binding.groupBySubnetButton.clearAnimation();
         }
     }
 
@@ -126,9 +234,18 @@ public class RouterListActivity extends AppCompatActivity implements RouterAdapt
             buttonReleaseAnim.cancel();
             buttonReleaseAnim = null;
         }
+        endFirstListSection();
         binding = null;
     }
 
+    private void endFirstListSection() {
+        if (firstListShown) return;
+        firstListShown = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(FIRST_LIST_SECTION, 0);
+        }
+    }
+
     @Override
     public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions,
                                          @NonNull int[] grantResults) {
@@ -145,33 +262,28 @@ public class RouterListActivity extends AppCompatActivity implements RouterAdapt
     }
 
     private void setupSortingButtons() {
-        binding.sortByNameButton.setOnTouchListener((v, event) -> {
-            if (!isActivityActive) return false;
-            switch (event.getAction()) {
-                case android.view.MotionEvent.ACTION_DOWN:
-                    v.startAnimation(buttonClickAnim);
-                    break;
-                case android.view.MotionEvent.ACTION_UP:
-                case android.view.MotionEvent.ACTION_CANCEL:
-                    v.startAnimation(buttonReleaseAnim);
-                    break;
-            }
-            return false;
-        });
-
-        binding.sortByFirmwareButton.setOnTouchListener((v, event) -> {
+        View.OnTouchListener pressAnimation = (v, event) -> {
             if (!isActivityActive) return false;
             switch (event.getAction()) {
                 case android.view.MotionEvent.ACTION_DOWN:
+                    // Loaded on the first press rather than before the first frame
+                    if (buttonClickAnim == null) {
+                        buttonClickAnim = AnimationUtils.loadAnimation(this, R.anim.button_click);
+                        buttonReleaseAnim = AnimationUtils.loadAnimation(this, R.anim.button_release);
+                    }
                     v.startAnimation(buttonClickAnim);
                     break;
                 case android.view.MotionEvent.ACTION_UP:
                 case android.view.MotionEvent.ACTION_CANCEL:
-                    v.startAnimation(buttonReleaseAnim);
+                    if (buttonReleaseAnim != null) v.startAnimation(buttonReleaseAnim);
                     break;
             }
             return false;
-        });
+        };
+        binding.sortByNameButton.setOnTouchListener(pressAnimation);
+        binding.sortByFirmwareButton.setOnTouchListener(pressAnimation);
+        binding.sortByAddressButton.setOnTouchListener(pressAnimation);
+        binding.groupBySubnetButton.setOnTouchListener(pressAnimation);
 
         binding.sortByNameButton.setOnClickListener(v -> {
             if (isActivityActive) sortRoutersByName();
@@ -179,66 +291,628 @@ public class RouterListActivity extends AppCompatActivity implements RouterAdapt
         binding.sortByFirmwareButton.setOnClickListener(v -> {
             if (isActivityActive) sortRoutersByFirmware();
         });
+        binding.sortByAddressButton.setOnClickListener(v -> {
+            if (isActivityActive) sortRoutersByAddress();
+        });
+        binding.groupBySubnetButton.setOnClickListener(v -> {
+            if (isActivityActive) toggleSubnetGrouping();
+        });
     }
 
-    private void loadRouters() {
-        if (!isActivityActive) return;
-        
+    private void setupSearch() {
+        binding.searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                String query = s.toString();
+                AppExecutors.listPreparation().execute(() -> {
+                    searchQuery = query;
+                    if (!query.trim().isEmpty()) fetchRemainingPages();
+                    publishRouterList();
+                });
+            }
+        });
+    }
+
+    private void loadCachedRouters() {
+        AppExecutors.diskIO().execute(() -> {
+            RouterCache.SyncState syncState;
+            try {
+                syncState = routerCache.getSyncState(userId);
+            } catch (Exception e) {
+                Log.e("RouterListActivity", "Error reading router cache: " + e.getMessage(), e);
+                syncState = new RouterCache.SyncState(0, 0);
+            }
+
+            RouterCache.SyncState state = syncState;
+            AppExecutors.listPreparation().execute(() -> {
+                if (isDestroyed()) return;
+                cacheLoaded = true;
+                syncCursor = state.lastSync;
+                lastFullSync = state.lastFullSync;
+                refreshOrdering();
+                if (isStarted) {
+                    startSync();
+                }
+            });
+        });
+    }
+
+    private void startSync() {
+        if (!cacheLoaded) return;
+
+        if (pageLoader == null && (syncCursor == 0
+                || System.currentTimeMillis() - lastFullSync > FULL_RESYNC_INTERVAL)) {
+            startFullSync();
+        }
+        startRouterListener();
+    }
+
+    /**
+     * Reads the whole collection page by page into the cache, then drops cached routers that were
+     * not seen, which catches routers deleted from other devices. Until a first full sync has
+     * completed, and while the list is shown in document order, the pages follow the user's
+     * scrolling: they arrive in that same order, so each one extends the end of the list.
+     * Otherwise they are fetched back to back in the background.
+     */
+    private void startFullSync() {
+        fullSyncStartedAt = System.currentTimeMillis();
+        pageOnScroll = lastFullSync == 0 && order == RouterCache.Order.DOCUMENT && !groupBySubnet
+                && searchQuery.trim().isEmpty();
+        pageLoader = new RouterPageLoader(db, userId, pageSize);
+        loadNextPage();
+    }
+
+    /**
+     * Sorted, grouped and searched lists need every router, so a resync that follows the
+     * scrolling fetches its remaining pages right away once one of them is shown.
+     */
+    private void fetchRemainingPages() {
+        if (pageLoader != null && pageOnScroll) {
+            pageOnScroll = false;
+            loadNextPage();
+        }
+    }
+
+    // Called on the main thread while scrolling
+    private void prefetchNextPageIfNeeded() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) binding.routerRecyclerView.getLayoutManager();
+        if (layoutManager != null
+                && layoutManager.findLastVisibleItemPosition() >= routerList.size() - prefetchDistance) {
+            AppExecutors.listPreparation().execute(() -> {
+                if (pageOnScroll) loadNextPage();
+            });
+        }
+    }
+
+    /**
+     * Called on the main thread while scrolling. The loaded window only moves when the visible
+     * rows enter another page, so most scroll events cost nothing.
+     */
+    private void reportVisibleRange() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) binding.routerRecyclerView.getLayoutManager();
+        if (layoutManager == null) return;
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) return;
+        if (first / pageSize == reportedFirstPage && last / pageSize == reportedLastPage) return;
+
+        reportedFirstPage = first / pageSize;
+        reportedLastPage = last / pageSize;
+        AppExecutors.listPreparation().execute(() -> {
+            firstVisible = first;
+            lastVisible = last;
+            publishRouterList();
+        });
+    }
+
+    private void loadNextPage() {
+        RouterPageLoader loader = pageLoader;
+        if (loader == null) return;
+
+        loader.loadNextPage(AppExecutors.listPreparation(), page -> {
+            if (isDestroyed() || loader != pageLoader) return;
+
+            long decodeStart = System.nanoTime();
+            List<Router> upserts = new ArrayList<>();
+            List<String> missingTimestamps = new ArrayList<>();
+            for (QueryDocumentSnapshot document : page) {
+                Router router = RouterDocuments.decode(document);
+                upserts.add(router);
+                syncCursor = Math.max(syncCursor, router.getTimestamp());
+                if (!document.contains(RouterCodec.FIELD_TIMESTAMP)) {
+                    missingTimestamps.add(router.getId());
+                }
+            }
+            DECODE_LATENCY.recordSince(decodeStart);
+            applyUpserts(upserts);
+            backfillTimestamps(missingTimestamps);
+
+            if (!loader.hasMore()) {
+                finishFullSync();
+            } else if (!pageOnScroll) {
+                loadNextPage();
+            }
+            // Otherwise the next page is requested once the user scrolls near the end
+        }, e -> {
+            if (loader != pageLoader) return;
+            pageLoader = null;
+            Log.e("RouterListActivity", "Error loading routers: " + e.getMessage(), e);
+            showToast("Error loading routers: " + e.getMessage());
+        });
+    }
+
+    private void finishFullSync() {
+        pageLoader = null;
+        // Routers written after the sync started may come from the live listener instead
+        long keepAfter = fullSyncStartedAt - SYNC_CURSOR_OVERLAP;
+        long startedAt = fullSyncStartedAt;
+        lastFullSync = System.currentTimeMillis();
+        long cursor = syncCursor;
+        long syncedAt = lastFullSync;
+        AppExecutors.diskIO().execute(() -> {
+            List<String> staleIds;
+            try {
+                staleIds = routerCache.removeUnseen(userId, startedAt, keepAfter, cursor, syncedAt);
+            } catch (Exception e) {
+                Log.e("RouterListActivity", "Error writing router cache: " + e.getMessage(), e);
+                return;
+            }
+            if (staleIds.isEmpty()) return;
+            AppExecutors.listPreparation().execute(() -> {
+                for (String routerId : staleIds) {
+                    forgetRouter(routerId);
+                }
+                refreshOrdering();
+            });
+        });
+    }
+
+    /**
+     * Routers written before timestamps were introduced are invisible to the cursor-based
+     * listeners here and in the notification service, so the full resync stamps them once.
+     */
+    private void backfillTimestamps(List<String> routerIds) {
+        if (routerIds.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        WriteBatch batch = db.batch();
+        for (String routerId : routerIds) {
+            batch.update(db.collection(RouterCodec.COLLECTION).document(routerId), RouterCodec.FIELD_TIMESTAMP, now);
+        }
+        batch.commit()
+                .addOnSuccessListener(aVoid -> Log.d("RouterListActivity",
+                        "Added timestamps to " + routerIds.size() + " routers"))
+                .addOnFailureListener(e -> Log.e("RouterListActivity",
+                        "Error adding router timestamps: " + e.getMessage(), e));
+    }
+
+    /**
+     * Listens for routers changed since the last sync, so only modified documents are read.
+     * Snapshots are delivered on the list preparation thread, never on the main thread. The query
+     * needs the composite index on userId and timestamp in firestore.indexes.json.
+     */
+    private void startRouterListener() {
+        if (routerListener != null) return;
+
         try {
-            String userId = mAuth.getCurrentUser().getUid();
-            db.collection("routers")
-                    .whereEqualTo("userId", userId)
-                    .get()
-                    .addOnSuccessListener(queryDocumentSnapshots -> {
-                        if (!isActivityActive) return;
-                        
+            deletionCheckPending = true;
+            long since = syncCursor > 0 ? syncCursor : fullSyncStartedAt;
+            routerListener = db.collection(RouterCodec.COLLECTION)
+                    .whereEqualTo(RouterCodec.FIELD_USER_ID, userId)
+                    .whereGreaterThan(RouterCodec.FIELD_TIMESTAMP, since - SYNC_CURSOR_OVERLAP)
+                    .addSnapshotListener(AppExecutors.listPreparation(), (snapshots, error) -> {
+                        if (error != null) {
+                            Log.e("RouterListActivity", "Error listening to routers: " + error.getMessage(), error);
+                            showToast("Error loading routers: " + error.getMessage());
+                            return;
+                        }
+                        if (snapshots == null || isDestroyed()) return;
+
                         try {
-                            routerList.clear();
-                            for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                                Router router = new Router();
-                                router.setId(document.getId());
-                                router.setName(document.getString("name"));
-                                router.setIpAddress(document.getString("ipAddress"));
-                                router.setUsername(document.getString("username"));
-                                router.setPassword(document.getString("password"));
-                                router.setModel(document.getString("model"));
-                                router.setFirmwareVersion(document.getString("firmwareVersion"));
-                                Boolean isOnline = document.getBoolean("isOnline");
-                                router.setOnline(isOnline != null ? isOnline : false);
-                                routerList.add(router);
-                            }
-                            adapter.updateData(routerList);
+                            applyRouterChanges(snapshots);
                         } catch (Exception e) {
                             Log.e("RouterListActivity", "Error processing router data: " + e.getMessage(), e);
-                            Toast.makeText(RouterListActivity.this,
-                                    "Error processing router data: " + e.getMessage(),
-                                    Toast.LENGTH_SHORT).show();
+                            showToast("Error processing router data: " + e.getMessage());
+                        }
+                        if (deletionCheckPending && !snapshots.getMetadata().isFromCache()) {
+                            deletionCheckPending = false;
+                            checkForDeletions();
                         }
-                    })
-                    .addOnFailureListener(e -> {
-                        if (!isActivityActive) return;
-                        Log.e("RouterListActivity", "Error loading routers: " + e.getMessage(), e);
-                        Toast.makeText(RouterListActivity.this,
-                                "Error loading routers: " + e.getMessage(),
-                                Toast.LENGTH_SHORT).show();
                     });
         } catch (Exception e) {
-            Log.e("RouterListActivity", "Error in loadRouters: " + e.getMessage(), e);
-            Toast.makeText(this, "Error loading routers: " + e.getMessage(), 
-                    Toast.LENGTH_SHORT).show();
+            Log.e("RouterListActivity", "Error in startRouterListener: " + e.getMessage(), e);
+            showToast("Error loading routers: " + e.getMessage());
+        }
+    }
+
+    private void stopRouterListener() {
+        if (routerListener != null) {
+            routerListener.remove();
+            routerListener = null;
         }
     }
 
+    /**
+     * Applies only the document deltas of a snapshot to the cache and the loaded rows. Timestamps
+     * only grow, so a document leaves the cursor query's result set only when it is deleted, and
+     * REMOVED changes are applied as deletions. Deletions of routers unchanged since the cursor
+     * are not reported at all; {@link #checkForDeletions} finds those.
+     */
+    private void applyRouterChanges(QuerySnapshot snapshots) {
+        List<DocumentChange> changes = snapshots.getDocumentChanges();
+        if (changes.isEmpty()) return;
+
+        long decodeStart = System.nanoTime();
+        List<Router> upserts = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+        for (DocumentChange change : changes) {
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                removedIds.add(change.getDocument().getId());
+                continue;
+            }
+
+            Router router = RouterDocuments.decode(change.getDocument());
+            upserts.add(router);
+            syncCursor = Math.max(syncCursor, router.getTimestamp());
+        }
+        if (!upserts.isEmpty()) {
+            DECODE_LATENCY.recordSince(decodeStart);
+        }
+
+        applyChanges(upserts, removedIds);
+    }
+
+    /**
+     * Compares the number of routers on the server with the cache once the listener has caught
+     * up. A mismatch means routers were deleted elsewhere without a change the cursor query sees,
+     * e.g. on another device, by an import or by the notification service, and a full resync then
+     * drops the routers it does not find. Like the service's reconcile, this costs one count
+     * query unless something was deleted.
+     */
+    private void checkForDeletions() {
+        if (pageLoader != null) return;
+
+        db.collection(RouterCodec.COLLECTION)
+                .whereEqualTo(RouterCodec.FIELD_USER_ID, userId)
+                .count()
+                .get(AggregateSource.SERVER)
+                // On the disk thread, after the cache writes of the snapshots before
+                .addOnSuccessListener(AppExecutors.diskIO(), count -> {
+                    long cached;
+                    try {
+                        cached = routerCache.countRouters(userId);
+                    } catch (Exception e) {
+                        Log.e("RouterListActivity", "Error reading router cache: " + e.getMessage(), e);
+                        return;
+                    }
+                    if (cached == count.getCount()) return;
+                    AppExecutors.listPreparation().execute(() -> {
+                        if (isDestroyed() || pageLoader != null) return;
+                        Log.d("RouterListActivity", "Cache has " + cached + " routers, server "
+                                + count.getCount() + "; resyncing");
+                        startFullSync();
+                    });
+                })
+                .addOnFailureListener(e -> Log.e("RouterListActivity",
+                        "Error counting routers: " + e.getMessage(), e));
+    }
+
+    private void applyUpserts(List<Router> upserts) {
+        applyChanges(upserts, Collections.emptyList());
+    }
+
+    /**
+     * Writes routers to the cache, removes deleted ones and re-reads the list order. Only routers
+     * in the loaded window are kept in memory; the others are read back when the user scrolls to
+     * them.
+     */
+    private void applyChanges(List<Router> upserts, List<String> removedIds) {
+        if (upserts.isEmpty() && removedIds.isEmpty()) return;
+        for (Router router : upserts) {
+            if (windowIds.contains(router.getId())) {
+                loadedRouters.put(router.getId(), router);
+            }
+            indexPut(router);
+        }
+        for (String routerId : removedIds) {
+            forgetRouter(routerId);
+        }
+
+        long cursor = syncCursor;
+        long syncedAt = System.currentTimeMillis();
+        AppExecutors.diskIO().execute(() -> {
+            try {
+                routerCache.applyChanges(userId, upserts, removedIds, cursor, syncedAt);
+            } catch (Exception e) {
+                Log.e("RouterListActivity", "Error writing router cache: " + e.getMessage(), e);
+            }
+        });
+        refreshOrdering();
+    }
+
+    private void forgetRouter(String routerId) {
+        loadedRouters.remove(routerId);
+        indexRemove(routerId);
+    }
+
+    /**
+     * Re-reads the IDs of all routers in the current order from the cache, after the cache
+     * writes queued before, and publishes the list. Of several reads requested in a row only the
+     * last one runs.
+     */
+    private void refreshOrdering() {
+        int request = ++orderingRequests;
+        RouterCache.Order currentOrder = order;
+        boolean grouped = groupBySubnet;
+        AppExecutors.diskIO().execute(() -> {
+            if (request != orderingRequests) return;
+
+            long orderStart = System.nanoTime();
+            RouterCache.Ordering result;
+            try {
+                result = routerCache.loadOrdering(userId, currentOrder, grouped);
+            } catch (Exception e) {
+                Log.e("RouterListActivity", "Error reading router cache: " + e.getMessage(), e);
+                return;
+            }
+            ORDER_LATENCY.recordSince(orderStart);
+
+            String fleetText = fleetAvailabilityIfDue(result.ids);
+            AppExecutors.listPreparation().execute(() -> {
+                // Kept even if a newer read replaces this one, which may not compute it again
+                if (fleetText != null) fleetAvailability = fleetText;
+                if (request != orderingRequests || isDestroyed()) return;
+                ordering = result;
+                publishRouterList();
+            });
+        });
+    }
+
+    /** Sums the fleet's availability on the disk thread, or returns null while the last sum is recent. */
+    private String fleetAvailabilityIfDue(List<String> ids) {
+        long now = System.currentTimeMillis();
+        if (ids.size() == fleetAvailabilityCount && now - fleetAvailabilityAt < FLEET_AVAILABILITY_INTERVAL) {
+            return null;
+        }
+        fleetAvailabilityAt = now;
+        fleetAvailabilityCount = ids.size();
+        if (ids.isEmpty()) return "";
+
+        long fleetStart = System.nanoTime();
+        String text = AvailabilityTracker.getInstance(this).describeFleet(ids, now);
+        FLEET_AVAILABILITY_LATENCY.recordSince(fleetStart);
+        return text;
+    }
+
+    private void indexPut(Router router) {
+        if (searchIndex != null) {
+            searchIndex.put(router);
+        } else if (pendingIndexChanges != null) {
+            pendingIndexChanges.put(router.getId(), router);
+        }
+    }
+
+    private void indexRemove(String routerId) {
+        if (searchIndex != null) {
+            searchIndex.remove(routerId);
+        } else if (pendingIndexChanges != null) {
+            pendingIndexChanges.put(routerId, null);
+        }
+    }
+
+    /**
+     * Builds the search index by streaming the cache on the disk thread, so users who never
+     * search never hold it. Changes arriving meanwhile are replayed onto it.
+     */
+    private void buildSearchIndex() {
+        if (pendingIndexChanges != null) return;
+
+        pendingIndexChanges = new LinkedHashMap<>();
+        AppExecutors.diskIO().execute(() -> {
+            long indexStart = System.nanoTime();
+            RouterSearchIndex index = new RouterSearchIndex();
+            try {
+                routerCache.forEachRouter(userId, index::put);
+            } catch (Exception e) {
+                Log.e("RouterListActivity", "Error reading router cache: " + e.getMessage(), e);
+            }
+            INDEX_LATENCY.recordSince(indexStart);
+
+            AppExecutors.listPreparation().execute(() -> {
+                for (Map.Entry<String, Router> change : pendingIndexChanges.entrySet()) {
+                    if (change.getValue() != null) {
+                        index.put(change.getValue());
+                    } else {
+                        index.remove(change.getKey());
+                    }
+                }
+                pendingIndexChanges = null;
+                searchIndex = index;
+                publishRouterList();
+            });
+        });
+    }
+
+    /**
+     * Turns the current order into list rows, keeping only those matching the search query and
+     * adding subnet headers if enabled, and hands the new immutable list to the adapter. Rows
+     * within {@link #windowRows} of the visible ones get their router, read from the cache if it
+     * is not loaded yet; all other rows are placeholders, and their routers are dropped. Loaded
+     * rows carry their availability line, so binding them reads no history.
+     */
+    private void publishRouterList() {
+        if (ordering == null) return;
+
+        Set<String> matches = null;
+        if (!searchQuery.trim().isEmpty()) {
+            if (searchIndex == null) {
+                buildSearchIndex();
+                return;
+            }
+            long searchStart = System.nanoTime();
+            matches = searchIndex.search(searchQuery);
+            SEARCH_LATENCY.recordSince(searchStart);
+        }
+
+        long listStart = System.nanoTime();
+        int from = Math.max(0, firstVisible - windowRows);
+        int to = lastVisible + 1 + windowRows;
+        windowIds.clear();
+        AvailabilityTracker availabilityTracker = AvailabilityTracker.getInstance(this);
+        long now = System.currentTimeMillis();
+        List<String> missingIds = new ArrayList<>();
+        List<RouterListItem> items = new ArrayList<>(ordering.ids.size());
+        List<String> ids = ordering.ids;
+        List<IpSubnet> subnets = ordering.subnets;
+        for (int start = 0; start < ids.size(); ) {
+            // Without grouping the whole order is one run
+            int end = start + 1;
+            if (subnets == null) {
+                end = ids.size();
+            } else {
+                while (end < ids.size() && subnets.get(end) == subnets.get(start)) end++;
+            }
+
+            if (subnets != null) {
+                int count = 0;
+                for (int i = start; i < end; i++) {
+                    if (matches == null || matches.contains(ids.get(i))) count++;
+                }
+                boolean collapsed = collapsedSubnets.contains(RouterListItem.headerKey(subnets.get(start)));
+                if (count > 0) items.add(RouterListItem.header(subnets.get(start), count, collapsed));
+                if (collapsed) {
+                    start = end;
+                    continue;
+                }
+            }
+            for (int i = start; i < end; i++) {
+                String routerId = ids.get(i);
+                if (matches != null && !matches.contains(routerId)) continue;
+
+                int position = items.size();
+                if (position < from || position >= to) {
+                    items.add(RouterListItem.placeholder(routerId));
+                    continue;
+                }
+                windowIds.add(routerId);
+                Router router = loadedRouters.get(routerId);
+                if (router != null) {
+                    items.add(RouterListItem.of(router, availabilityTracker.describe(routerId, now)));
+                } else {
+                    items.add(RouterListItem.placeholder(routerId));
+                    if (!loadingIds.contains(routerId)) missingIds.add(routerId);
+                }
+            }
+            start = end;
+        }
+        loadedRouters.keySet().retainAll(windowIds);
+        PUBLISH_LATENCY.recordSince(listStart);
+
+        List<RouterListItem> snapshot = Collections.unmodifiableList(items);
+        String fleetText = fleetAvailability;
+        AppExecutors.mainThread().execute(() -> {
+            if (binding == null) return;
+            routerList = snapshot;
+            adapter.updateData(snapshot);
+            if (!snapshot.isEmpty()) endFirstListSection();
+            binding.fleetAvailabilityText.setText(fleetText);
+            prefetchNextPageIfNeeded();
+        });
+
+        if (!missingIds.isEmpty()) {
+            loadWindow(missingIds);
+        }
+    }
+
+    /** Reads routers that entered the window from the cache and publishes them. */
+    private void loadWindow(List<String> routerIds) {
+        loadingIds.addAll(routerIds);
+        AppExecutors.diskIO().execute(() -> {
+            List<Router> routers;
+            try {
+                routers = routerCache.loadRouters(userId, routerIds);
+            } catch (Exception e) {
+                Log.e("RouterListActivity", "Error reading router cache: " + e.getMessage(), e);
+                routers = Collections.emptyList();
+            }
+
+            List<Router> loaded = routers;
+            AppExecutors.listPreparation().execute(() -> {
+                loadingIds.removeAll(routerIds);
+                boolean added = false;
+                for (Router router : loaded) {
+                    // A newer version may have arrived from Firestore while this one was read
+                    if (windowIds.contains(router.getId()) && !loadedRouters.containsKey(router.getId())) {
+                        loadedRouters.put(router.getId(), router);
+                        added = true;
+                    }
+                }
+                if (added) publishRouterList();
+            });
+        });
+    }
+
+    @Override
+    public void onSubnetToggle(String headerKey) {
+        AppExecutors.listPreparation().execute(() -> {
+            if (!collapsedSubnets.remove(headerKey)) {
+                collapsedSubnets.add(headerKey);
+            }
+            publishRouterList();
+        });
+    }
+
+    // The button is checkable, so it has already toggled itself when this runs
+    private void toggleSubnetGrouping() {
+        boolean grouped = binding.groupBySubnetButton.isChecked();
+        AppExecutors.listPreparation().execute(() -> {
+            groupBySubnet = grouped;
+            if (grouped) fetchRemainingPages();
+            refreshOrdering();
+        });
+    }
+
+    private void showToast(String message) {
+        AppExecutors.mainThread().execute(() -> {
+            if (binding != null) {
+                Toast.makeText(RouterListActivity.this, message, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
     private void sortRoutersByName() {
         if (!isActivityActive) return;
-        routerList.sort(Comparator.comparing(Router::getName, String::compareToIgnoreCase));
-        adapter.updateData(routerList);
+        AppExecutors.listPreparation().execute(() -> {
+            order = RouterCache.Order.NAME;
+            fetchRemainingPages();
+            refreshOrdering();
+        });
+    }
+
+    private void sortRoutersByAddress() {
+        if (!isActivityActive) return;
+        AppExecutors.listPreparation().execute(() -> {
+            order = RouterCache.Order.ADDRESS;
+            fetchRemainingPages();
+            refreshOrdering();
+        });
     }
 
     private void sortRoutersByFirmware() {
         if (!isActivityActive) return;
-        routerList.sort(Comparator.comparing(Router::getFirmwareVersion, String::compareToIgnoreCase));
-        adapter.updateData(routerList);
+        AppExecutors.listPreparation().execute(() -> {
+            order = RouterCache.Order.FIRMWARE;
+            fetchRemainingPages();
+            refreshOrdering();
+        });
     }
 
     @Override
@@ -249,7 +923,7 @@ public class RouterListActivity extends AppCompatActivity implements RouterAdapt
                 .setMessage("Are you sure you want to delete this router?")
                 .setPositiveButton("Delete", (dialog, which) -> {
                     if (!isActivityActive) return;
-                    db.collection("routers")
+                    db.collection(RouterCodec.COLLECTION)
                             .document(routerId)
                             .delete()
                             .addOnSuccessListener(aVoid -> {
@@ -257,7 +931,19 @@ public class RouterListActivity extends AppCompatActivity implements RouterAdapt
                                 Toast.makeText(RouterListActivity.this,
                                         "Router deleted successfully",
                                         Toast.LENGTH_SHORT).show();
-                                loadRouters(); // Reload the list
+                                // An incremental listener does not see deletions, so apply it here
+                                AppExecutors.listPreparation().execute(() -> {
+                                    forgetRouter(routerId);
+                                    AppExecutors.diskIO().execute(() -> {
+                                        try {
+                                            routerCache.deleteRouter(routerId);
+                                        } catch (Exception e) {
+                                            Log.e("RouterListActivity", "Error writing router cache: " + e.getMessage(), e);
+                                        }
+                                    });
+                                    refreshOrdering();
+                                });
+                                ConfigBackupManager.getInstance(RouterListActivity.this).deleteBackups(routerId);
                             })
                             .addOnFailureListener(e -> {
                                 if (!isActivityActive) return;
@@ -291,7 +977,6 @@ public class RouterListActivity extends AppCompatActivity implements RouterAdapt
     protected void onResume() {
         super.onResume();
         isActivityActive = true;
-        loadRouters(); // Reload the list when returning to this activity
     }
 
     @Override
@@ -0,0 +1,68 @@
+package com.example.routerkonfiguralo;
+
+import java.util.Objects;
+
+/**
+ * One row of the router list: a router, a placeholder for a router whose data is not in memory,
+ * or the header of a subnet group.
+ */
+public final class RouterListItem {
+    /** Router of a loaded router row, null for placeholders and headers. */
+    public final Router router;
+    /** Router of a router or placeholder row, null for a header. */
+    public final String routerId;
+    /** Subnet of a header row; null for routers and for the group of routers without a valid address. */
+    public final IpSubnet subnet;
+    public final int routerCount;
+    public final boolean collapsed;
+    /** Availability line of a loaded router row, computed when the list is prepared; null otherwise. */
+    public final String availability;
+    private final String key;
+
+    private RouterListItem(Router router, String availability, String routerId, IpSubnet subnet, int routerCount,
+                           boolean collapsed, String key) {
+        this.router = router;
+        this.availability = availability;
+        this.routerId = routerId;
+        this.subnet = subnet;
+        this.routerCount = routerCount;
+        this.collapsed = collapsed;
+        this.key = key;
+    }
+
+    public static RouterListItem of(Router router, String availability) {
+        return new RouterListItem(router, availability, router.getId(), null, 0, false, router.getId());
+    }
+
+    /** A router row outside the window of rows kept in memory; it is bound as blank. */
+    public static RouterListItem placeholder(String routerId) {
+        return new RouterListItem(null, null, routerId, null, 0, false, routerId);
+    }
+
+    public static RouterListItem header(IpSubnet subnet, int routerCount, boolean collapsed) {
+        return new RouterListItem(null, null, null, subnet, routerCount, collapsed, headerKey(subnet));
+    }
+
+    /** Identifies a header across list versions, e.g. to remember whether it is collapsed. */
+    public static String headerKey(IpSubnet subnet) {
+        return "subnet:" + (subnet != null ? subnet : "");
+    }
+
+    public boolean isHeader() {
+        return routerId == null;
+    }
+
+    public boolean isPlaceholder() {
+        return routerId != null && router == null;
+    }
+
+    /** Router id or header key; unique within a list. */
+    public String getKey() {
+        return key;
+    }
+
+    boolean sameHeaderAs(RouterListItem other) {
+        return routerCount == other.routerCount && collapsed == other.collapsed
+                && Objects.equals(subnet, other.subnet);
+    }
+}
@@ -10,44 +10,112 @@ import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
 import android.os.SystemClock;
+import android.os.Trace;
 import android.util.Log;
 
 import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.AggregateSource;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.Query;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 public class RouterNotificationService extends Service {
     private static final String TAG = "RouterNotificationService";
     private static final String CHANNEL_ID = "router_status_channel";
     private static final int NOTIFICATION_ID = 1;
     private static final int REQUEST_CODE = 100;
-    private static final long CHECK_INTERVAL = 15 * 60 * 1000; // 15 minutes
+    // Child notifications are tagged with the router's document ID and share this ID
+    private static final int CHANGE_NOTIFICATION_ID = 2;
+    private static final int SUMMARY_NOTIFICATION_ID = 3;
+    private static final int DIGEST_NOTIFICATION_ID = 4;
+    private static final String CHANGES_GROUP = "router_changes";
+    // Lines listed in a summary notification before it switches to "+N more"
+    private static final int MAX_SUMMARY_LINES = 6;
+    // Overlap for the timestamp cursor, covering clock skew between the devices writing timestamps
+    private static final long SYNC_CURSOR_OVERLAP = 5 * 60 * 1000;
+    // Configuration backups run on their own daily alarm, first a while after monitoring starts
+    // so they do not compete with the initial sync
+    private static final int BACKUP_REQUEST_CODE = 1;
+    private static final long FIRST_BACKUP_DELAY = AlarmManager.INTERVAL_FIFTEEN_MINUTES;
+
+    private static final LatencyHistogram INGEST_BATCH_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.NOTIFICATION_INGEST_BATCH);
+    private static final LatencyHistogram RECONCILE_QUERY_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.FIRESTORE_RECONCILE_QUERY);
+    // From a change reaching the service to its notification being posted
+    private static final LatencyHistogram NOTIFICATION_LAG =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.NOTIFICATION_LAG);
+    private static final MetricsRegistry.Counter NOTIFICATIONS_POSTED =
+            MetricsRegistry.getInstance().counter(MetricsRegistry.NOTIFICATION_POSTED);
+    private static final MetricsRegistry.Gauge TRACKED_ROUTERS =
+            MetricsRegistry.getInstance().gauge(MetricsRegistry.NOTIFICATION_TRACKED_ROUTERS);
 
     private FirebaseFirestore db;
     private FirebaseAuth mAuth;
-    private ListenerRegistration routerListener;
-    private Map<String, DocumentSnapshot> previousStates;
+    private String userId;
+    private volatile ListenerRegistration routerListener;
+    // All router state below is only touched on ingestExecutor
+    private ExecutorService ingestExecutor;
+    private Map<String, RouterState> previousStates;
+    // Last status appended to each router's history, by a probe or a document change. The
+    // Firestore echo of a probe's isOnline write then matches it and is not recorded twice.
+    private Map<String, Boolean> recordedOnline;
+    private long lastSeenTimestamp;
+    private boolean reconciling = false;
     private AlarmManager alarmManager;
     private PendingIntent alarmIntent;
+    private PendingIntent backupAlarmIntent;
+    // Main thread only; the backup alarm is set once per service instance
+    private boolean backupsScheduled;
+    private RouterProbeEngine probeEngine;
+    private RouterWriteCoalescer writeCoalescer;
+    private RouterCheckScheduler checkScheduler;
+    private RouterChangeAggregator changeAggregator;
+    // Null when the history file could not be opened; status history is then not recorded
+    private StatusHistory statusHistory;
+    private AvailabilityTracker availabilityTracker;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable postChangesRunnable = this::postPendingChanges;
 
     @Override
     public void onCreate() {
         super.onCreate();
         try {
-            db = FirebaseFirestore.getInstance();
-            mAuth = FirebaseAuth.getInstance();
+            db = RouterApplication.firestore();
+            mAuth = RouterApplication.auth();
+            ingestExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "router-ingest"));
             previousStates = new HashMap<>();
-            createNotificationChannel();
+            recordedOnline = new HashMap<>();
+            probeEngine = new RouterProbeEngine();
+            writeCoalescer = new RouterWriteCoalescer(db);
+            checkScheduler = new RouterCheckScheduler(SystemClock::elapsedRealtime);
+            changeAggregator = new RouterChangeAggregator(SystemClock::elapsedRealtime);
+            try {
+                statusHistory = StatusHistory.getInstance(this);
+            } catch (IOException e) {
+                Log.e(TAG, "Error opening status history: " + e.getMessage(), e);
+            }
+            availabilityTracker = AvailabilityTracker.getInstance(this);
+            createNotificationChannel(this);
             setupAlarm();
         } catch (Exception e) {
             Log.e(TAG, "Error in onCreate: " + e.getMessage(), e);
@@ -68,34 +136,63 @@ public class RouterNotificationService extends Service {
             alarmIntent = PendingIntent.getService(this, 0, intent,
                     PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
 
-            // Set the alarm to start after CHECK_INTERVAL
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                alarmManager.setExactAndAllowWhileIdle(
-                        AlarmManager.ELAPSED_REALTIME_WAKEUP,
-                        SystemClock.elapsedRealtime() + CHECK_INTERVAL,
-                        alarmIntent
-                );
-            } else {
-                alarmManager.setExact(
-                        AlarmManager.ELAPSED_REALTIME_WAKEUP,
-                        SystemClock.elapsedRealtime() + CHECK_INTERVAL,
-                        alarmIntent
-                );
-            }
+            Intent backupIntent = new Intent(this, RouterNotificationService.class);
+            backupIntent.setAction("BACKUP_ROUTER_CONFIGS");
+            backupAlarmIntent = PendingIntent.getService(this, BACKUP_REQUEST_CODE, backupIntent,
+                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
         } catch (Exception e) {
             Log.e(TAG, "Error setting up alarm: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Sets a single inexact wakeup for the earliest due check; checks due shortly after it are
+     * run in the same wakeup by {@link RouterCheckScheduler#pollDue()}.
+     */
+    private void scheduleNextCheck() {
+        if (alarmManager == null || alarmIntent == null) return;
+
+        long nextCheckAt = checkScheduler.nextWakeupAt();
+        if (nextCheckAt == Long.MAX_VALUE) {
+            alarmManager.cancel(alarmIntent);
+            return;
+        }
+
+        long triggerAt = Math.max(nextCheckAt, SystemClock.elapsedRealtime());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            alarmManager.setAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerAt, alarmIntent);
+        } else {
+            alarmManager.set(AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerAt, alarmIntent);
+        }
+    }
+
+    /**
+     * Sets the daily configuration backup alarm. Backups are independent of the status checks,
+     * which wake far more often and would otherwise load every cached router each time.
+     */
+    private void scheduleBackups() {
+        if (backupsScheduled || alarmManager == null || backupAlarmIntent == null) return;
+        backupsScheduled = true;
+        alarmManager.setInexactRepeating(AlarmManager.ELAPSED_REALTIME_WAKEUP,
+                SystemClock.elapsedRealtime() + FIRST_BACKUP_DELAY, AlarmManager.INTERVAL_DAY, backupAlarmIntent);
+    }
+
     @SuppressLint("ForegroundServiceType")
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         try {
             if (intent != null && "CHECK_ROUTER_STATUS".equals(intent.getAction())) {
                 Log.d(TAG, "Alarm triggered - checking router status");
-                checkRouterStatus();
-                // Reschedule the alarm
-                setupAlarm();
+                ingestExecutor.execute(() -> {
+                    if (routerListener == null) {
+                        reconcile();
+                    }
+                    runDueChecks();
+                });
+            } else if (intent != null && "BACKUP_ROUTER_CONFIGS".equals(intent.getAction())) {
+                if (userId != null) {
+                    ConfigBackupManager.getInstance(this).backupDue(userId);
+                }
             } else {
                 startForeground(NOTIFICATION_ID, createNotification("Router Status Service", "Monitoring router status..."));
                 startRouterMonitoring();
@@ -107,7 +204,8 @@ public class RouterNotificationService extends Service {
         return START_STICKY;
     }
 
-    private void createNotificationChannel() {
+    /** Creates the status channel; repeated calls leave an existing channel unchanged. */
+    static void createNotificationChannel(Context context) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             NotificationChannel channel = new NotificationChannel(
                     CHANNEL_ID,
@@ -115,12 +213,16 @@ public class RouterNotificationService extends Service {
                     NotificationManager.IMPORTANCE_DEFAULT
             );
             channel.setDescription("Notifications about router status changes");
-            NotificationManager notificationManager = getSystemService(NotificationManager.class);
+            NotificationManager notificationManager = context.getSystemService(NotificationManager.class);
             notificationManager.createNotificationChannel(channel);
         }
     }
 
     private Notification createNotification(String title, String content) {
+        return notificationBuilder(title, content).build();
+    }
+
+    private NotificationCompat.Builder notificationBuilder(String title, String content) {
         Intent notificationIntent = new Intent(this, RouterListActivity.class);
         PendingIntent pendingIntent = PendingIntent.getActivity(
                 this,
@@ -134,158 +236,355 @@ public class RouterNotificationService extends Service {
                 .setContentText(content)
                 .setSmallIcon(R.drawable.ic_launcher_foreground)
                 .setContentIntent(pendingIntent)
-                .setPriority(NotificationCompat.PRIORITY_DEFAULT)
-                .build();
+                .setPriority(NotificationCompat.PRIORITY_DEFAULT);
     }
 
     private void startRouterMonitoring() {
         try {
-            String userId = mAuth.getCurrentUser().getUid();
+            userId = mAuth.getCurrentUser().getUid();
             if (userId == null) {
                 Log.e(TAG, "User ID is null");
                 stopSelf();
                 return;
             }
+            ingestExecutor.execute(this::attachRouterListener);
+            scheduleBackups();
+        } catch (Exception e) {
+            Log.e(TAG, "Error starting router monitoring: " + e.getMessage(), e);
+            stopSelf();
+        }
+    }
 
-            routerListener = db.collection("routers")
-                    .whereEqualTo("userId", userId)
-                    .addSnapshotListener((value, error) -> {
-                        if (error != null) {
-                            Log.e(TAG, "Error listening to router changes: " + error.getMessage());
-                            return;
-                        }
+    /**
+     * The snapshot listener is the single source of router changes. Its events are delivered on
+     * ingestExecutor, which serializes them with probe results and reconciliation.
+     */
+    private void attachRouterListener() {
+        // The activity starts the service on every launch; keep a single listener
+        if (routerListener != null) return;
 
-                        if (value != null) {
-                            Log.d(TAG, "Received " + value.getDocumentChanges().size() + " document changes");
+        routerListener = db.collection(RouterCodec.COLLECTION)
+                .whereEqualTo(RouterCodec.FIELD_USER_ID, userId)
+                .addSnapshotListener(ingestExecutor, (value, error) -> {
+                    if (error != null) {
+                        // Firestore does not recover a failed listener; the next alarm reconciles
+                        Log.e(TAG, "Error listening to router changes: " + error.getMessage());
+                        detachRouterListener();
+                        return;
+                    }
+
+                    if (value != null) {
+                        Log.d(TAG, "Received " + value.getDocumentChanges().size() + " document changes");
+                        long start = System.nanoTime();
+                        Trace.beginSection("RouterNotificationService.ingestBatch");
+                        try {
                             for (DocumentChange change : value.getDocumentChanges()) {
-                                String routerId = change.getDocument().getId();
                                 DocumentSnapshot currentDoc = change.getDocument();
-                                DocumentSnapshot previousDoc = previousStates.get(routerId);
+                                if (change.getType() == DocumentChange.Type.REMOVED) {
+                                    forgetRouter(currentDoc.getId());
+                                } else {
+                                    ingestDocument(currentDoc);
+                                }
+                            }
+                        } finally {
+                            Trace.endSection();
+                        }
+                        INGEST_BATCH_LATENCY.recordSince(start);
+                        TRACKED_ROUTERS.set(previousStates.size());
+                        scheduleNextCheck();
+                    }
+                });
+    }
+
+    private void detachRouterListener() {
+        ListenerRegistration listener = routerListener;
+        routerListener = null;
+        if (listener != null) {
+            listener.remove();
+        }
+    }
+
+    private void forgetRouter(String routerId) {
+        previousStates.remove(routerId);
+        recordedOnline.remove(routerId);
+        checkScheduler.untrack(routerId);
+        if (statusHistory != null) statusHistory.forget(routerId);
+        availabilityTracker.forget(routerId);
+    }
 
-                                Log.d(TAG, "Processing change for router: " + routerId);
-                                Log.d(TAG, "Change type: " + change.getType());
+    /**
+     * Catches up after the listener was detached, without re-reading the whole collection: only
+     * routers changed since the newest timestamp seen are read, and a count query tells whether
+     * any were deleted meanwhile. Only in that case is the collection paged through to find them.
+     * The listener is attached again afterwards. The timestamp query needs the composite index on
+     * userId and timestamp in firestore.indexes.json.
+     */
+    private void reconcile() {
+        if (reconciling || userId == null) return;
+        reconciling = true;
+        Log.d(TAG, "Listener detached, reconciling changes since " + lastSeenTimestamp);
 
-                                if (previousDoc != null) {
-                                    Log.d(TAG, "Found previous state, checking for changes");
-                                    checkAndNotifyChanges(previousDoc, currentDoc);
+        Query routers = db.collection(RouterCodec.COLLECTION).whereEqualTo(RouterCodec.FIELD_USER_ID, userId);
+        long start = System.nanoTime();
+        routers.whereGreaterThan(RouterCodec.FIELD_TIMESTAMP, lastSeenTimestamp - SYNC_CURSOR_OVERLAP)
+                .get()
+                .addOnSuccessListener(ingestExecutor, changed -> {
+                    RECONCILE_QUERY_LATENCY.recordSince(start);
+                    for (DocumentSnapshot doc : changed) {
+                        ingestDocument(doc);
+                    }
+                    routers.count()
+                            .get(AggregateSource.SERVER)
+                            .addOnSuccessListener(ingestExecutor, count -> {
+                                if (count.getCount() == previousStates.size()) {
+                                    finishReconcile();
                                 } else {
-                                    Log.d(TAG, "No previous state found for router: " + routerId);
+                                    int pageSize = getResources().getInteger(R.integer.router_page_size);
+                                    reconcileDeletions(new RouterPageLoader(db, userId, pageSize), new HashSet<>());
                                 }
+                            })
+                            .addOnFailureListener(ingestExecutor, this::onReconcileFailed);
+                })
+                .addOnFailureListener(ingestExecutor, this::onReconcileFailed);
+    }
 
-                                previousStates.put(routerId, currentDoc);
-                            }
-                        }
-                    });
-        } catch (Exception e) {
-            Log.e(TAG, "Error starting router monitoring: " + e.getMessage(), e);
-            stopSelf();
+    private void reconcileDeletions(RouterPageLoader pageLoader, Set<String> seenIds) {
+        pageLoader.loadNextPage(ingestExecutor, page -> {
+            for (DocumentSnapshot doc : page) {
+                ingestDocument(doc);
+                seenIds.add(doc.getId());
+            }
+            if (pageLoader.hasMore()) {
+                reconcileDeletions(pageLoader, seenIds);
+                return;
+            }
+            for (String routerId : new ArrayList<>(previousStates.keySet())) {
+                if (!seenIds.contains(routerId)) forgetRouter(routerId);
+            }
+            finishReconcile();
+        }, this::onReconcileFailed);
+    }
+
+    private void finishReconcile() {
+        reconciling = false;
+        TRACKED_ROUTERS.set(previousStates.size());
+        attachRouterListener();
+        scheduleNextCheck();
+    }
+
+    private void onReconcileFailed(Exception e) {
+        reconciling = false;
+        Log.e(TAG, "Error reconciling router changes: " + e.getMessage());
+    }
+
+    /**
+     * Updates the compact state of one router from a document and notifies about changes. Reads
+     * only the fingerprinted fields rather than decoding the whole document, so an unchanged
+     * document costs five field reads and a hash.
+     */
+    private void ingestDocument(DocumentSnapshot doc) {
+        String routerId = doc.getId();
+        String name = doc.getString(RouterCodec.FIELD_NAME);
+        String model = doc.getString(RouterCodec.FIELD_MODEL);
+        String firmwareVersion = doc.getString(RouterCodec.FIELD_FIRMWARE_VERSION);
+        String ipAddress = doc.getString(RouterCodec.FIELD_IP_ADDRESS);
+        // A document without a status does not count as a status change
+        Boolean isOnline = doc.getBoolean(RouterCodec.FIELD_IS_ONLINE);
+        boolean online = Boolean.TRUE.equals(isOnline);
+        Long timestamp = doc.getLong(RouterCodec.FIELD_TIMESTAMP);
+        if (timestamp != null) lastSeenTimestamp = Math.max(lastSeenTimestamp, timestamp);
+
+        checkScheduler.track(routerId);
+        writeCoalescer.recordStoredValue(routerId, RouterCodec.FIELD_IS_ONLINE, online);
+
+        RouterState previous = previousStates.get(routerId);
+        Boolean recorded = recordedOnline.get(routerId);
+        if (isOnline != null && (recorded == null || recorded != online)) {
+            recordStatus(routerId, System.currentTimeMillis(), StatusHistory.NO_RTT,
+                    online ? StatusHistory.FLAG_ONLINE : 0);
+        }
+        if (previous == null) {
+            previousStates.put(routerId, new RouterState(name, model, firmwareVersion, ipAddress, online));
+            return;
+        }
+        // Unchanged documents stop here, without building any strings
+        if (previous.getFingerprint() == RouterState.fingerprint(name, model, firmwareVersion, ipAddress, online)) {
+            return;
         }
+
+        checkAndNotifyChanges(routerId, previous, name, model, firmwareVersion, ipAddress, isOnline);
+        previous.update(name, model, firmwareVersion, ipAddress, online);
+    }
+
+    /** Appends an observed status to the router's history and its availability rollup. */
+    private void recordStatus(String routerId, long timeMillis, int rttMillis, int flags) {
+        boolean online = (flags & StatusHistory.FLAG_ONLINE) != 0;
+        if (statusHistory != null) statusHistory.append(routerId, timeMillis, rttMillis, flags);
+        availabilityTracker.record(routerId, timeMillis, online);
+        recordedOnline.put(routerId, online);
     }
 
-    private void checkAndNotifyChanges(DocumentSnapshot previous, DocumentSnapshot current) {
-        String routerName = current.getString("name");
+    private void checkAndNotifyChanges(String routerId, RouterState previous, String routerName, String currentModel,
+                                       String currentFirmware, String currentIp, Boolean currentOnline) {
         if (routerName == null) {
             Log.d(TAG, "Router name is null, skipping notification");
             return;
         }
 
-        StringBuilder changes = new StringBuilder();
-        
-        // Check name changes
-        String previousName = previous.getString("name");
-        if (!routerName.equals(previousName)) {
-            Log.d(TAG, "Name change detected: " + previousName + " -> " + routerName);
-            changes.append("Name changed from ").append(previousName).append(" to ").append(routerName).append("\n");
+        int changed = previous.diff(routerName, currentModel, currentFirmware, currentIp, currentOnline);
+        if (changed == 0) {
+            Log.d(TAG, "No changes detected");
+            return;
         }
 
-        // Check model changes
-        String previousModel = previous.getString("model");
-        String currentModel = current.getString("model");
-        if (currentModel != null && !currentModel.equals(previousModel)) {
-            Log.d(TAG, "Model change detected: " + previousModel + " -> " + currentModel);
-            changes.append("Model changed from ").append(previousModel).append(" to ").append(currentModel).append("\n");
+        String changes = previous.describeChanges(changed, routerName, currentModel, currentFirmware,
+                currentIp, currentOnline);
+
+        Log.d(TAG, "Changes detected, queueing notification");
+        Boolean wentOnline = (changed & RouterState.CHANGED_ONLINE) != 0 ? currentOnline : null;
+        showChangesNotification(routerId, routerName, changes, wentOnline);
+    }
+
+    /**
+     * Queues a change for the current aggregation window; the first change of a window schedules
+     * the post.
+     */
+    private void showChangesNotification(String routerId, String routerName, String changes, Boolean wentOnline) {
+        if (changeAggregator.add(routerId, routerName, changes, wentOnline)) {
+            handler.postDelayed(postChangesRunnable, RouterChangeAggregator.DEFAULT_WINDOW_MILLIS);
+        }
+    }
+
+    private void postPendingChanges() {
+        RouterChangeAggregator.Digest digest = changeAggregator.drain();
+        if (digest != null) {
+            postDigest(digest);
+        }
+        // Rate limited: try again with whatever has accumulated by then
+        if (changeAggregator.hasPending()) {
+            handler.postDelayed(postChangesRunnable, RouterChangeAggregator.DEFAULT_WINDOW_MILLIS);
         }
+    }
 
-        // Check firmware changes
-        String previousFirmware = previous.getString("firmwareVersion");
-        String currentFirmware = current.getString("firmwareVersion");
-        if (currentFirmware != null && !currentFirmware.equals(previousFirmware)) {
-            Log.d(TAG, "Firmware change detected: " + previousFirmware + " -> " + currentFirmware);
-            changes.append("Firmware changed from ").append(previousFirmware).append(" to ").append(currentFirmware).append("\n");
+    private void postDigest(RouterChangeAggregator.Digest digest) {
+        NotificationManager notificationManager =
+                (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+
+        long now = SystemClock.elapsedRealtime();
+        for (RouterChangeAggregator.RouterChange change : digest.changes) {
+            NOTIFICATION_LAG.recordMillis(now - change.queuedAt);
         }
+        NOTIFICATIONS_POSTED.add(digest.postChildren
+                ? digest.changes.size() + (digest.changes.size() == 1 ? 0 : 1) : 1);
 
-        // Check IP changes
-        String previousIp = previous.getString("ipAddress");
-        String currentIp = current.getString("ipAddress");
-        if (currentIp != null && !currentIp.equals(previousIp)) {
-            Log.d(TAG, "IP change detected: " + previousIp + " -> " + currentIp);
-            changes.append("IP changed from ").append(previousIp).append(" to ").append(currentIp).append("\n");
+        if (digest.postChildren) {
+            for (RouterChangeAggregator.RouterChange change : digest.changes) {
+                Notification notification = notificationBuilder(
+                        "Router Changes: " + change.getRouterName(),
+                        change.getText())
+                        .setGroup(CHANGES_GROUP)
+                        .build();
+                notificationManager.notify(change.routerId, CHANGE_NOTIFICATION_ID, notification);
+            }
+            if (digest.changes.size() == 1) return;
         }
 
-        // Check online status changes
-        Boolean previousOnline = previous.getBoolean("isOnline");
-        Boolean currentOnline = current.getBoolean("isOnline");
-        if (currentOnline != null && !currentOnline.equals(previousOnline)) {
-            Log.d(TAG, "Online status change detected: " + previousOnline + " -> " + currentOnline);
-            changes.append("Status changed to ").append(currentOnline ? "Online" : "Offline").append("\n");
+        String title = digest.getSummaryTitle();
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle().setBigContentTitle(title);
+        int lines = Math.min(digest.changes.size(), MAX_SUMMARY_LINES);
+        for (int i = 0; i < lines; i++) {
+            RouterChangeAggregator.RouterChange change = digest.changes.get(i);
+            String text = change.getText();
+            int lineEnd = text.indexOf('\n');
+            style.addLine(change.getRouterName() + ": " + (lineEnd < 0 ? text : text.substring(0, lineEnd)));
+        }
+        if (digest.changes.size() > lines) {
+            style.setSummaryText("+" + (digest.changes.size() - lines) + " more");
         }
 
-        if (changes.length() > 0) {
-            Log.d(TAG, "Changes detected, showing notification");
-            showChangesNotification(routerName, changes.toString());
+        NotificationCompat.Builder builder = notificationBuilder(title, "Tap to see your routers").setStyle(style);
+        if (digest.postChildren) {
+            builder.setGroup(CHANGES_GROUP).setGroupSummary(true);
+            Log.d(TAG, "Showing summary notification: " + title);
+            notificationManager.notify(SUMMARY_NOTIFICATION_ID, builder.build());
         } else {
-            Log.d(TAG, "No changes detected");
+            // Posted on its own: a group summary without children is hidden on API 24+
+            Log.d(TAG, "Showing digest notification: " + title);
+            notificationManager.notify(DIGEST_NOTIFICATION_ID, builder.build());
         }
     }
 
-    private void showChangesNotification(String routerName, String changes) {
-        Log.d(TAG, "Creating notification for router: " + routerName);
-        Log.d(TAG, "Changes: " + changes);
-        
-        NotificationManager notificationManager = 
-                (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
-        
-        Notification notification = createNotification(
-                "Router Changes: " + routerName,
-                changes.trim()
-        );
-        
-        int notificationId = routerName.hashCode();
-        Log.d(TAG, "Showing notification with ID: " + notificationId);
-        notificationManager.notify(notificationId, notification);
+    /**
+     * Probes the routers whose next check is due and adapts their intervals to the results.
+     */
+    private void runDueChecks() {
+        Map<String, String> addresses = new HashMap<>();
+        for (String routerId : checkScheduler.pollDue()) {
+            RouterState state = previousStates.get(routerId);
+            if (state != null) {
+                addresses.put(routerId, state.getIpAddress());
+            }
+        }
+        Log.d(TAG, "Probing " + addresses.size() + " due routers");
+
+        probeEngine.probeAll(addresses, results -> runOnIngestThread(() -> onProbeResults(results)));
+        scheduleNextCheck();
     }
 
-    private void checkRouterStatus() {
-        String userId = mAuth.getCurrentUser().getUid();
-        db.collection("routers")
-                .whereEqualTo("userId", userId)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    for (DocumentSnapshot doc : queryDocumentSnapshots) {
-                        String routerId = doc.getId();
-                        DocumentSnapshot previousDoc = previousStates.get(routerId);
-                        
-                        if (previousDoc != null) {
-                            checkAndNotifyChanges(previousDoc, doc);
-                        }
-                        previousStates.put(routerId, doc);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error checking router status: " + e.getMessage());
-                });
+    private void runOnIngestThread(Runnable task) {
+        try {
+            ingestExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // The service is being destroyed; late results are dropped
+            Log.d(TAG, "Ingest executor shut down, dropping task");
+        }
+    }
+
+    /**
+     * Reschedules every probed router and hands the results to the write coalescer, which drops
+     * the unchanged ones and commits the rest in batches.
+     */
+    private void onProbeResults(Map<String, RouterProbeEngine.ProbeResult> results) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, RouterProbeEngine.ProbeResult> entry : results.entrySet()) {
+            String routerId = entry.getKey();
+            boolean reachable = entry.getValue().reachable;
+            recordStatus(routerId, now, reachable ? (int) entry.getValue().rttMillis : StatusHistory.NO_RTT,
+                    StatusHistory.FLAG_PROBE | (reachable ? StatusHistory.FLAG_ONLINE : 0));
+            RouterState state = previousStates.get(routerId);
+            boolean storedOnline = state != null && state.isOnline();
+
+            checkScheduler.recordResult(routerId, reachable != storedOnline);
+            writeCoalescer.enqueue(routerId, RouterCodec.FIELD_IS_ONLINE, reachable);
+        }
+        scheduleNextCheck();
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
-        if (routerListener != null) {
-            routerListener.remove();
-        }
+        handler.removeCallbacks(postChangesRunnable);
+        detachRouterListener();
         if (alarmManager != null && alarmIntent != null) {
             alarmManager.cancel(alarmIntent);
         }
-        previousStates.clear();
+        if (alarmManager != null && backupAlarmIntent != null) {
+            alarmManager.cancel(backupAlarmIntent);
+        }
+        if (probeEngine != null) {
+            probeEngine.shutdown();
+        }
+        if (writeCoalescer != null) {
+            writeCoalescer.shutdown();
+        }
+        if (ingestExecutor != null) {
+            ingestExecutor.execute(() -> {
+                previousStates.clear();
+                // Off the main thread, after the last append
+                if (statusHistory != null) statusHistory.flush();
+            });
+            ingestExecutor.shutdown();
+        }
     }
 
     @Nullable
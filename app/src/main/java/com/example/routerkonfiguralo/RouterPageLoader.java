@@ -0,0 +1,122 @@
+package com.example.routerkonfiguralo;
+
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.TaskExecutors;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reads a user's routers in pages ordered by document ID, using the last document of the
+ * previous page as the {@code startAfter} cursor. Only that cursor is retained between pages, so
+ * callers decide how much of each page to keep.
+ * <p>
+ * Every document has an ID, so no router is left out, unlike ordering by a field, which skips
+ * documents that lack it (older routers were written without {@code timestamp}). The ID of a
+ * document also never changes, so a router updated while the pages are read is neither skipped
+ * nor read twice.
+ */
+public class RouterPageLoader {
+    private static final LatencyHistogram QUERY_LATENCY =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.FIRESTORE_PAGE_QUERY);
+    private static final MetricsRegistry.Counter QUERY_ERRORS =
+            MetricsRegistry.getInstance().counter(MetricsRegistry.FIRESTORE_PAGE_QUERY_ERRORS);
+
+    private final Query baseQuery;
+    private final int pageSize;
+    private DocumentSnapshot lastDocument;
+    private boolean hasMore = true;
+    private boolean loading = false;
+
+    public RouterPageLoader(FirebaseFirestore db, String userId, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.baseQuery = db.collection(RouterCodec.COLLECTION)
+                .whereEqualTo(RouterCodec.FIELD_USER_ID, userId)
+                .orderBy(FieldPath.documentId())
+                .limit(pageSize);
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * Requests the next page. Does nothing while a page is in flight or after the last page.
+     */
+    public void loadNextPage(OnSuccessListener<QuerySnapshot> onPage, OnFailureListener onFailure) {
+        loadNextPage(TaskExecutors.MAIN_THREAD, onPage, onFailure);
+    }
+
+    /**
+     * Like {@link #loadNextPage(OnSuccessListener, OnFailureListener)}, with the callbacks run on
+     * {@code executor}. A loader must always be driven from the same thread.
+     */
+    public void loadNextPage(Executor executor, OnSuccessListener<QuerySnapshot> onPage,
+                             OnFailureListener onFailure) {
+        if (loading || !hasMore) return;
+
+        loading = true;
+        Query query = lastDocument == null ? baseQuery : baseQuery.startAfter(lastDocument);
+        long start = System.nanoTime();
+        query.get()
+                .addOnSuccessListener(executor, page -> {
+                    QUERY_LATENCY.recordSince(start);
+                    loading = false;
+                    List<DocumentSnapshot> documents = page.getDocuments();
+                    if (!documents.isEmpty()) {
+                        lastDocument = documents.get(documents.size() - 1);
+                    }
+                    hasMore = documents.size() == pageSize;
+                    onPage.onSuccess(page);
+                })
+                .addOnFailureListener(executor, e -> {
+                    QUERY_ERRORS.increment();
+                    loading = false;
+                    onFailure.onFailure(e);
+                });
+    }
+
+    /**
+     * Blocking variant for background threads that stream the collection, such as an export.
+     * Returns null after the last page; throws {@link TimeoutException} if a page takes longer
+     * than the given time.
+     */
+    public QuerySnapshot awaitNextPage(long timeout, TimeUnit unit)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        if (!hasMore) return null;
+
+        Query query = lastDocument == null ? baseQuery : baseQuery.startAfter(lastDocument);
+        long start = System.nanoTime();
+        QuerySnapshot page;
+        try {
+            page = Tasks.await(query.get(), timeout, unit);
+        } catch (ExecutionException | TimeoutException e) {
+            QUERY_ERRORS.increment();
+            throw e;
+        }
+        QUERY_LATENCY.recordSince(start);
+        List<DocumentSnapshot> documents = page.getDocuments();
+        if (!documents.isEmpty()) {
+            lastDocument = documents.get(documents.size() - 1);
+        }
+        hasMore = documents.size() == pageSize;
+        return page;
+    }
+}
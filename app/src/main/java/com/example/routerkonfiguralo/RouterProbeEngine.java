@@ -0,0 +1,160 @@
+package com.example.routerkonfiguralo;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks router reachability with TCP connects to the management port. Probes run in parallel on
+ * a bounded worker pool and each connect is limited by its own timeout, so a cycle over N routers
+ * takes roughly {@code ceil(N / maxConcurrency) * timeout} in the worst case.
+ */
+public class RouterProbeEngine {
+    public static final int DEFAULT_PORT = 80;
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+    public static final int DEFAULT_TIMEOUT_MILLIS = 1000;
+
+    public interface OnProbeCompleteListener {
+        /** Called once per {@link #probeAll} call, on a worker thread. */
+        void onProbeComplete(Map<String, ProbeResult> resultsById);
+    }
+
+    public static class ProbeResult {
+        public final boolean reachable;
+        /** Connect round-trip time, or -1 when the router was not reachable. */
+        public final long rttMillis;
+
+        ProbeResult(boolean reachable, long rttMillis) {
+            this.reachable = reachable;
+            this.rttMillis = rttMillis;
+        }
+    }
+
+    private static final LatencyHistogram RTT =
+            MetricsRegistry.getInstance().histogram(MetricsRegistry.PROBE_RTT);
+    private static final MetricsRegistry.Counter UNREACHABLE =
+            MetricsRegistry.getInstance().counter(MetricsRegistry.PROBE_UNREACHABLE);
+
+    private final ExecutorService workers;
+    private final int timeoutMillis;
+
+    public RouterProbeEngine() {
+        this(DEFAULT_MAX_CONCURRENCY, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public RouterProbeEngine(int maxConcurrency, int timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "router-probe-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        this.workers = executor;
+    }
+
+    /**
+     * Probes every address in parallel and reports all results together.
+     *
+     * @param addressesById router ID to address, as accepted by {@link IpAddress#parseHost}
+     */
+    public void probeAll(Map<String, String> addressesById, OnProbeCompleteListener listener) {
+        Map<String, ProbeResult> results = new ConcurrentHashMap<>();
+        if (addressesById.isEmpty()) {
+            listener.onProbeComplete(results);
+            return;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(addressesById.size());
+        for (Map.Entry<String, String> entry : addressesById.entrySet()) {
+            workers.execute(() -> {
+                results.put(entry.getKey(), probe(entry.getValue()));
+                if (remaining.decrementAndGet() == 0) {
+                    listener.onProbeComplete(results);
+                }
+            });
+        }
+    }
+
+    /**
+     * Blocking single probe; runs on the calling thread.
+     */
+    public ProbeResult probe(String address) {
+        if (address == null || address.trim().isEmpty()) {
+            return new ProbeResult(false, -1);
+        }
+
+        InetSocketAddress target = socketAddress(address);
+        if (target == null) {
+            UNREACHABLE.increment();
+            return new ProbeResult(false, -1);
+        }
+
+        long start = System.nanoTime();
+        try (Socket socket = new Socket()) {
+            socket.connect(target, timeoutMillis);
+            long rttNanos = System.nanoTime() - start;
+            RTT.recordNanos(rttNanos);
+            return new ProbeResult(true, TimeUnit.NANOSECONDS.toMillis(rttNanos));
+        } catch (IOException | IllegalArgumentException e) {
+            UNREACHABLE.increment();
+            return new ProbeResult(false, -1);
+        }
+    }
+
+    /**
+     * Parses the address like {@link IpAddress#parseHost} and builds the socket address from its
+     * bytes. Host names are rejected rather than resolved, since a DNS lookup is not bounded by
+     * the connect timeout and could block a worker indefinitely. Returns null if the address
+     * cannot be probed.
+     */
+    static InetSocketAddress socketAddress(String address) {
+        IpAddress ip = IpAddress.parseHost(address);
+        if (ip == null) return null;
+
+        int port = IpAddress.parsePort(address, DEFAULT_PORT);
+        try {
+            if (ip.isIpv4()) {
+                int v4 = ip.toIpv4();
+                byte[] bytes = {(byte) (v4 >>> 24), (byte) (v4 >>> 16), (byte) (v4 >>> 8), (byte) v4};
+                return new InetSocketAddress(InetAddress.getByAddress(bytes), port);
+            }
+            return new InetSocketAddress(Inet6Address.getByAddress(null, ip.toBytes(), scopeId(address)), port);
+        } catch (UnknownHostException | SocketException e) {
+            return null;
+        }
+    }
+
+    /** The scope of a link-local address such as "fe80::1%wlan0" or "[fe80::1%2]:8080", or 0. */
+    private static int scopeId(String address) throws SocketException {
+        int percent = address.indexOf('%');
+        if (percent < 0) return 0;
+        int end = address.indexOf(']', percent);
+        String zone = address.substring(percent + 1, end < 0 ? address.trim().length() : end).trim();
+        try {
+            return Integer.parseInt(zone);
+        } catch (NumberFormatException e) {
+            NetworkInterface networkInterface = NetworkInterface.getByName(zone);
+            if (networkInterface == null) throw new SocketException("Unknown interface " + zone);
+            return networkInterface.getIndex();
+        }
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.routerkonfiguralo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory search over router name, model and IP address, updated one router at a time from
+ * the same changes that feed the list.
+ * <ul>
+ * <li>Queries of one or two characters match the start of any word of the name or model, through
+ * a sorted word map.</li>
+ * <li>Longer queries match anywhere in the name or model: the postings of the query's trigrams are
+ * intersected and only the few candidates left are checked against the text.</li>
+ * <li>Queries made of digits and dots also match IP addresses by prefix ("192.168.1" or
+ * "10.0.0.2"), through a sorted address map.</li>
+ * <li>CIDR queries ("10.20.0.0/16", "2001:db8::/32") return the routers in that range, through a
+ * map sorted by the numeric address.</li>
+ * </ul>
+ * A query never scans all routers. Not thread-safe; confine it to one thread.
+ */
+public class RouterSearchIndex {
+    private static final int GRAM = 3;
+    // Last character of the prefix range in a sorted map
+    private static final char MAX_CHAR = '\uffff';
+
+    private static class Entry {
+        final String text;
+        final String ipAddress;
+        final IpAddress address;
+        final Set<String> words;
+        final Set<String> grams;
+
+        Entry(String text, String ipAddress, IpAddress address, Set<String> words, Set<String> grams) {
+            this.text = text;
+            this.ipAddress = ipAddress;
+            this.address = address;
+            this.words = words;
+            this.grams = grams;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Set<String>> gramPostings = new HashMap<>();
+    private final NavigableMap<String, Set<String>> wordPostings = new TreeMap<>();
+    private final NavigableMap<String, Set<String>> ipPostings = new TreeMap<>();
+    private final NavigableMap<IpAddress, Set<String>> addressPostings = new TreeMap<>();
+
+    /** Indexes a router, replacing its previous version. */
+    public void put(Router router) {
+        String routerId = router.getId();
+        String text = normalize(router.getName()) + '\n' + normalize(router.getModel());
+        String ipAddress = router.getIpAddress() != null ? router.getIpAddress().trim() : "";
+
+        Entry previous = entries.get(routerId);
+        if (previous != null && previous.text.equals(text) && previous.ipAddress.equals(ipAddress)) {
+            return;
+        }
+        remove(routerId);
+
+        Set<String> words = new HashSet<>();
+        for (String word : text.split("[\\s\\-_/.,()]+")) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+
+        IpAddress address = router.getParsedAddress();
+        entries.put(routerId, new Entry(text, ipAddress, address, words, grams));
+        for (String word : words) post(wordPostings, word, routerId);
+        for (String gram : grams) post(gramPostings, gram, routerId);
+        if (!ipAddress.isEmpty()) post(ipPostings, ipAddress, routerId);
+        if (address != null) post(addressPostings, address, routerId);
+    }
+
+    public void remove(String routerId) {
+        Entry entry = entries.remove(routerId);
+        if (entry == null) return;
+
+        for (String word : entry.words) unpost(wordPostings, word, routerId);
+        for (String gram : entry.grams) unpost(gramPostings, gram, routerId);
+        if (!entry.ipAddress.isEmpty()) unpost(ipPostings, entry.ipAddress, routerId);
+        if (entry.address != null) unpost(addressPostings, entry.address, routerId);
+    }
+
+    public void clear() {
+        entries.clear();
+        gramPostings.clear();
+        wordPostings.clear();
+        ipPostings.clear();
+        addressPostings.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** Returns the ids of the routers matching a query; a blank query matches nothing. */
+    public Set<String> search(String query) {
+        String q = normalize(query);
+        Set<String> matches = new HashSet<>();
+        if (q.isEmpty()) return matches;
+
+        IpSubnet subnet = IpSubnet.parse(q);
+        if (subnet != null) {
+            return searchRange(subnet);
+        }
+        if (q.length() < GRAM) {
+            addPrefixMatches(wordPostings, q, matches);
+        } else {
+            addSubstringMatches(q, matches);
+        }
+        if (isAddressQuery(q)) {
+            addPrefixMatches(ipPostings, q, matches);
+        }
+        return matches;
+    }
+
+    /** Returns the ids of the routers whose address lies in a subnet. */
+    public Set<String> searchRange(IpSubnet subnet) {
+        Set<String> matches = new HashSet<>();
+        for (Set<String> routerIds : addressPostings.subMap(subnet.getFirst(), true, subnet.getLast(), true).values()) {
+            matches.addAll(routerIds);
+        }
+        return matches;
+    }
+
+    private void addSubstringMatches(String q, Set<String> matches) {
+        // Start from the rarest trigram so the intersection stays small
+        List<Set<String>> postings = new ArrayList<>();
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            Set<String> posting = gramPostings.get(q.substring(i, i + GRAM));
+            if (posting == null) return;
+            postings.add(posting);
+        }
+        Set<String> smallest = postings.get(0);
+        for (Set<String> posting : postings) {
+            if (posting.size() < smallest.size()) smallest = posting;
+        }
+
+        for (String routerId : smallest) {
+            if (inAll(postings, routerId) && entries.get(routerId).text.contains(q)) {
+                matches.add(routerId);
+            }
+        }
+    }
+
+    private static boolean inAll(Collection<Set<String>> postings, String routerId) {
+        for (Set<String> posting : postings) {
+            if (!posting.contains(routerId)) return false;
+        }
+        return true;
+    }
+
+    private static void addPrefixMatches(NavigableMap<String, Set<String>> postings, String prefix,
+                                         Set<String> matches) {
+        for (Set<String> routerIds : postings.subMap(prefix, true, prefix + MAX_CHAR, true).values()) {
+            matches.addAll(routerIds);
+        }
+    }
+
+    private static boolean isAddressQuery(String q) {
+        for (int i = 0; i < q.length(); i++) {
+            char c = q.charAt(i);
+            if ((c < '0' || c > '9') && c != '.') return false;
+        }
+        return true;
+    }
+
+    private static <K> void post(Map<K, Set<String>> postings, K key, String routerId) {
+        Set<String> routerIds = postings.get(key);
+        if (routerIds == null) {
+            routerIds = new HashSet<>();
+            postings.put(key, routerIds);
+        }
+        routerIds.add(routerId);
+    }
+
+    private static <K> void unpost(Map<K, Set<String>> postings, K key, String routerId) {
+        Set<String> routerIds = postings.get(key);
+        if (routerIds != null && routerIds.remove(routerId) && routerIds.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+}
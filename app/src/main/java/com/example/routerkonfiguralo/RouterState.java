@@ -0,0 +1,142 @@
+package com.example.routerkonfiguralo;
+
+/**
+ * Compact record of the router fields the notification service watches for changes, kept per
+ * router instead of the full {@code DocumentSnapshot}. Model and firmware strings are interned
+ * (they repeat across a fleet), an IPv4 address is packed into an int, and a 64-bit fingerprint
+ * over all fields lets an unchanged update be recognised with one comparison and no allocation.
+ */
+final class RouterState {
+    static final int CHANGED_NAME = 1;
+    static final int CHANGED_MODEL = 1 << 1;
+    static final int CHANGED_FIRMWARE = 1 << 2;
+    static final int CHANGED_IP = 1 << 3;
+    static final int CHANGED_ONLINE = 1 << 4;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NOT_IPV4 = -1;
+
+    private String name;
+    private String model;
+    private String firmwareVersion;
+    private int packedIp;
+    private boolean hasPackedIp;
+    // Only set when the address is not a dotted IPv4 address
+    private String ipText;
+    private boolean online;
+    private long fingerprint;
+
+    RouterState(String name, String model, String firmwareVersion, String ipAddress, boolean online) {
+        update(name, model, firmwareVersion, ipAddress, online);
+    }
+
+    void update(String name, String model, String firmwareVersion, String ipAddress, boolean online) {
+        this.name = name;
+        this.model = model != null ? model.intern() : null;
+        this.firmwareVersion = firmwareVersion != null ? firmwareVersion.intern() : null;
+        long packed = packIpv4(ipAddress);
+        this.hasPackedIp = packed != NOT_IPV4;
+        this.packedIp = (int) packed;
+        this.ipText = hasPackedIp ? null : ipAddress;
+        this.online = online;
+        this.fingerprint = fingerprint(name, model, firmwareVersion, ipAddress, online);
+    }
+
+    long getFingerprint() {
+        return fingerprint;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getModel() {
+        return model;
+    }
+
+    String getFirmwareVersion() {
+        return firmwareVersion;
+    }
+
+    boolean isOnline() {
+        return online;
+    }
+
+    /** Rebuilds the address text; allocates, so only call it when the text is needed. */
+    String getIpAddress() {
+        if (!hasPackedIp) return ipText;
+        return ((packedIp >>> 24) & 0xff) + "." + ((packedIp >>> 16) & 0xff) + "."
+                + ((packedIp >>> 8) & 0xff) + "." + (packedIp & 0xff);
+    }
+
+    /**
+     * Returns the CHANGED_* bits of the fields that differ from this state. As before, a missing
+     * model, firmware, address or status in the new version is not reported as a change.
+     */
+    int diff(String name, String model, String firmwareVersion, String ipAddress, Boolean online) {
+        int changed = 0;
+        if (name != null && !name.equals(this.name)) changed |= CHANGED_NAME;
+        if (model != null && !model.equals(this.model)) changed |= CHANGED_MODEL;
+        if (firmwareVersion != null && !firmwareVersion.equals(this.firmwareVersion)) changed |= CHANGED_FIRMWARE;
+        if (ipAddress != null && !ipEquals(ipAddress)) changed |= CHANGED_IP;
+        if (online != null && online != this.online) changed |= CHANGED_ONLINE;
+        return changed;
+    }
+
+    /**
+     * Describes the fields flagged in {@code changed} by {@link #diff}, one line per field from
+     * this state's value to the new one.
+     */
+    String describeChanges(int changed, String name, String model, String firmwareVersion, String ipAddress,
+                           Boolean online) {
+        StringBuilder changes = new StringBuilder();
+        if ((changed & CHANGED_NAME) != 0) {
+            changes.append("Name changed from ").append(this.name).append(" to ").append(name).append("\n");
+        }
+        if ((changed & CHANGED_MODEL) != 0) {
+            changes.append("Model changed from ").append(this.model).append(" to ").append(model).append("\n");
+        }
+        if ((changed & CHANGED_FIRMWARE) != 0) {
+            changes.append("Firmware changed from ").append(this.firmwareVersion).append(" to ").append(firmwareVersion).append("\n");
+        }
+        if ((changed & CHANGED_IP) != 0) {
+            changes.append("IP changed from ").append(getIpAddress()).append(" to ").append(ipAddress).append("\n");
+        }
+        if ((changed & CHANGED_ONLINE) != 0) {
+            changes.append("Status changed to ").append(online ? "Online" : "Offline").append("\n");
+        }
+        return changes.toString();
+    }
+
+    private boolean ipEquals(String ipAddress) {
+        if (!hasPackedIp) return ipAddress.equals(ipText);
+        long packed = packIpv4(ipAddress);
+        return packed != NOT_IPV4 && (int) packed == packedIp;
+    }
+
+    static long fingerprint(String name, String model, String firmwareVersion, String ipAddress,
+                            boolean online) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, name);
+        hash = mix(hash, model);
+        hash = mix(hash, firmwareVersion);
+        hash = mix(hash, ipAddress);
+        return (hash ^ (online ? 1 : 2)) * FNV_PRIME;
+    }
+
+    // FNV-1a over the UTF-16 code units, with a terminator so field boundaries matter
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0x1ffff) * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ 0x10000) * FNV_PRIME;
+    }
+
+    static long packIpv4(String address) {
+        return IpAddress.parseIpv4(address);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.routerkonfiguralo;
+
+/**
+ * The rules a router must pass, shared by the add and edit forms and bulk import.
+ */
+public final class RouterValidator {
+    private RouterValidator() {
+    }
+
+    /** Returns why a router cannot be saved, or null if it is valid. */
+    public static String validate(Router router) {
+        if (isBlank(router.getName()) || isBlank(router.getIpAddress()) || isBlank(router.getUsername())
+                || isBlank(router.getPassword()) || isBlank(router.getModel())) {
+            return "Please fill all required fields";
+        }
+        if (router.getParsedAddress() == null) {
+            return "Please enter a valid IPv4 or IPv6 address";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.routerkonfiguralo;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers field updates of router documents for a short window and commits them as
+ * {@link WriteBatch}es of at most {@link #MAX_BATCH_SIZE} documents. Repeated updates of the same
+ * field inside the window are merged, and updates to the value already stored are dropped. Every
+ * flushed document also gets its {@code timestamp} bumped so cursor-based syncs see the change.
+ * Safe to call from any thread.
+ */
+public class RouterWriteCoalescer {
+    private static final String TAG = "RouterWriteCoalescer";
+    public static final long DEFAULT_WINDOW_MILLIS = 2000;
+    // Firestore's limit of operations per batch
+    static final int MAX_BATCH_SIZE = 500;
+
+    private final FirebaseFirestore db;
+    private final long windowMillis;
+    private final ScheduledExecutorService scheduler;
+    // Router ID -> field -> value, for writes that are waiting for the next flush
+    private final Map<String, Map<String, Object>> pending = new LinkedHashMap<>();
+    // Router ID -> field -> value, as last read from or written to Firestore
+    private final Map<String, Map<String, Object>> storedValues = new HashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    // Document writes committed
+    private static final MetricsRegistry.Counter FLUSHED_WRITES =
+            MetricsRegistry.getInstance().counter(MetricsRegistry.WRITES_FLUSHED);
+    // Updates merged into a write that was already pending
+    private static final MetricsRegistry.Counter COALESCED_WRITES =
+            MetricsRegistry.getInstance().counter(MetricsRegistry.WRITES_COALESCED);
+    // Updates dropped because the stored value was the same
+    private static final MetricsRegistry.Counter SKIPPED_WRITES =
+            MetricsRegistry.getInstance().counter(MetricsRegistry.WRITES_SKIPPED);
+
+    public RouterWriteCoalescer(FirebaseFirestore db) {
+        this(db, DEFAULT_WINDOW_MILLIS);
+    }
+
+    public RouterWriteCoalescer(FirebaseFirestore db, long windowMillis) {
+        this.db = db;
+        this.windowMillis = windowMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "router-write-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records a value read from Firestore, so a later update to the same value is skipped.
+     */
+    public synchronized void recordStoredValue(String routerId, String field, Object value) {
+        fieldsOf(storedValues, routerId).put(field, value);
+    }
+
+    public synchronized void enqueue(String routerId, String field, Object value) {
+        Map<String, Object> stored = storedValues.get(routerId);
+        boolean unchanged = stored != null && stored.containsKey(field)
+                && Objects.equals(stored.get(field), value);
+
+        Map<String, Object> fields = pending.get(routerId);
+        if (fields != null && fields.containsKey(field)) {
+            COALESCED_WRITES.increment();
+            if (unchanged) {
+                // Changed back to the stored value before the flush
+                fields.remove(field);
+                if (fields.isEmpty()) pending.remove(routerId);
+            } else {
+                fields.put(field, value);
+            }
+            return;
+        }
+
+        if (unchanged) {
+            SKIPPED_WRITES.increment();
+            return;
+        }
+
+        fieldsOf(pending, routerId).put(field, value);
+        if (scheduledFlush == null) {
+            scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Commits everything buffered so far. Normally called by the window timer.
+     */
+    public void flush() {
+        List<String> routerIds;
+        Map<String, Map<String, Object>> writes;
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (pending.isEmpty()) return;
+
+            routerIds = new ArrayList<>(pending.keySet());
+            writes = new HashMap<>(pending);
+            pending.clear();
+            // Assume success; a failed batch forgets these values again
+            for (Map.Entry<String, Map<String, Object>> write : writes.entrySet()) {
+                fieldsOf(storedValues, write.getKey()).putAll(write.getValue());
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (int start = 0; start < routerIds.size(); start += MAX_BATCH_SIZE) {
+            List<String> chunk = routerIds.subList(start, Math.min(start + MAX_BATCH_SIZE, routerIds.size()));
+            WriteBatch batch = db.batch();
+            for (String routerId : chunk) {
+                Map<String, Object> updates = new HashMap<>(writes.get(routerId));
+                updates.put(RouterCodec.FIELD_TIMESTAMP, now);
+                batch.update(db.collection(RouterCodec.COLLECTION).document(routerId), updates);
+            }
+
+            int size = chunk.size();
+            batch.commit()
+                    .addOnSuccessListener(aVoid -> {
+                        FLUSHED_WRITES.add(size);
+                        Log.d(TAG, "Flushed " + size + " router writes");
+                    })
+                    .addOnFailureListener(e -> {
+                        // A batch is atomic, so one deleted router fails all of it; retry singly
+                        Log.w(TAG, "Error committing router writes, retrying individually: " + e.getMessage());
+                        for (String routerId : chunk) {
+                            Map<String, Object> updates = new HashMap<>(writes.get(routerId));
+                            updates.put(RouterCodec.FIELD_TIMESTAMP, now);
+                            commitSingle(routerId, updates);
+                        }
+                    });
+        }
+    }
+
+    private void commitSingle(String routerId, Map<String, Object> updates) {
+        db.collection(RouterCodec.COLLECTION).document(routerId)
+                .update(updates)
+                .addOnSuccessListener(aVoid -> FLUSHED_WRITES.increment())
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error updating router " + routerId + ": " + e.getMessage());
+                    synchronized (RouterWriteCoalescer.this) {
+                        storedValues.remove(routerId);
+                    }
+                });
+    }
+
+    /**
+     * Flushes the pending writes and stops the window timer.
+     */
+    public void shutdown() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    private static Map<String, Object> fieldsOf(Map<String, Map<String, Object>> values, String routerId) {
+        Map<String, Object> fields = values.get(routerId);
+        if (fields == null) {
+            fields = new HashMap<>();
+            values.put(routerId, fields);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.routerkonfiguralo;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-router history of observed status transitions and probe latencies, kept in one file that is
+ * memory-mapped for its whole lifetime.
+ * <p>
+ * Each router owns a slot, a ring of {@link #DEFAULT_RECORDS_PER_SLOT} fixed-size records, so
+ * reading one router's recent history only touches that router's slot and finds the start of a
+ * time range by binary search. Slots are mapped in segments of {@link #DEFAULT_SLOTS_PER_SEGMENT};
+ * when every slot is taken the file grows by one segment, so a router's history is only dropped
+ * by {@link #forget} when the router is deleted, never to make room for another. A router is
+ * mapped to its slot by a 64-bit hash of its ID stored in the slot.
+ * <p>
+ * Layout, all big-endian:
+ * <pre>
+ * header     magic, version, slots per segment, records per slot, segments (5 ints, padded to 64 bytes)
+ * segments   per slot: router key (long, 0 = free), records written (long),
+ *            then records per slot x (time millis long, RTT millis int, flags byte, 3 pad)
+ * </pre>
+ * A record is written before its slot's count is advanced, so a record torn by process death is
+ * never read. The file is extended before the header counts the new segment. Dirty pages of the
+ * shared mapping are written back by the kernel even if the process dies. Appends allocate nothing
+ * unless the file grows. All methods are synchronized; appends come from the notification
+ * service's ingest thread, reads from the UI.
+ */
+public class StatusHistory {
+    private static final String TAG = "StatusHistory";
+    private static final String FILE_NAME = "status-history.bin";
+    private static final int MAGIC = 0x52534831; // "RSH1"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 16;
+
+    public static final int DEFAULT_SLOTS_PER_SEGMENT = 256;
+    // 16 KB per router, 4 MB per segment
+    public static final int DEFAULT_RECORDS_PER_SLOT = 1024;
+
+    /** Flag bits of a record. */
+    public static final int FLAG_ONLINE = 1;
+    /** The status differs from the previous record of the router. */
+    public static final int FLAG_TRANSITION = 1 << 1;
+    /** Recorded from a reachability probe; otherwise from a router document change. */
+    public static final int FLAG_PROBE = 1 << 2;
+
+    /** Marks an unknown RTT, e.g. for unreachable routers and document changes. */
+    public static final int NO_RTT = -1;
+
+    public static final class Entry {
+        public final long timeMillis;
+        public final int rttMillis;
+        public final int flags;
+
+        Entry(long timeMillis, int rttMillis, int flags) {
+            this.timeMillis = timeMillis;
+            this.rttMillis = rttMillis;
+            this.flags = flags;
+        }
+
+        public boolean isOnline() {
+            return (flags & FLAG_ONLINE) != 0;
+        }
+
+        public boolean isTransition() {
+            return (flags & FLAG_TRANSITION) != 0;
+        }
+    }
+
+    /** Receives records oldest first, without allocating an {@link Entry} per record. */
+    public interface Visitor {
+        void visit(long timeMillis, int rttMillis, int flags);
+    }
+
+    private static StatusHistory instance;
+
+    private final File file;
+    private final int slotsPerSegment;
+    private final int recordsPerSlot;
+    private final int slotBytes;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int slots;
+    // Open-addressing index from router key to slot, mirroring the slot keys
+    private long[] indexKeys;
+    private int[] indexSlots;
+    // Stack of free slots, lowest on top
+    private int[] freeSlots;
+    private int freeCount;
+    /** The file was missing or had another layout, so the history starts empty. */
+    final boolean startedOver;
+
+    public static synchronized StatusHistory getInstance(Context context) throws IOException {
+        if (instance == null) {
+            File file = new File(context.getFilesDir(), FILE_NAME);
+            instance = new StatusHistory(file, DEFAULT_SLOTS_PER_SEGMENT, DEFAULT_RECORDS_PER_SLOT);
+            if (instance.startedOver) {
+                Log.w(TAG, "Starting a new status history in " + file);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Opens or creates the history file. A file with a different layout is discarded and started
+     * over, since the history is only a diagnostic aid.
+     */
+    StatusHistory(File file, int slotsPerSegment, int recordsPerSlot) throws IOException {
+        this.file = file;
+        this.slotsPerSegment = slotsPerSegment;
+        this.recordsPerSlot = recordsPerSlot;
+        this.slotBytes = SLOT_HEADER_BYTES + recordsPerSlot * RECORD_BYTES;
+        long segmentBytes = segmentBytes();
+        if (segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment of " + segmentBytes + " bytes is too large");
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            int segmentCount = 0;
+            if (raf.length() >= HEADER_BYTES && raf.readInt() == MAGIC & raf.readInt() == VERSION
+                    & raf.readInt() == slotsPerSegment & raf.readInt() == recordsPerSlot) {
+                segmentCount = raf.readInt();
+                if (raf.length() < HEADER_BYTES + segmentCount * segmentBytes) segmentCount = 0;
+            }
+            startedOver = segmentCount <= 0;
+            if (startedOver) {
+                segmentCount = 1;
+                raf.setLength(0);
+            }
+            // Also drops a segment whose growth died before the header counted it
+            raf.setLength(HEADER_BYTES + segmentCount * segmentBytes);
+
+            // The mappings stay valid after the channel is closed
+            FileChannel channel = raf.getChannel();
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            for (int i = 0; i < segmentCount; i++) {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + i * segmentBytes, segmentBytes));
+            }
+            if (startedOver) {
+                header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, slotsPerSegment)
+                        .putInt(12, recordsPerSlot).putInt(16, segmentCount);
+            }
+            slots = segmentCount * slotsPerSegment;
+        }
+
+        indexKeys = new long[indexCapacity(slots)];
+        indexSlots = new int[indexKeys.length];
+        freeSlots = new int[slots];
+        for (int slot = slots - 1; slot >= 0; slot--) {
+            long key = segmentOf(slot).getLong(slotOffset(slot));
+            if (key != 0) {
+                indexPut(key, slot);
+            } else {
+                freeSlots[freeCount++] = slot;
+            }
+        }
+    }
+
+    /**
+     * Records one observation of a router. {@link #FLAG_TRANSITION} is added when the status
+     * differs from the router's previous record.
+     *
+     * @param rttMillis probe round-trip time, or {@link #NO_RTT}
+     * @param flags     {@link #FLAG_ONLINE} and {@link #FLAG_PROBE} as applicable
+     */
+    public synchronized void append(String routerId, long timeMillis, int rttMillis, int flags) {
+        long key = key(routerId);
+        int slot = indexGet(key);
+        if (slot < 0) {
+            try {
+                slot = claimSlot(key);
+            } catch (IOException e) {
+                Log.e(TAG, "Error growing status history: " + e.getMessage(), e);
+                return;
+            }
+        }
+
+        MappedByteBuffer segment = segmentOf(slot);
+        int offset = slotOffset(slot);
+        long written = segment.getLong(offset + 8);
+        if (written == 0) {
+            flags |= FLAG_TRANSITION;
+        } else {
+            int previousFlags = segment.get(recordAt(offset, written - 1) + 12);
+            if ((previousFlags & FLAG_ONLINE) != (flags & FLAG_ONLINE)) flags |= FLAG_TRANSITION;
+        }
+
+        int record = recordAt(offset, written);
+        segment.putLong(record, timeMillis);
+        segment.putInt(record + 8, rttMillis);
+        segment.put(record + 12, (byte) flags);
+        segment.putLong(offset + 8, written + 1);
+    }
+
+    /**
+     * Visits a router's records with {@code fromMillis <= time < toMillis}, oldest first. Only the
+     * router's own ring is read, starting at the first matching record found by binary search,
+     * which assumes records were appended in time order.
+     */
+    public synchronized void read(String routerId, long fromMillis, long toMillis, Visitor visitor) {
+        int slot = indexGet(key(routerId));
+        if (slot < 0) return;
+
+        MappedByteBuffer segment = segmentOf(slot);
+        int offset = slotOffset(slot);
+        long written = segment.getLong(offset + 8);
+        long first = Math.max(0, written - recordsPerSlot);
+        // First record at or after fromMillis
+        long low = first;
+        long high = written;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (segment.getLong(recordAt(offset, mid)) < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (long i = low; i < written; i++) {
+            int record = recordAt(offset, i);
+            long time = segment.getLong(record);
+            if (time >= toMillis) break;
+            visitor.visit(time, segment.getInt(record + 8), segment.get(record + 12));
+        }
+    }
+
+    /** Convenience for screens: the records of the last {@code hours} hours up to {@code nowMillis}. */
+    public List<Entry> readLastHours(String routerId, int hours, long nowMillis) {
+        List<Entry> entries = new ArrayList<>();
+        read(routerId, nowMillis - hours * 60L * 60 * 1000, Long.MAX_VALUE,
+                (time, rtt, flags) -> entries.add(new Entry(time, rtt, flags)));
+        return entries;
+    }
+
+    /** Frees a deleted router's slot for the next new router. */
+    public synchronized void forget(String routerId) {
+        long key = key(routerId);
+        int slot = indexGet(key);
+        if (slot < 0) return;
+        segmentOf(slot).putLong(slotOffset(slot), 0).putLong(slotOffset(slot) + 8, 0);
+        indexRemove(key);
+        freeSlots[freeCount++] = slot;
+    }
+
+    /** Schedules the dirty pages for writing, e.g. when the service stops. */
+    public synchronized void flush() {
+        header.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /** The lowest free slot, growing the file by a segment when there is none. */
+    private int claimSlot(long key) throws IOException {
+        if (freeCount == 0) grow();
+        int slot = freeSlots[--freeCount];
+        segmentOf(slot).putLong(slotOffset(slot) + 8, 0).putLong(slotOffset(slot), key);
+        indexPut(key, slot);
+        return slot;
+    }
+
+    private void grow() throws IOException {
+        long segmentBytes = segmentBytes();
+        long start = HEADER_BYTES + segments.size() * segmentBytes;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(start + segmentBytes);
+            segments.add(raf.getChannel().map(FileChannel.MapMode.READ_WRITE, start, segmentBytes));
+        }
+        header.putInt(16, segments.size());
+
+        int oldSlots = slots;
+        slots += slotsPerSegment;
+        freeSlots = Arrays.copyOf(freeSlots, slots);
+        for (int slot = slots - 1; slot >= oldSlots; slot--) {
+            freeSlots[freeCount++] = slot;
+        }
+        if (indexKeys.length < indexCapacity(slots)) {
+            long[] keys = indexKeys;
+            int[] keySlots = indexSlots;
+            indexKeys = new long[indexCapacity(slots)];
+            indexSlots = new int[indexKeys.length];
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) indexPut(keys[i], keySlots[i]);
+            }
+        }
+    }
+
+    private long segmentBytes() {
+        return (long) slotsPerSegment * slotBytes;
+    }
+
+    private MappedByteBuffer segmentOf(int slot) {
+        return segments.get(slot / slotsPerSegment);
+    }
+
+    private int slotOffset(int slot) {
+        return (slot % slotsPerSegment) * slotBytes;
+    }
+
+    private int recordAt(int slotOffset, long sequence) {
+        return slotOffset + SLOT_HEADER_BYTES + (int) (sequence % recordsPerSlot) * RECORD_BYTES;
+    }
+
+    // FNV-1a over the UTF-16 code units; 0 is reserved for free slots
+    static long key(String routerId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < routerId.length(); i++) {
+            hash ^= routerId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    // At most half full, so probe runs stay short
+    private static int indexCapacity(int slots) {
+        return Integer.highestOneBit(Math.max(slots, 1)) * 4;
+    }
+
+    private int indexGet(long key) {
+        int mask = indexKeys.length - 1;
+        for (int i = mix(key) & mask; indexKeys[i] != 0; i = (i + 1) & mask) {
+            if (indexKeys[i] == key) return indexSlots[i];
+        }
+        return -1;
+    }
+
+    private void indexPut(long key, int slot) {
+        int mask = indexKeys.length - 1;
+        int i = mix(key) & mask;
+        while (indexKeys[i] != 0 && indexKeys[i] != key) i = (i + 1) & mask;
+        indexKeys[i] = key;
+        indexSlots[i] = slot;
+    }
+
+    // Moves later keys of the probe run back into the hole, so lookups never stop early at it
+    private void indexRemove(long key) {
+        int mask = indexKeys.length - 1;
+        int hole = mix(key) & mask;
+        while (indexKeys[hole] != key) {
+            if (indexKeys[hole] == 0) return;
+            hole = (hole + 1) & mask;
+        }
+        for (int i = (hole + 1) & mask; indexKeys[i] != 0; i = (i + 1) & mask) {
+            int home = mix(indexKeys[i]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                indexKeys[hole] = indexKeys[i];
+                indexSlots[hole] = indexSlots[i];
+                hole = i;
+            }
+        }
+        indexKeys[hole] = 0;
+    }
+
+    private static int mix(long key) {
+        return (int) (key ^ (key >>> 32)) * 0x9e3779b9;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.routerkonfiguralo;
+
+/**
+ * Token bucket rate limiter: holds up to {@code capacity} tokens and regains one every
+ * {@code refillIntervalMillis}. Not thread-safe.
+ */
+public class TokenBucket {
+    private final Clock clock;
+    private final int capacity;
+    private final long refillIntervalMillis;
+    private int tokens;
+    private long lastRefillAt;
+
+    public TokenBucket(Clock clock, int capacity, long refillIntervalMillis) {
+        if (capacity <= 0 || refillIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Invalid bucket: capacity=" + capacity
+                    + ", refillInterval=" + refillIntervalMillis);
+        }
+        this.clock = clock;
+        this.capacity = capacity;
+        this.refillIntervalMillis = refillIntervalMillis;
+        this.tokens = capacity;
+        this.lastRefillAt = clock.millis();
+    }
+
+    /**
+     * Takes {@code count} tokens if that many are available; otherwise takes none.
+     */
+    public boolean tryAcquire(int count) {
+        refill();
+        if (count > tokens) return false;
+        tokens -= count;
+        return true;
+    }
+
+    public int availableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = clock.millis();
+        long refills = (now - lastRefillAt) / refillIntervalMillis;
+        if (refills <= 0) return;
+
+        tokens = (int) Math.min(capacity, tokens + refills);
+        lastRefillAt = tokens == capacity ? now : lastRefillAt + refills * refillIntervalMillis;
+    }
+}
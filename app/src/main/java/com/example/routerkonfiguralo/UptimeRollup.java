@@ -0,0 +1,217 @@
+package com.example.routerkonfiguralo;
+
+import java.util.Arrays;
+
+/**
+ * Incrementally maintained availability of one router, from its status observations.
+ * <p>
+ * The status is taken to hold from one observation until the next, and only time after the
+ * first observation counts as observed. Every observation adds the time since the previous one,
+ * with that previous status, to a ring of minute, hour and day buckets at once; a status change
+ * also counts an outage (online to offline) or a recovery (offline to online, together with the
+ * outage's duration) in the buckets it falls into. An observation therefore only touches the few
+ * buckets since the previous one; after a long gap at most every bucket of each ring, so the cost
+ * per observation is bounded by the ring sizes, independent of the history length.
+ * <p>
+ * Windows are aligned to their bucket size: the last 24 hours are the current hour plus the 23
+ * before it, the last 7 days the current day plus the 6 before it, in UTC. Time since the last
+ * observation is added at query time with the last status, so queries are exact at any moment.
+ * Observations must be in time order; earlier ones are treated as happening at the latest time
+ * seen. Not thread-safe.
+ */
+public final class UptimeRollup {
+    public static final long MINUTE = 60 * 1000;
+    public static final long HOUR = 60 * MINUTE;
+    public static final long DAY = 24 * HOUR;
+
+    /** Aggregates of one window. */
+    public static final class Stats {
+        /** Length of the window up to the query time; observed time falls short of it when the history is shorter. */
+        public long windowMillis;
+        public long observedMillis;
+        public long onlineMillis;
+        public int outages;
+        public int recoveries;
+        /** Total duration of the outages that ended in the window. */
+        public long recoveredDowntimeMillis;
+
+        /** Fraction of the observed time the router was online, or NaN with nothing observed. */
+        public double availability() {
+            return observedMillis == 0 ? Double.NaN : (double) onlineMillis / observedMillis;
+        }
+
+        /** Mean outage duration over the recoveries in the window, or -1 without any. */
+        public long meanTimeToRecoveryMillis() {
+            return recoveries == 0 ? -1 : recoveredDowntimeMillis / recoveries;
+        }
+
+        /** Adds another window's aggregates, e.g. to sum up a fleet. */
+        public void add(Stats other) {
+            windowMillis += other.windowMillis;
+            observedMillis += other.observedMillis;
+            onlineMillis += other.onlineMillis;
+            outages += other.outages;
+            recoveries += other.recoveries;
+            recoveredDowntimeMillis += other.recoveredDowntimeMillis;
+        }
+    }
+
+    /** Fixed ring of buckets of one size; a slot is reused once its bucket leaves the ring. */
+    private static final class Ring {
+        final long unit;
+        final int size;
+        final long[] bucket;
+        final long[] observed;
+        final long[] online;
+        final int[] outages;
+        final int[] recoveries;
+        final long[] downtime;
+
+        Ring(long unit, int size) {
+            this.unit = unit;
+            this.size = size;
+            bucket = new long[size];
+            observed = new long[size];
+            online = new long[size];
+            outages = new int[size];
+            recoveries = new int[size];
+            downtime = new long[size];
+            clear();
+        }
+
+        void clear() {
+            Arrays.fill(bucket, Long.MIN_VALUE);
+        }
+
+        int slot(long bucketNumber) {
+            int i = (int) Math.floorMod(bucketNumber, (long) size);
+            if (bucket[i] != bucketNumber) {
+                bucket[i] = bucketNumber;
+                observed[i] = 0;
+                online[i] = 0;
+                outages[i] = 0;
+                recoveries[i] = 0;
+                downtime[i] = 0;
+            }
+            return i;
+        }
+
+        /** Spreads {@code [from, to)} over the buckets it covers, skipping those already out of the ring. */
+        void addTime(long from, long to, boolean isOnline) {
+            if (to <= from) return;
+            long last = Math.floorDiv(to - 1, unit);
+            long first = Math.max(Math.floorDiv(from, unit), last - size + 1);
+            for (long b = first; b <= last; b++) {
+                long span = Math.min(to, (b + 1) * unit) - Math.max(from, b * unit);
+                int i = slot(b);
+                observed[i] += span;
+                if (isOnline) online[i] += span;
+            }
+        }
+
+        void addOutage(long time) {
+            outages[slot(Math.floorDiv(time, unit))]++;
+        }
+
+        void addRecovery(long time, long outageMillis) {
+            int i = slot(Math.floorDiv(time, unit));
+            recoveries[i]++;
+            downtime[i] += outageMillis;
+        }
+
+        /** Sums the last {@code count} buckets up to the one holding {@code now}. */
+        void sum(long now, int count, Stats stats) {
+            long last = Math.floorDiv(now, unit);
+            long first = last - count + 1;
+            for (int i = 0; i < size; i++) {
+                if (bucket[i] < first || bucket[i] > last) continue;
+                stats.observedMillis += observed[i];
+                stats.onlineMillis += online[i];
+                stats.outages += outages[i];
+                stats.recoveries += recoveries[i];
+                stats.recoveredDowntimeMillis += downtime[i];
+            }
+        }
+    }
+
+    private final Ring minutes = new Ring(MINUTE, 60);
+    private final Ring hours = new Ring(HOUR, 24);
+    private final Ring days = new Ring(DAY, 30);
+
+    private boolean observed;
+    private long lastTime;
+    private boolean lastOnline;
+    // Start of the current outage, or -1 when online or when the outage began before the first observation
+    private long outageStart = -1;
+
+    /** Forgets every observation, so one rollup can be reused to replay many routers. */
+    public void clear() {
+        minutes.clear();
+        hours.clear();
+        days.clear();
+        observed = false;
+        outageStart = -1;
+    }
+
+    /** Applies one status observation. */
+    public void record(long timeMillis, boolean online) {
+        if (!observed) {
+            observed = true;
+            lastTime = timeMillis;
+            lastOnline = online;
+            return;
+        }
+        long time = Math.max(timeMillis, lastTime);
+        minutes.addTime(lastTime, time, lastOnline);
+        hours.addTime(lastTime, time, lastOnline);
+        days.addTime(lastTime, time, lastOnline);
+
+        if (online != lastOnline) {
+            if (!online) {
+                minutes.addOutage(time);
+                hours.addOutage(time);
+                days.addOutage(time);
+                outageStart = time;
+            } else if (outageStart >= 0) {
+                long outage = time - outageStart;
+                minutes.addRecovery(time, outage);
+                hours.addRecovery(time, outage);
+                days.addRecovery(time, outage);
+                outageStart = -1;
+            }
+        }
+        lastTime = time;
+        lastOnline = online;
+    }
+
+    public Stats lastHour(long nowMillis) {
+        return query(minutes, 60, nowMillis);
+    }
+
+    public Stats last24Hours(long nowMillis) {
+        return query(hours, 24, nowMillis);
+    }
+
+    public Stats last7Days(long nowMillis) {
+        return query(days, 7, nowMillis);
+    }
+
+    public Stats last30Days(long nowMillis) {
+        return query(days, 30, nowMillis);
+    }
+
+    private Stats query(Ring ring, int buckets, long now) {
+        Stats stats = new Stats();
+        long windowStart = (Math.floorDiv(now, ring.unit) - buckets + 1) * ring.unit;
+        stats.windowMillis = now - windowStart;
+        ring.sum(now, buckets, stats);
+        if (observed && now > lastTime) {
+            long tail = now - Math.max(lastTime, windowStart);
+            if (tail > 0) {
+                stats.observedMillis += tail;
+                if (lastOnline) stats.onlineMillis += tail;
+            }
+        }
+        return stats;
+    }
+}
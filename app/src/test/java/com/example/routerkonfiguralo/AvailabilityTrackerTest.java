@@ -0,0 +1,46 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AvailabilityTrackerTest {
+    private static final long HOUR = UptimeRollup.HOUR;
+    private static final long DAY = UptimeRollup.DAY;
+
+    private static UptimeRollup.Stats stats(long windowMillis, long observedMillis, long onlineMillis) {
+        UptimeRollup.Stats stats = new UptimeRollup.Stats();
+        stats.windowMillis = windowMillis;
+        stats.observedMillis = observedMillis;
+        stats.onlineMillis = onlineMillis;
+        return stats;
+    }
+
+    @Test
+    public void labelsFullyObservedWindows() {
+        assertEquals("24h 50.0% \u00b7 7d 90.0% \u00b7 30d 99.0%", AvailabilityTracker.describeWindows(
+                stats(DAY, DAY, DAY / 2), stats(7 * DAY, 7 * DAY, 7 * DAY * 9 / 10),
+                stats(30 * DAY, 30 * DAY, 30 * DAY * 99 / 100)));
+    }
+
+    @Test
+    public void namesTheObservedSpanOfShorterHistories() {
+        // After a restart only the last 17 hours could be replayed
+        assertEquals("17h 0m 100.0%", AvailabilityTracker.describeWindows(
+                stats(DAY, 17 * HOUR, 17 * HOUR), stats(7 * DAY, 17 * HOUR, 17 * HOUR),
+                stats(30 * DAY, 17 * HOUR, 17 * HOUR)));
+        assertEquals("24h 100.0% \u00b7 3d 0h 75.0%", AvailabilityTracker.describeWindows(
+                stats(DAY, DAY, DAY), stats(7 * DAY, 3 * DAY, 3 * DAY * 3 / 4),
+                stats(30 * DAY, 3 * DAY, 3 * DAY * 3 / 4)));
+        assertEquals("24h n/a \u00b7 7d n/a \u00b7 30d n/a", AvailabilityTracker.describeWindows(
+                stats(DAY, 0, 0), stats(7 * DAY, 0, 0), stats(30 * DAY, 0, 0)));
+    }
+
+    @Test
+    public void formatsDurations() {
+        assertEquals("42s", AvailabilityTracker.formatDuration(42_000));
+        assertEquals("5m", AvailabilityTracker.formatDuration(5 * UptimeRollup.MINUTE));
+        assertEquals("26h 30m", AvailabilityTracker.formatDuration(26 * HOUR + 30 * UptimeRollup.MINUTE));
+        assertEquals("3d 4h", AvailabilityTracker.formatDuration(3 * DAY + 4 * HOUR));
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ConfigBackupStoreTest {
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("backups").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(directory);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) delete(child);
+        }
+        file.delete();
+    }
+
+    /** A router configuration whose line {@code changed} differs with {@code revision}. */
+    private static byte[] config(int lines, int changed, int revision) {
+        Random random = new Random(12);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            text.append("set firewall name WAN rule ").append(i).append(" destination address 10.")
+                    .append(random.nextInt(256)).append('.').append(random.nextInt(256))
+                    .append(i == changed ? ".0/" + revision : ".0/24").append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] text(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void storesChangesAsDeltas() throws IOException {
+        ConfigBackupStore store = new ConfigBackupStore(directory);
+        assertNull(store.getLatest());
+
+        byte[] first = config(1000, 10, 1);
+        byte[] second = config(1000, 500, 2);
+        ConfigBackupStore.Version v1 = store.add(first, 1000);
+        ConfigBackupStore.Version v2 = store.add(second, 2000);
+
+        assertEquals(1, v1.number);
+        assertEquals(ConfigBackupStore.Kind.FULL, v1.kind);
+        assertEquals(2, v2.number);
+        assertEquals(ConfigBackupStore.Kind.DELTA, v2.kind);
+        assertEquals(second.length, v2.size);
+        assertTrue("Delta of " + v2.storedSize + " bytes", v2.storedSize < v1.storedSize / 10);
+        assertSame(v2, store.getLatest());
+        assertArrayEquals(first, store.read(1));
+        assertArrayEquals(second, store.read(2));
+    }
+
+    @Test
+    public void identicalBackupAddsNothing() throws IOException {
+        ConfigBackupStore store = new ConfigBackupStore(directory);
+        ConfigBackupStore.Version v1 = store.add(config(200, 0, 1), 1000);
+        long stored = store.getStoredBytes();
+
+        assertSame(v1, store.add(config(200, 0, 1), 2000));
+        assertEquals(1, store.getVersions().size());
+        assertEquals(stored, store.getStoredBytes());
+    }
+
+    @Test
+    public void revertedChangeIsStoredAsDuplicate() throws IOException {
+        ConfigBackupStore store = new ConfigBackupStore(directory);
+        store.add(config(200, 0, 1), 1000);
+        store.add(config(200, 0, 2), 2000);
+        long packBefore = new File(directory, "pack").length();
+
+        ConfigBackupStore.Version reverted = store.add(config(200, 0, 1), 3000);
+
+        assertEquals(ConfigBackupStore.Kind.DUPLICATE, reverted.kind);
+        assertEquals(0, reverted.storedSize);
+        assertEquals(packBefore, new File(directory, "pack").length());
+        assertArrayEquals(config(200, 0, 1), store.read(3));
+        // Versions after a duplicate still read back
+        store.add(config(200, 1, 3), 4000);
+        assertArrayEquals(config(200, 1, 3), store.read(4));
+    }
+
+    @Test
+    public void storageGrowsWithChangeNotBackupCount() throws IOException {
+        ConfigBackupStore store = new ConfigBackupStore(directory);
+        byte[] first = config(2000, 0, 0);
+        store.add(first, 0);
+        long afterFirst = store.getStoredBytes();
+
+        // A daily backup for a year where one line changes every tenth day
+        int revision = 0;
+        for (int day = 1; day <= 365; day++) {
+            if (day % 10 == 0) revision++;
+            store.add(config(2000, revision % 50, revision), day * 86_400_000L);
+        }
+
+        assertEquals(37, store.getVersions().size());
+        long growth = store.getStoredBytes() - afterFirst;
+        // Roughly one full copy per MAX_CHAIN changes plus small deltas, far below 36 copies
+        assertTrue("Grew by " + growth + " bytes", growth < 5 * afterFirst);
+        assertArrayEquals(config(2000, revision % 50, revision), store.read(37));
+    }
+
+    @Test
+    public void chainsRestartWithFullCopy() throws IOException {
+        ConfigBackupStore store = new ConfigBackupStore(directory);
+        for (int i = 0; i <= ConfigBackupStore.MAX_CHAIN + 1; i++) {
+            store.add(config(300, i, i + 1), i);
+        }
+
+        List<ConfigBackupStore.Version> versions = store.getVersions();
+        assertEquals(ConfigBackupStore.Kind.FULL, versions.get(0).kind);
+        for (int i = 1; i <= ConfigBackupStore.MAX_CHAIN; i++) {
+            assertEquals(ConfigBackupStore.Kind.DELTA, versions.get(i).kind);
+        }
+        assertEquals(ConfigBackupStore.Kind.FULL, versions.get(ConfigBackupStore.MAX_CHAIN + 1).kind);
+
+        // Read every version from a fresh store, so nothing comes from the cache
+        ConfigBackupStore reopened = new ConfigBackupStore(directory);
+        for (int i = versions.size(); i >= 1; i--) {
+            assertArrayEquals(config(300, i - 1, i), reopened.read(i));
+        }
+    }
+
+    @Test
+    public void reopensAfterTornIndexLine() throws IOException {
+        ConfigBackupStore store = new ConfigBackupStore(directory);
+        store.add(config(100, 0, 1), 1000);
+        store.add(config(100, 0, 2), 2000);
+        File index = new File(directory, "index");
+        long validLength = index.length();
+        try (FileOutputStream out = new FileOutputStream(index, true)) {
+            out.write(text("3000\tabc\tDELTA\t12"));
+        }
+
+        ConfigBackupStore reopened = new ConfigBackupStore(directory);
+
+        assertEquals(2, reopened.getVersions().size());
+        assertEquals(validLength, index.length());
+        assertArrayEquals(config(100, 0, 2), reopened.read(2));
+        ConfigBackupStore.Version v3 = reopened.add(config(100, 0, 3), 3000);
+        assertEquals(3, v3.number);
+        assertEquals(3, new ConfigBackupStore(directory).getVersions().size());
+        assertArrayEquals(config(100, 0, 3), new ConfigBackupStore(directory).read(3));
+    }
+
+    @Test
+    public void dropsIndexLinesWithoutPackBytes() throws IOException {
+        ConfigBackupStore store = new ConfigBackupStore(directory);
+        store.add(config(100, 0, 1), 1000);
+        store.add(config(100, 0, 2), 2000);
+        File pack = new File(directory, "pack");
+        // The pack lost the second record, as if it was never synced
+        try (RandomAccessFile file = new RandomAccessFile(pack, "rw")) {
+            file.setLength(store.getVersions().get(0).storedSize);
+        }
+
+        ConfigBackupStore reopened = new ConfigBackupStore(directory);
+
+        assertEquals(1, reopened.getVersions().size());
+        assertArrayEquals(config(100, 0, 1), reopened.read(1));
+    }
+
+    @Test
+    public void diffsVersions() throws IOException {
+        ConfigBackupStore store = new ConfigBackupStore(directory);
+        store.add(text("a\nb\nc\n"), 1000);
+        store.add(text("a\nB\nc\n"), 2000);
+
+        assertEquals(Arrays.asList("@@ -1,3 +1,3 @@", " a", "-b", "+B", " c"), store.diff(1, 2));
+        assertTrue(store.diff(2, 2).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMissingVersion() throws IOException {
+        new ConfigBackupStore(directory).read(1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ConfigDeltaTest {
+    private static byte[] config(int lines, int seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            text.append("set interfaces ethernet eth").append(i % 8).append(" address 10.")
+                    .append(random.nextInt(256)).append('.').append(random.nextInt(256)).append(".1/24\n");
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] roundTrip(byte[] base, byte[] target) throws IOException {
+        byte[] result = ConfigDelta.apply(base, ConfigDelta.create(base, target));
+        assertArrayEquals(target, result);
+        return result;
+    }
+
+    @Test
+    public void roundTripsEdits() throws IOException {
+        byte[] base = config(500, 1);
+        String text = new String(base, StandardCharsets.UTF_8);
+
+        roundTrip(base, base);
+        roundTrip(base, (text.substring(0, 5000) + "set system host-name lab\n" + text.substring(5000))
+                .getBytes(StandardCharsets.UTF_8));
+        roundTrip(base, (text.substring(0, 3000) + text.substring(4000)).getBytes(StandardCharsets.UTF_8));
+        roundTrip(base, ("# header\n" + text + "# footer\n").getBytes(StandardCharsets.UTF_8));
+        roundTrip(base, config(500, 2));
+    }
+
+    @Test
+    public void roundTripsEdgeCases() throws IOException {
+        byte[] base = config(50, 3);
+        roundTrip(new byte[0], base);
+        roundTrip(base, new byte[0]);
+        roundTrip(new byte[0], new byte[0]);
+        roundTrip("short".getBytes(StandardCharsets.UTF_8), base);
+        roundTrip(base, "short".getBytes(StandardCharsets.UTF_8));
+        // Blocks that repeat, so the same hash points at several base offsets
+        byte[] repeated = new byte[4096];
+        Arrays.fill(repeated, (byte) 'x');
+        byte[] changed = repeated.clone();
+        changed[2000] = 'y';
+        roundTrip(repeated, changed);
+    }
+
+    @Test
+    public void roundTripsRandomMutations() throws IOException {
+        Random random = new Random(4);
+        for (int i = 0; i < 200; i++) {
+            byte[] base = new byte[random.nextInt(3000)];
+            random.nextBytes(base);
+            byte[] target = base.clone();
+            for (int edit = random.nextInt(5); edit > 0 && target.length > 0; edit--) {
+                int at = random.nextInt(target.length);
+                int length = Math.min(target.length - at, random.nextInt(64));
+                byte[] next = new byte[target.length - length + random.nextInt(64)];
+                System.arraycopy(target, 0, next, 0, at);
+                int inserted = next.length - (target.length - length);
+                for (int j = 0; j < inserted; j++) next[at + j] = (byte) random.nextInt();
+                System.arraycopy(target, at + length, next, at + inserted, target.length - at - length);
+                target = next;
+            }
+            roundTrip(base, target);
+        }
+    }
+
+    @Test
+    public void smallEditsGiveSmallDeltas() {
+        byte[] base = config(2000, 5);
+        String text = new String(base, StandardCharsets.UTF_8);
+        byte[] target = (text.substring(0, 40000) + "set firewall name WAN rule 10 action drop\n"
+                + text.substring(40000)).getBytes(StandardCharsets.UTF_8);
+
+        byte[] delta = ConfigDelta.create(base, target);
+
+        assertTrue("Delta of " + delta.length + " bytes", delta.length < 100);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsCopyOutsideBase() throws IOException {
+        byte[] base = config(10, 6);
+        byte[] delta = ConfigDelta.create(base, base);
+        // The same delta against a shorter base copies past its end
+        ConfigDelta.apply(Arrays.copyOf(base, base.length / 2), delta);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedDelta() throws IOException {
+        byte[] base = config(10, 7);
+        byte[] delta = ConfigDelta.create(new byte[0], base);
+        ConfigDelta.apply(new byte[0], Arrays.copyOf(delta, delta.length - 1));
+    }
+}
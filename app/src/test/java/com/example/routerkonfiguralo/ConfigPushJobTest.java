@@ -0,0 +1,278 @@
+package com.example.routerkonfiguralo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs push jobs against a stub router: a local HTTP server whose behaviour per router is keyed by
+ * the Basic auth username.
+ */
+public class ConfigPushJobTest {
+    private static final Map<String, String> SETTINGS = new LinkedHashMap<>();
+
+    static {
+        SETTINGS.put("dns1", "1.1.1.1");
+        SETTINGS.put("dns2", "9.9.9.9");
+    }
+
+    private HttpServer server;
+    private String address;
+    private final Map<String, AtomicInteger> requestsByUser = new ConcurrentHashMap<>();
+    private final Map<String, String> bodiesByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(ConfigPushJob.CONFIG_PATH, this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        address = "127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Username prefixes select the stub's behaviour: "ok" accepts, "slow" accepts after a delay,
+     * "flaky" answers 503 twice before accepting, "down" always answers 503, "hang" never answers
+     * in time, and a wrong password is answered with 401.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            String[] credentials = decodeBasicAuth(exchange.getRequestHeaders().getFirst("Authorization"));
+            String user = credentials[0];
+            int request = requestsByUser.computeIfAbsent(user, k -> new AtomicInteger()).incrementAndGet();
+            bodiesByUser.put(user, readBody(exchange.getRequestBody()));
+
+            int code;
+            if (!"secret".equals(credentials[1])) {
+                code = 401;
+            } else if (user.startsWith("slow")) {
+                sleep(100);
+                code = 200;
+            } else if (user.startsWith("flaky")) {
+                code = request <= 2 ? 503 : 200;
+            } else if (user.startsWith("down")) {
+                code = 503;
+            } else if (user.startsWith("hang")) {
+                sleep(1000);
+                code = 200;
+            } else {
+                code = 200;
+            }
+            exchange.sendResponseHeaders(code, -1);
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    @Test
+    public void pushesSettingsWithCredentialsToEveryRouter() throws InterruptedException {
+        List<ConfigPushJob.PushResult> results = run(new ConfigPushJob(4, 2000, 1, 0),
+                target("ok-1", "secret"), target("ok-2", "secret"));
+
+        assertEquals(2, results.size());
+        for (ConfigPushJob.PushResult result : results) {
+            assertEquals(ConfigPushJob.Status.SUCCESS, result.status);
+            assertEquals(200, result.httpCode);
+            assertEquals(1, result.attempts);
+        }
+        assertEquals("ok-1", results.get(0).target.routerId);
+        assertEquals("dns1=1.1.1.1&dns2=9.9.9.9", bodiesByUser.get("ok-2"));
+    }
+
+    @Test
+    public void neverExceedsConcurrencyCap() throws InterruptedException {
+        List<ConfigPushJob.Target> targets = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            targets.add(target("slow-" + i, "secret"));
+        }
+        List<ConfigPushJob.PushResult> results = run(new ConfigPushJob(3, 2000, 1, 0),
+                targets.toArray(new ConfigPushJob.Target[0]));
+
+        for (ConfigPushJob.PushResult result : results) {
+            assertEquals(ConfigPushJob.Status.SUCCESS, result.status);
+        }
+        assertTrue("max in flight " + maxInFlight.get(), maxInFlight.get() <= 3);
+        assertEquals(3, maxInFlight.get());
+    }
+
+    @Test
+    public void retriesServerErrorsWithBackoff() throws InterruptedException {
+        List<ConfigPushJob.PushResult> results = run(new ConfigPushJob(2, 2000, 3, 10),
+                target("flaky", "secret"), target("down", "secret"));
+
+        assertEquals(ConfigPushJob.Status.SUCCESS, results.get(0).status);
+        assertEquals(3, results.get(0).attempts);
+        assertEquals(ConfigPushJob.Status.REJECTED, results.get(1).status);
+        assertEquals(503, results.get(1).httpCode);
+        assertEquals(3, results.get(1).attempts);
+        assertEquals(3, requestsByUser.get("down").get());
+    }
+
+    @Test
+    public void doesNotRetryRejectedCredentials() throws InterruptedException {
+        List<ConfigPushJob.PushResult> results = run(new ConfigPushJob(2, 2000, 3, 10),
+                target("ok", "wrong"));
+
+        assertEquals(ConfigPushJob.Status.AUTH_FAILED, results.get(0).status);
+        assertEquals(401, results.get(0).httpCode);
+        assertEquals(1, requestsByUser.get("ok").get());
+    }
+
+    @Test
+    public void timesOutUnresponsiveRouters() throws InterruptedException {
+        List<ConfigPushJob.PushResult> results = run(new ConfigPushJob(2, 200, 2, 10),
+                target("hang", "secret"), target("ok", "secret"));
+
+        assertEquals(ConfigPushJob.Status.TIMED_OUT, results.get(0).status);
+        assertEquals(2, results.get(0).attempts);
+        assertEquals(ConfigPushJob.Status.SUCCESS, results.get(1).status);
+    }
+
+    @Test
+    public void reportsUnreachableAndInvalidAddresses() throws InterruptedException {
+        server.stop(0);
+        List<ConfigPushJob.PushResult> results = run(new ConfigPushJob(2, 500, 1, 0),
+                target("ok", "secret"),
+                new ConfigPushJob.Target("bad", "bad", "", "ok", "secret"));
+
+        assertEquals(ConfigPushJob.Status.UNREACHABLE, results.get(0).status);
+        assertEquals(ConfigPushJob.Status.REJECTED, results.get(1).status);
+    }
+
+    @Test
+    public void cancelReportsWaitingRetriesAsCancelled() throws InterruptedException {
+        ConfigPushJob job = new ConfigPushJob(1, 2000, 5, 60_000);
+        CountDownLatch done = new CountDownLatch(1);
+        List<ConfigPushJob.PushResult> results = Collections.synchronizedList(new ArrayList<>());
+        job.start(Collections.singletonList(target("down", "secret")), SETTINGS, new ConfigPushJob.ProgressListener() {
+            @Override
+            public void onResult(ConfigPushJob.PushResult result, int completed, int total) {
+            }
+
+            @Override
+            public void onComplete(List<ConfigPushJob.PushResult> all) {
+                results.addAll(all);
+                done.countDown();
+            }
+        });
+
+        // The first 503 schedules a retry up to a minute out; cancelling must not wait for it
+        while (requestsByUser.get("down") == null) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        job.cancel();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(ConfigPushJob.Status.CANCELLED, results.get(0).status);
+        assertEquals(1, requestsByUser.get("down").get());
+    }
+
+    @Test
+    public void buildsConfigUrlFromStoredAddress() throws IOException {
+        assertEquals("http://192.168.1.1/config", ConfigPushJob.configUrl("192.168.1.1").toString());
+        assertEquals("http://192.168.1.1:8080/config", ConfigPushJob.configUrl(" 192.168.1.1:8080 ").toString());
+        assertEquals("http://[fe80::1]:80/config", ConfigPushJob.configUrl("fe80::1").toString());
+        assertEquals("https://router.lan/config", ConfigPushJob.configUrl("https://router.lan/").toString());
+    }
+
+    @Test
+    public void encodesBasicAuthLikeTheJdk() {
+        byte[][] samples = {
+                "".getBytes(StandardCharsets.UTF_8),
+                "a".getBytes(StandardCharsets.UTF_8),
+                "ab".getBytes(StandardCharsets.UTF_8),
+                "admin:p\u00e4ss".getBytes(StandardCharsets.UTF_8),
+                {(byte) 0xff, (byte) 0xfe, 0x00, 0x7f}
+        };
+        for (byte[] sample : samples) {
+            assertEquals(java.util.Base64.getEncoder().encodeToString(sample), ConfigPushJob.base64(sample));
+        }
+    }
+
+    private ConfigPushJob.Target target(String user, String password) {
+        return new ConfigPushJob.Target(user, "Router " + user, address, user, password);
+    }
+
+    private static List<ConfigPushJob.PushResult> run(ConfigPushJob job, ConfigPushJob.Target... targets)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger progress = new AtomicInteger();
+        List<ConfigPushJob.PushResult> results = Collections.synchronizedList(new ArrayList<>());
+        List<ConfigPushJob.Target> targetList = new ArrayList<>();
+        Collections.addAll(targetList, targets);
+        job.start(targetList, SETTINGS, new ConfigPushJob.ProgressListener() {
+            @Override
+            public void onResult(ConfigPushJob.PushResult result, int completed, int total) {
+                progress.incrementAndGet();
+                assertEquals(targets.length, total);
+            }
+
+            @Override
+            public void onComplete(List<ConfigPushJob.PushResult> all) {
+                results.addAll(all);
+                done.countDown();
+            }
+        });
+        assertTrue("push did not finish", done.await(10, TimeUnit.SECONDS));
+        assertEquals(targets.length, progress.get());
+        return results;
+    }
+
+    private static String[] decodeBasicAuth(String header) {
+        String decoded = new String(java.util.Base64.getDecoder().decode(header.substring("Basic ".length())),
+                StandardCharsets.UTF_8);
+        int colon = decoded.indexOf(':');
+        return new String[]{decoded.substring(0, colon), decoded.substring(colon + 1)};
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.*;
+
+public class CredentialCipherTest {
+    private static CredentialCipher cipher(int seed) {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) seed);
+        return new CredentialCipher(new SecretKeySpec(key, "AES"));
+    }
+
+    @Test
+    public void roundTrips() throws GeneralSecurityException {
+        CredentialCipher cipher = cipher(1);
+
+        assertEquals("s3cr\u00e9t p\u00e4ss", cipher.decrypt(cipher.encrypt("s3cr\u00e9t p\u00e4ss")));
+        assertEquals("", cipher.decrypt(cipher.encrypt("")));
+        assertNull(cipher.encrypt(null));
+        assertNull(cipher.decrypt(null));
+    }
+
+    @Test
+    public void sealsEachValueWithItsOwnIv() throws GeneralSecurityException {
+        CredentialCipher cipher = cipher(1);
+
+        byte[] first = cipher.encrypt("admin");
+        byte[] second = cipher.encrypt("admin");
+
+        assertFalse(Arrays.equals(first, second));
+        // Nothing of the plaintext is stored as is
+        assertFalse(new String(first, StandardCharsets.ISO_8859_1).contains("admin"));
+    }
+
+    @Test(expected = GeneralSecurityException.class)
+    public void rejectsAlteredValues() throws GeneralSecurityException {
+        CredentialCipher cipher = cipher(1);
+        byte[] sealed = cipher.encrypt("password");
+        sealed[sealed.length - 1] ^= 1;
+        cipher.decrypt(sealed);
+    }
+
+    @Test(expected = GeneralSecurityException.class)
+    public void rejectsValuesOfAnotherKey() throws GeneralSecurityException {
+        cipher(2).decrypt(cipher(1).encrypt("password"));
+    }
+
+    @Test(expected = GeneralSecurityException.class)
+    public void rejectsTruncatedValues() throws GeneralSecurityException {
+        cipher(1).decrypt(new byte[5]);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CsvRecordReaderTest {
+    private static List<List<String>> readAll(String csv) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(csv));
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        assertEquals(records.size(), reader.getRecordNumber());
+        return records;
+    }
+
+    @Test
+    public void readsPlainRecords() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("name", "ipAddress"), Arrays.asList("Office", "10.0.0.1")),
+                readAll("name,ipAddress\nOffice,10.0.0.1\n"));
+        // The last line needs no line break
+        assertEquals(Collections.singletonList(Arrays.asList("a", "b")), readAll("a,b"));
+        assertEquals(Collections.singletonList(Arrays.asList("", "", "")), readAll(",,\n"));
+        assertTrue(readAll("").isEmpty());
+    }
+
+    @Test
+    public void readsCrlfLineEndings() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d")), readAll("a,b\r\nc,d\r\n"));
+        // A lone CR ends a line too
+        assertEquals(Arrays.asList(Collections.singletonList("a"), Collections.singletonList("b")), readAll("a\rb"));
+    }
+
+    @Test
+    public void keepsLineBreaksInQuotedFields() throws IOException {
+        List<List<String>> records = readAll("name,notes\r\n\"Office\",\"first line\r\nsecond line\nthird\"\r\nLab,x\r\n");
+
+        assertEquals(3, records.size());
+        assertEquals(Arrays.asList("Office", "first line\r\nsecond line\nthird"), records.get(1));
+        assertEquals(Arrays.asList("Lab", "x"), records.get(2));
+    }
+
+    @Test
+    public void readsQuotesAndCommasInQuotedFields() throws IOException {
+        assertEquals(Collections.singletonList(Arrays.asList("say \"hi\"", "a,b", "")),
+                readAll("\"say \"\"hi\"\"\",\"a,b\",\"\"\n"));
+        // A quote inside an unquoted field is data
+        assertEquals(Collections.singletonList(Arrays.asList("5\" rack", "x")), readAll("5\" rack,x\n"));
+    }
+
+    @Test
+    public void skipsBlankLines() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d")),
+                readAll("\n\r\na,b\n\n\r\n\r\nc,d\n\n"));
+        assertTrue(readAll("\n\r\n\r\n").isEmpty());
+        // A quoted empty field is a record, not a blank line
+        assertEquals(Collections.singletonList(Collections.singletonList("")), readAll("\"\"\n"));
+    }
+
+    @Test
+    public void skipsLeadingByteOrderMark() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("name", "model"), Arrays.asList("Lab", "hEX S")),
+                readAll("\uFEFFname,model\r\nLab,hEX S\r\n"));
+        assertEquals(Collections.singletonList(Collections.singletonList("quoted")), readAll("\uFEFF\"quoted\""));
+        // Only at the very start
+        assertEquals(Collections.singletonList(Arrays.asList("a", "\uFEFFb")), readAll("a,\uFEFFb"));
+    }
+
+    @Test
+    public void readsRecordsAcrossBufferBoundaries() throws IOException {
+        StringBuilder longField = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            longField.append((char) ('a' + i % 26));
+        }
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            csv.append("router ").append(i).append(",\"line\r\nbreak\"\r\n");
+        }
+        csv.append('"').append(longField).append("\"\r\n");
+
+        List<List<String>> records = readAll(csv.toString());
+
+        assertEquals(1001, records.size());
+        assertEquals(Arrays.asList("router 999", "line\r\nbreak"), records.get(999));
+        assertEquals(longField.toString(), records.get(1000).get(0));
+    }
+
+    @Test
+    public void writtenRecordsReadBack() throws IOException {
+        String[][] records = {
+                {"name", "ipAddress", "password"},
+                {"Office, 2nd floor", "10.0.0.1", "p\"w,d"},
+                {"Multi\nline", "", null},
+                {"CR\r", "x", "plain"}
+        };
+        StringBuilder csv = new StringBuilder();
+        for (String[] record : records) {
+            CsvRecordReader.writeRecord(csv, record);
+        }
+
+        List<List<String>> read = readAll(csv.toString());
+
+        assertEquals(records.length, read.size());
+        assertEquals(Arrays.asList("Office, 2nd floor", "10.0.0.1", "p\"w,d"), read.get(1));
+        assertEquals(Arrays.asList("Multi\nline", "", ""), read.get(2));
+        assertEquals(Arrays.asList("CR\r", "x", "plain"), read.get(3));
+        assertTrue(csv.toString().endsWith("\r\n"));
+    }
+}
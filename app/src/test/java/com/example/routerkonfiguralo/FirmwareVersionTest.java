@@ -0,0 +1,110 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FirmwareVersionTest {
+    private static final long RC = FirmwareVersion.RELEASE_CANDIDATE;
+
+    private static int compare(String a, String b) {
+        return Integer.signum(FirmwareVersion.compareKeys(FirmwareVersion.parse(a), FirmwareVersion.parse(b)));
+    }
+
+    @Test
+    public void parsesNumericComponents() {
+        assertArrayEquals(new long[]{7, 14, 2}, FirmwareVersion.parse("v7.14.2"));
+        assertArrayEquals(new long[]{1, 0, 3, 230512}, FirmwareVersion.parse("1.0.3 Build 230512"));
+        assertArrayEquals(new long[]{3, 0, 0, 4, 386, 51665}, FirmwareVersion.parse("3.0.0.4.386_51665"));
+        assertArrayEquals(new long[]{Long.MAX_VALUE}, FirmwareVersion.parse("99999999999999999999999"));
+        assertNull(FirmwareVersion.parse("unknown"));
+        assertNull(FirmwareVersion.parse(""));
+        assertNull(FirmwareVersion.parse(null));
+    }
+
+    @Test
+    public void ignoresDigitsInModelNames() {
+        assertArrayEquals(new long[]{2, 1}, FirmwareVersion.parse("AC1200 v2.1"));
+        assertArrayEquals(new long[]{1, 0, 9}, FirmwareVersion.parse("R7000-V1.0.9"));
+        assertNull(FirmwareVersion.parse("AX3000"));
+    }
+
+    @Test
+    public void parsesPreReleases() {
+        assertArrayEquals(new long[]{7, 14, 2, RC, 1}, FirmwareVersion.parse("7.14.2-rc1"));
+        assertArrayEquals(new long[]{7, 14, 2, RC, 1}, FirmwareVersion.parse("7.14.2-RC.1"));
+        assertArrayEquals(new long[]{2, 0, FirmwareVersion.BETA}, FirmwareVersion.parse("2.0 beta"));
+        assertArrayEquals(new long[]{2, 0, FirmwareVersion.ALPHA, 3}, FirmwareVersion.parse("2.0-alpha3"));
+        // Only a version can have a pre-release
+        assertArrayEquals(new long[]{4}, FirmwareVersion.parse("beta 4"));
+    }
+
+    @Test
+    public void ordersByVersionNumber() {
+        assertEquals(-1, compare("9.1", "10.2"));
+        assertEquals(-1, compare("1.2", "1.2.1"));
+        assertEquals(0, compare("v1.2", "1.2"));
+        assertEquals(1, compare("2.0", "1.99.99"));
+        assertEquals(-1, compare("1.0", "unknown"));
+        assertEquals(1, compare(null, "1.0"));
+    }
+
+    @Test
+    public void ordersPreReleasesBeforeTheRelease() {
+        assertEquals(-1, compare("7.14.2-rc1", "7.14.2"));
+        assertEquals(-1, compare("7.14.2-rc1", "7.14.2-rc2"));
+        assertEquals(-1, compare("7.14.2-rc", "7.14.2-rc1"));
+        assertEquals(-1, compare("7.14.2-alpha", "7.14.2-beta"));
+        assertEquals(-1, compare("7.14.2-beta2", "7.14.2-rc1"));
+        assertEquals(1, compare("7.14.2-rc1", "7.14.1"));
+        assertEquals(-1, compare("7.14.2", "7.14.2.1"));
+    }
+
+    @Test
+    public void bytesSortLikeKeys() {
+        String[] versions = {"7.14.2-rc1", "7.14.2", "7.14.2.1", "7.14.2-alpha", "7.14", "0.1",
+                "10.0", "1.0.3 Build 230512", "AC1200 v2.1", "2.0-beta", "99999999999999999999"};
+        Random random = new Random(3);
+        List<long[]> keys = new ArrayList<>();
+        for (String version : versions) {
+            keys.add(FirmwareVersion.parse(version));
+        }
+        for (int i = 0; i < 200; i++) {
+            long[] key = new long[1 + random.nextInt(FirmwareVersion.MAX_COMPONENTS)];
+            for (int c = 0; c < key.length; c++) {
+                key[c] = c > 0 && random.nextInt(5) == 0 ? RC - random.nextInt(3) : random.nextInt(4);
+            }
+            keys.add(key);
+        }
+
+        for (long[] a : keys) {
+            for (long[] b : keys) {
+                int byKey = Integer.signum(FirmwareVersion.compareKeys(a, b));
+                int byBytes = Integer.signum(compareUnsigned(FirmwareVersion.toBytes(a), FirmwareVersion.toBytes(b)));
+                assertEquals(Arrays.toString(a) + " vs " + Arrays.toString(b), byKey, byBytes);
+            }
+        }
+        assertNull(FirmwareVersion.toBytes(null));
+    }
+
+    @Test
+    public void sortsAList() {
+        List<String> versions = new ArrayList<>(Arrays.asList("7.14.2", "7.14.10", "7.14.2-rc1", "7.9", "7.14.2-beta"));
+        Collections.sort(versions, (a, b) -> compare(a, b));
+        assertEquals(Arrays.asList("7.9", "7.14.2-beta", "7.14.2-rc1", "7.14.2", "7.14.10"), versions);
+    }
+
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            int byByte = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (byByte != 0) return byByte;
+        }
+        return Integer.compare(a.length, b.length);
+    }
+}
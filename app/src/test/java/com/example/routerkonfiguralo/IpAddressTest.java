@@ -0,0 +1,157 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IpAddressTest {
+    @Test
+    public void parsesIpv4() {
+        assertEquals(0xC0A80101L, IpAddress.parseIpv4("192.168.1.1"));
+        assertEquals(0L, IpAddress.parseIpv4("0.0.0.0"));
+        assertEquals(0xFFFFFFFFL, IpAddress.parseIpv4("255.255.255.255"));
+        assertEquals(0x0A000001L, IpAddress.parseIpv4("10.0.0.1"));
+
+        IpAddress address = IpAddress.parse(" 10.20.3.4 ");
+        assertTrue(address.isIpv4());
+        assertEquals(0x0A140304, address.toIpv4());
+        assertEquals("10.20.3.4", address.toString());
+    }
+
+    @Test
+    public void rejectsMalformedIpv4() {
+        String[] invalid = {"", "1.2.3", "1.2.3.4.5", "256.1.1.1", "1..2.3", ".1.2.3", "1.2.3.4.",
+                "1.2.3.a", "1.2.3.4 ", "-1.2.3.4", "1000.1.1.1"};
+        for (String text : invalid) {
+            assertEquals(text, -1, IpAddress.parseIpv4(text));
+        }
+        assertEquals(-1, IpAddress.parseIpv4(null));
+    }
+
+    @Test
+    public void rejectsLeadingZeros() {
+        assertEquals(-1, IpAddress.parseIpv4("010.001.1.1"));
+        assertEquals(-1, IpAddress.parseIpv4("10.0.0.01"));
+        assertEquals(-1, IpAddress.parseIpv4("00.0.0.0"));
+        assertNull(IpAddress.parse("192.168.001.1"));
+        assertNull(IpAddress.parse("::ffff:10.0.0.01"));
+    }
+
+    @Test
+    public void parsesIpv6() {
+        IpAddress full = IpAddress.parse("2001:0db8:0000:0000:0000:0000:0000:0001");
+        assertEquals(full, IpAddress.parse("2001:db8::1"));
+        assertEquals(full, IpAddress.parse("2001:DB8:0:0:0:0:0:1"));
+        assertFalse(full.isIpv4());
+        assertEquals("2001:db8:0:0:0:0:0:1", full.toString());
+
+        assertEquals(new IpAddress(0, 0), IpAddress.parse("::"));
+        assertEquals(new IpAddress(0, 1), IpAddress.parse("::1"));
+        assertEquals(new IpAddress(0xfe80L << 48, 0), IpAddress.parse("fe80::"));
+        // The embedded form of an IPv4 address is the same address
+        assertEquals(IpAddress.parse("10.0.0.1"), IpAddress.parse("::ffff:10.0.0.1"));
+    }
+
+    @Test
+    public void rejectsMalformedIpv6() {
+        String[] invalid = {":", ":::", "1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9", "1::2::3", ":1::2", "1::2:",
+                "12345::1", "g::1", "1:2:3:4:5:6:7:8::", "::1.2.3.4:5", "1:2:3:4:5:6:7:1.2.3.4"};
+        for (String text : invalid) {
+            assertNull(text, IpAddress.parse(text));
+        }
+        assertNull(IpAddress.parse(null));
+    }
+
+    @Test
+    public void parsesHostForms() {
+        IpAddress ipv4 = IpAddress.parse("192.168.1.1");
+        assertEquals(ipv4, IpAddress.parseHost("192.168.1.1:8080"));
+        assertEquals(ipv4, IpAddress.parseHost("192.168.1.1"));
+        assertNull(IpAddress.parseHost("192.168.1.1:0"));
+        assertNull(IpAddress.parseHost("192.168.1.1:65536"));
+        assertNull(IpAddress.parseHost("192.168.1.1:http"));
+
+        IpAddress ipv6 = IpAddress.parse("2001:db8::1");
+        assertEquals(ipv6, IpAddress.parseHost("[2001:db8::1]:443"));
+        assertEquals(ipv6, IpAddress.parseHost("[2001:db8::1]"));
+        assertEquals(ipv6, IpAddress.parseHost("2001:db8::1"));
+        assertEquals(IpAddress.parse("fe80::1"), IpAddress.parseHost("fe80::1%wlan0"));
+        assertNull(IpAddress.parseHost("[2001:db8::1"));
+        assertNull(IpAddress.parseHost("router.local"));
+    }
+
+    @Test
+    public void parsesPorts() {
+        assertEquals(8080, IpAddress.parsePort("192.168.1.1:8080", 80));
+        assertEquals(80, IpAddress.parsePort("192.168.1.1", 80));
+        assertEquals(443, IpAddress.parsePort(" [2001:db8::1]:443 ", 80));
+        assertEquals(80, IpAddress.parsePort("[2001:db8::1]", 80));
+        assertEquals(80, IpAddress.parsePort("2001:db8::1", 80));
+    }
+
+    @Test
+    public void ordersNumerically() {
+        assertTrue(IpAddress.parse("10.0.0.2").compareTo(IpAddress.parse("10.0.0.10")) < 0);
+        assertTrue(IpAddress.parse("9.255.255.255").compareTo(IpAddress.parse("10.0.0.0")) < 0);
+        // Unsigned, so the top half of the space sorts last
+        assertTrue(IpAddress.parse("127.0.0.1").compareTo(IpAddress.parse("200.0.0.1")) < 0);
+        assertTrue(IpAddress.parse("::1").compareTo(IpAddress.parse("ffff::")) < 0);
+        // IPv4-mapped addresses sit between ::ffff:0:0 and ::1:0:0:0
+        assertTrue(IpAddress.parse("::fffe:0:0").compareTo(IpAddress.parse("0.0.0.0")) < 0);
+        assertTrue(IpAddress.parse("255.255.255.255").compareTo(IpAddress.parse("::1:0:0:0")) < 0);
+    }
+
+    @Test
+    public void masksAndFills() {
+        IpAddress address = IpAddress.parse("2001:db8:abcd:1234:5678:9abc:def0:1234");
+
+        assertEquals(IpAddress.parse("2001:db8::"), address.mask(32));
+        assertEquals(IpAddress.parse("2001:db8:ffff:ffff:ffff:ffff:ffff:ffff"), address.fill(32));
+        assertEquals(IpAddress.parse("2001:db8:abcd:1234::"), address.mask(64));
+        assertEquals(IpAddress.parse("2001:db8:abcd:1234:ffff:ffff:ffff:ffff"), address.fill(64));
+        assertEquals(IpAddress.parse("2001:db8:abcd:1234:5600::"), address.mask(72));
+        assertEquals(IpAddress.parse("2001:db8:abcd:1234:56ff:ffff:ffff:ffff"), address.fill(72));
+        assertSame(address, address.mask(128));
+        assertSame(address, address.fill(128));
+        assertEquals(IpAddress.parse("::"), address.mask(0));
+        assertEquals(IpAddress.parse("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff"), address.fill(0));
+
+        IpAddress ipv4 = IpAddress.parse("10.20.3.4");
+        assertEquals(IpAddress.parse("10.20.0.0"), ipv4.mask(IpAddress.IPV4_PREFIX_OFFSET + 16));
+        assertEquals(IpAddress.parse("10.20.255.255"), ipv4.fill(IpAddress.IPV4_PREFIX_OFFSET + 16));
+    }
+
+    @Test
+    public void bytesRoundTripInOrder() {
+        Random random = new Random(11);
+        IpAddress previous = null;
+        byte[] previousBytes = null;
+        for (int i = 0; i < 1000; i++) {
+            IpAddress address = random.nextBoolean()
+                    ? IpAddress.ofIpv4(random.nextInt())
+                    : new IpAddress(random.nextLong(), random.nextLong());
+            byte[] bytes = address.toBytes();
+
+            assertEquals(16, bytes.length);
+            assertEquals(address, IpAddress.fromBytes(bytes));
+            if (previous != null) {
+                assertEquals(Integer.signum(previous.compareTo(address)),
+                        Integer.signum(compareUnsigned(previousBytes, bytes)));
+            }
+            previous = address;
+            previousBytes = bytes;
+        }
+        assertNull(IpAddress.fromBytes(new byte[4]));
+        assertNull(IpAddress.fromBytes(null));
+    }
+
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int byByte = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (byByte != 0) return byByte;
+        }
+        return 0;
+    }
+}
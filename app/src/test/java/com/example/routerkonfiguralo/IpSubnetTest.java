@@ -0,0 +1,64 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IpSubnetTest {
+    @Test
+    public void parsesIpv4Ranges() {
+        IpSubnet subnet = IpSubnet.parse("10.20.3.4/16");
+
+        assertEquals(IpAddress.parse("10.20.0.0"), subnet.getFirst());
+        assertEquals(IpAddress.parse("10.20.255.255"), subnet.getLast());
+        // Host bits are ignored
+        assertEquals(IpSubnet.parse("10.20.0.0/16"), subnet);
+        assertEquals("10.20.0.0/16", subnet.toString());
+
+        IpSubnet host = IpSubnet.parse("10.0.0.1/32");
+        assertEquals(host.getFirst(), host.getLast());
+        IpSubnet all = IpSubnet.parse("0.0.0.0/0");
+        assertEquals(IpAddress.parse("0.0.0.0"), all.getFirst());
+        assertEquals(IpAddress.parse("255.255.255.255"), all.getLast());
+    }
+
+    @Test
+    public void parsesIpv6Ranges() {
+        IpSubnet subnet = IpSubnet.parse("2001:db8::1/32");
+
+        assertEquals(IpAddress.parse("2001:db8::"), subnet.getFirst());
+        assertEquals(IpAddress.parse("2001:db8:ffff:ffff:ffff:ffff:ffff:ffff"), subnet.getLast());
+        assertEquals("2001:db8:0:0:0:0:0:0/32", subnet.toString());
+    }
+
+    @Test
+    public void rejectsInvalidRanges() {
+        String[] invalid = {"10.0.0.0", "10.0.0.0/", "/8", "10.0.0.0/33", "::/129", "10.0.0.0/1a",
+                "10.0.0.0/0008", "010.0.0.0/8", "router/8"};
+        for (String text : invalid) {
+            assertNull(text, IpSubnet.parse(text));
+        }
+        assertNull(IpSubnet.parse(null));
+    }
+
+    @Test
+    public void containsOnlyItsRange() {
+        IpSubnet subnet = IpSubnet.parse("192.168.8.0/22");
+
+        assertTrue(subnet.contains(IpAddress.parse("192.168.8.0")));
+        assertTrue(subnet.contains(IpAddress.parse("192.168.11.255")));
+        assertFalse(subnet.contains(IpAddress.parse("192.168.7.255")));
+        assertFalse(subnet.contains(IpAddress.parse("192.168.12.0")));
+        assertFalse(subnet.contains(IpAddress.parse("::ffff:c0a8:7ff")));
+        // An IPv4 range never holds IPv6 addresses, even all of IPv4
+        assertFalse(IpSubnet.parse("0.0.0.0/0").contains(IpAddress.parse("::1")));
+        assertTrue(IpSubnet.parse("::/0").contains(IpAddress.parse("10.0.0.1")));
+    }
+
+    @Test
+    public void groupsByDefaultPrefix() {
+        assertEquals(IpSubnet.parse("10.20.3.0/24"), IpSubnet.groupOf(IpAddress.parse("10.20.3.4")));
+        assertEquals(IpSubnet.parse("2001:db8:1:2::/64"), IpSubnet.groupOf(IpAddress.parse("2001:db8:1:2::9")));
+        assertNotEquals(IpSubnet.parse("10.20.0.0/16"), IpSubnet.parse("10.20.0.0/24"));
+    }
+}
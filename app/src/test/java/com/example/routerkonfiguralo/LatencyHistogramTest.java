@@ -0,0 +1,113 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+    @Test
+    public void smallValuesHaveExactBuckets() {
+        for (int micros = 0; micros < LatencyHistogram.SUB_BUCKETS; micros++) {
+            assertEquals(micros, LatencyHistogram.bucketIndex(micros));
+            assertEquals(micros, LatencyHistogram.upperBound(micros));
+        }
+    }
+
+    @Test
+    public void bucketsAreContiguousAndOrdered() {
+        for (int index = 1; index < LatencyHistogram.BUCKET_COUNT; index++) {
+            long lowest = LatencyHistogram.upperBound(index - 1) + 1;
+            long highest = LatencyHistogram.upperBound(index);
+            assertTrue(highest >= lowest);
+            assertEquals(index, LatencyHistogram.bucketIndex(lowest));
+            assertEquals(index, LatencyHistogram.bucketIndex(highest));
+        }
+    }
+
+    @Test
+    public void bucketBoundIsAtMostAnEighthAbove() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long micros = 1 + (random.nextLong() >>> (28 + random.nextInt(36)));
+            checkBound(micros);
+        }
+        for (int shift = 0; shift < 37; shift++) {
+            checkBound(1L << shift);
+            checkBound((1L << shift) + 1);
+            checkBound((2L << shift) - 1);
+        }
+    }
+
+    private static void checkBound(long micros) {
+        long bound = LatencyHistogram.upperBound(LatencyHistogram.bucketIndex(micros));
+        assertTrue(micros + " -> " + bound, bound >= micros);
+        assertTrue(micros + " -> " + bound, bound - micros <= micros / 8);
+    }
+
+    @Test
+    public void hugeValuesLandInTheLastBucket() {
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(1L << 40));
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentilesStayWithinAnEighthOfTheTrueValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(7);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + (long) Math.abs(random.nextGaussian() * 20_000);
+            histogram.recordMicros(values[i]);
+        }
+        Arrays.sort(values);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(values.length, snapshot.count);
+        assertEquals(values[values.length - 1], snapshot.maxMicros);
+        for (double quantile : new double[]{0.01, 0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            long reported = snapshot.percentileMicros(quantile);
+            assertTrue(quantile + ": " + reported + " < " + exact, reported >= exact);
+            assertTrue(quantile + ": " + reported + " vs " + exact, reported - exact <= exact / 8);
+        }
+    }
+
+    @Test
+    public void percentileIsCappedAtTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(1000);
+        assertEquals(1000, histogram.snapshot().percentileMicros(0.99));
+    }
+
+    @Test
+    public void recordsUnitsAndClampsNegatives() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(5_000);
+        histogram.recordMillis(2);
+        histogram.recordMicros(-3);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(3, snapshot.count);
+        assertEquals(2005, snapshot.sumMicros);
+        assertEquals(2000, snapshot.maxMicros);
+        assertEquals(0, snapshot.percentileMicros(0.1));
+        assertEquals(2005 / 3.0, snapshot.meanMicros(), 1e-9);
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(123);
+        histogram.reset();
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.count);
+        assertEquals(0, snapshot.sumMicros);
+        assertEquals(0, snapshot.maxMicros);
+        assertEquals(0, snapshot.percentileMicros(0.5));
+        assertEquals(0, snapshot.meanMicros(), 0);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LineDiffTest {
+    private static final int UNLIMITED = Integer.MAX_VALUE / 2;
+
+    private static List<String> diff(String from, String to, int context) {
+        return LineDiff.unified(from, to, context, UNLIMITED);
+    }
+
+    @Test
+    public void equalTextsHaveNoHunks() {
+        assertTrue(diff("a\nb\n", "a\nb\n", 3).isEmpty());
+        assertTrue(diff("", "", 3).isEmpty());
+        // Only line content counts, not the line ending
+        assertTrue(diff("a\r\nb", "a\nb\n", 3).isEmpty());
+    }
+
+    @Test
+    public void formatsOneHunk() {
+        List<String> lines = diff("a\nb\nc\nd\ne\n", "a\nb\nC\nd\ne\n", 1);
+
+        assertEquals(Arrays.asList("@@ -2,3 +2,3 @@", " b", "-c", "+C", " d"), lines);
+    }
+
+    @Test
+    public void formatsInsertionsAndDeletionsAtTheEdges() {
+        assertEquals(Arrays.asList("@@ -1,1 +1,2 @@", "+new", " a"), diff("a\n", "new\na\n", 1));
+        assertEquals(Arrays.asList("@@ -1,2 +1,1 @@", " a", "-gone"), diff("a\ngone\n", "a\n", 1));
+        assertEquals(Arrays.asList("@@ -0,0 +1,2 @@", "+x", "+y"), diff("", "x\ny\n", 3));
+        assertEquals(Arrays.asList("@@ -1,2 +0,0 @@", "-x", "-y"), diff("x\ny\n", "", 3));
+    }
+
+    @Test
+    public void splitsDistantChangesIntoHunks() {
+        StringBuilder from = new StringBuilder();
+        for (int i = 1; i <= 20; i++) from.append(i).append('\n');
+        String to = from.toString().replace("\n3\n", "\nthree\n").replace("\n17\n", "\nseventeen\n");
+
+        List<String> lines = diff(from.toString(), to, 2);
+
+        assertEquals(Arrays.asList(
+                "@@ -1,5 +1,5 @@", " 1", " 2", "-3", "+three", " 4", " 5",
+                "@@ -15,5 +15,5 @@", " 15", " 16", "-17", "+seventeen", " 18", " 19"), lines);
+        // Within twice the context the hunks merge
+        assertEquals(1, countHunks(diff(from.toString(), to, 7)));
+    }
+
+    @Test
+    public void findsShortestScripts() {
+        Random random = new Random(8);
+        for (int test = 0; test < 2000; test++) {
+            String[] a = randomLines(random);
+            String[] b = randomLines(random);
+            List<String> lines = diff(String.join("\n", a), String.join("\n", b), UNLIMITED);
+
+            List<String> fromSide = new ArrayList<>();
+            List<String> toSide = new ArrayList<>();
+            int edits = 0;
+            for (String line : lines) {
+                if (line.startsWith("@@")) continue;
+                if (line.charAt(0) != '+') fromSide.add(line.substring(1));
+                if (line.charAt(0) != '-') toSide.add(line.substring(1));
+                if (line.charAt(0) != ' ') edits++;
+            }
+            if (Arrays.equals(a, b)) {
+                assertTrue(lines.isEmpty());
+            } else {
+                assertEquals(Arrays.asList(a), fromSide);
+                assertEquals(Arrays.asList(b), toSide);
+                assertEquals(a.length + b.length - 2 * longestCommonSubsequence(a, b), edits);
+            }
+        }
+    }
+
+    @Test
+    public void givesUpBeyondMaxEdits() {
+        assertNotNull(LineDiff.unified("a\nb\nc\n", "x\nb\ny\n", 3, 4));
+        assertNull(LineDiff.unified("a\nb\nc\n", "x\nb\ny\n", 3, 3));
+        assertTrue(LineDiff.unified("a\n", "a\n", 3, 0).isEmpty());
+
+        // Two unrelated files: answered quickly, without diffing every line
+        StringBuilder from = new StringBuilder();
+        StringBuilder to = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            from.append("from ").append(i).append('\n');
+            to.append("to ").append(i).append('\n');
+        }
+        assertNull(LineDiff.unified(from.toString(), to.toString(), 3, 1000));
+    }
+
+    private static String[] randomLines(Random random) {
+        String[] lines = new String[random.nextInt(15)];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = String.valueOf((char) ('a' + random.nextInt(4)));
+        }
+        return lines;
+    }
+
+    private static int longestCommonSubsequence(String[] a, String[] b) {
+        int[][] lengths = new int[a.length + 1][b.length + 1];
+        for (int i = a.length - 1; i >= 0; i--) {
+            for (int j = b.length - 1; j >= 0; j--) {
+                lengths[i][j] = a[i].equals(b[j]) ? lengths[i + 1][j + 1] + 1
+                        : Math.max(lengths[i + 1][j], lengths[i][j + 1]);
+            }
+        }
+        return lengths[0][0];
+    }
+
+    private static int countHunks(List<String> lines) {
+        int hunks = 0;
+        for (String line : lines) {
+            if (line.startsWith("@@")) hunks++;
+        }
+        return hunks;
+    }
+}
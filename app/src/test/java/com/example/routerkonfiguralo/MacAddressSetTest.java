@@ -0,0 +1,91 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class MacAddressSetTest {
+    @Test
+    public void parsesAndFormatsAddresses() {
+        long mac = MacAddressSet.parse("A4-2B-B0-0F-10-ff");
+        assertEquals(0xA42BB00F10FFL, mac);
+        assertEquals("a4:2b:b0:0f:10:ff", MacAddressSet.format(mac));
+        assertEquals(0L, MacAddressSet.parse("00:00:00:00:00:00"));
+
+        assertEquals(MacAddressSet.INVALID, MacAddressSet.parse(null));
+        assertEquals(MacAddressSet.INVALID, MacAddressSet.parse("a4:2b:b0:0f:10"));
+        assertEquals(MacAddressSet.INVALID, MacAddressSet.parse("a4:2b:b0:0f:10:fg"));
+        assertEquals(MacAddressSet.INVALID, MacAddressSet.parse("a4.2b.b0.0f.10.ff"));
+    }
+
+    @Test
+    public void addRemoveContains() {
+        MacAddressSet set = new MacAddressSet();
+        assertTrue(set.add("a4:2b:b0:00:00:01"));
+        assertFalse(set.add("A4:2B:B0:00:00:01"));
+        assertFalse(set.add("not a mac"));
+        assertTrue(set.add(0L));
+        assertEquals(2, set.size());
+
+        assertTrue(set.contains(0L));
+        assertTrue(set.remove("a4:2b:b0:00:00:01"));
+        assertFalse(set.remove("a4:2b:b0:00:00:01"));
+        assertFalse(set.contains("a4:2b:b0:00:00:01"));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void matchesHashSetUnderRandomOperations() {
+        Random random = new Random(42);
+        MacAddressSet set = new MacAddressSet();
+        Set<Long> expected = new HashSet<>();
+        // A small key space forces collisions, long probe runs and backward shifts on removal
+        for (int i = 0; i < 20_000; i++) {
+            long mac = 0xA42BB0000000L | random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(mac), set.remove(mac));
+            } else {
+                assertEquals(expected.add(mac), set.add(mac));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (long mac = 0xA42BB0000000L; mac < 0xA42BB0000000L + 300; mac++) {
+            assertEquals(expected.contains(mac), set.contains(mac));
+        }
+    }
+
+    @Test
+    public void diffsSnapshots() {
+        MacAddressSet previous = new MacAddressSet();
+        previous.add(1L);
+        previous.add(2L);
+        previous.add(3L);
+        MacAddressSet current = new MacAddressSet(previous);
+        current.remove(2L);
+        current.add(5L);
+        current.add(4L);
+
+        assertArrayEquals(new long[]{4L, 5L}, current.difference(previous));
+        assertArrayEquals(new long[]{2L}, previous.difference(current));
+        assertEquals(0, current.difference(current).length);
+    }
+
+    @Test
+    public void bytesRoundTrip() {
+        MacAddressSet set = new MacAddressSet();
+        set.add("ff:ee:dd:cc:bb:aa");
+        set.add("00:00:00:00:00:01");
+
+        byte[] bytes = set.toBytes();
+
+        assertEquals(12, bytes.length);
+        assertEquals(1, bytes[5]);
+        assertEquals((byte) 0xff, bytes[6]);
+        assertEquals(set, MacAddressSet.fromBytes(bytes));
+        assertTrue(MacAddressSet.fromBytes(new byte[0]).isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricsRegistryTest {
+    @Test
+    public void looksUpTheSameMetricByName() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertSame(registry.counter("a"), registry.counter("a"));
+        assertSame(registry.gauge("a"), registry.gauge("a"));
+        assertSame(registry.histogram("a"), registry.histogram("a"));
+        assertNotSame(registry.counter("a"), registry.counter("b"));
+    }
+
+    @Test
+    public void resetKeepsGauges() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("c").add(5);
+        registry.gauge("g").set(7);
+        registry.histogram("h").recordMicros(100);
+
+        registry.reset();
+
+        assertEquals(0, registry.counter("c").get());
+        assertEquals(7, registry.gauge("g").get());
+        assertEquals(0, registry.histogram("h").snapshot().count);
+    }
+
+    @Test
+    public void emptyJsonHasEverySection() {
+        String json = new MetricsRegistry().toJson(1000);
+        assertTrue(json.startsWith("{\n  \"timestamp\": 1000,\n  \"since\": "));
+        assertTrue(json.endsWith(",\n  \"histograms\": {},\n  \"counters\": {},\n  \"gauges\": {}\n}\n"));
+    }
+
+    @Test
+    public void jsonListsMetricsSortedByName() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LatencyHistogram histogram = registry.histogram("b.latency");
+        histogram.recordMicros(100);
+        histogram.recordMicros(300);
+        registry.histogram("a.latency");
+        registry.counter("writes.skipped").add(3);
+        registry.counter("writes.flushed").increment();
+        registry.gauge("routers").set(42);
+
+        String json = registry.toJson(1000);
+        String body = json.substring(json.indexOf("  \"histograms\""));
+        assertEquals("  \"histograms\": {\n"
+                + "    \"a.latency\": {\"count\": 0, \"mean_us\": 0, \"p50_us\": 0, \"p90_us\": 0,"
+                + " \"p99_us\": 0, \"p999_us\": 0, \"max_us\": 0},\n"
+                + "    \"b.latency\": {\"count\": 2, \"mean_us\": 200, \"p50_us\": 103, \"p90_us\": 300,"
+                + " \"p99_us\": 300, \"p999_us\": 300, \"max_us\": 300}\n"
+                + "  },\n"
+                + "  \"counters\": {\n"
+                + "    \"writes.flushed\": 1,\n"
+                + "    \"writes.skipped\": 3\n"
+                + "  },\n"
+                + "  \"gauges\": {\n"
+                + "    \"routers\": 42\n"
+                + "  }\n"
+                + "}\n", body);
+    }
+
+    @Test
+    public void jsonEscapesNames() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("a\"b\\c\n").increment();
+        assertTrue(registry.toJson(0).contains("\"a\\\"b\\\\c\\u000a\": 1"));
+    }
+
+    @Test
+    public void textHasOneLinePerValue() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.histogram("h").recordMicros(1500);
+        registry.counter("c").increment();
+        registry.gauge("g").set(2);
+
+        assertEquals("h\n  n=1  p50=1.5ms  p90=1.5ms  p99=1.5ms  max=1.5ms" + System.lineSeparator()
+                + "c = 1\ng = 2\n", registry.toText());
+    }
+
+    @Test
+    public void formatsMicros() {
+        assertEquals("999us", MetricsRegistry.formatMicros(999));
+        assertEquals("1.5ms", MetricsRegistry.formatMicros(1500));
+        assertEquals("2.25s", MetricsRegistry.formatMicros(2_250_000));
+    }
+}
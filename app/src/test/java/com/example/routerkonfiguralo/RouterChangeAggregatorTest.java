@@ -0,0 +1,116 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RouterChangeAggregatorTest {
+    // Matches the aggregator's bucket: 10 notifications, one regained every 15 s
+    private static final long REFILL = 15_000;
+
+    private long now;
+    private RouterChangeAggregator aggregator;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000;
+        aggregator = new RouterChangeAggregator(() -> now);
+    }
+
+    @Test
+    public void firstChangeStartsTheWindow() {
+        assertTrue(aggregator.add("a", "Office", "Status: Online -> Offline\n", false));
+        assertFalse(aggregator.add("b", "Lab", "Model changed\n", null));
+        assertTrue(aggregator.hasPending());
+
+        assertNotNull(aggregator.drain());
+        assertFalse(aggregator.hasPending());
+        assertNull(aggregator.drain());
+        assertTrue(aggregator.add("a", "Office", "Status: Offline -> Online\n", true));
+    }
+
+    @Test
+    public void mergesChangesOfOneRouter() {
+        aggregator.add("a", "Office", "Status: Online -> Offline\n", false);
+        now += 1000;
+        aggregator.add("a", "Office HQ", "Name changed\n", null);
+        aggregator.add("a", "Office HQ", "Status: Offline -> Online\n", true);
+
+        RouterChangeAggregator.Digest digest = aggregator.drain();
+
+        assertEquals(1, digest.changes.size());
+        RouterChangeAggregator.RouterChange change = digest.changes.get(0);
+        assertEquals("Office HQ", change.getRouterName());
+        assertEquals("Status: Online -> Offline\nName changed\nStatus: Offline -> Online", change.getText());
+        assertEquals(Boolean.TRUE, change.getWentOnline());
+        assertEquals(now - 1000, change.queuedAt);
+        assertTrue(digest.postChildren);
+    }
+
+    @Test
+    public void fewChangesGetOneNotificationEach() {
+        aggregator.add("a", "A", "Status: Online -> Offline\n", false);
+        aggregator.add("b", "B", "Status: Online -> Offline\n", false);
+        aggregator.add("c", "C", "Status: Offline -> Online\n", true);
+        aggregator.add("d", "D", "Model changed\n", null);
+
+        RouterChangeAggregator.Digest digest = aggregator.drain();
+
+        assertTrue(digest.postChildren);
+        assertEquals(4, digest.changes.size());
+        assertEquals("a", digest.changes.get(0).routerId);
+        assertEquals(2, digest.wentOffline);
+        assertEquals(1, digest.wentOnline);
+        assertEquals("2 routers went offline, 1 came back online, 1 changed", digest.getSummaryTitle());
+    }
+
+    @Test
+    public void fleetWideEventPostsOnlyTheDigest() {
+        int routers = RouterChangeAggregator.MAX_CHILD_NOTIFICATIONS + 1;
+        for (int i = 0; i < routers; i++) {
+            aggregator.add("r" + i, "Router " + i, "Status: Online -> Offline\n", false);
+        }
+
+        RouterChangeAggregator.Digest digest = aggregator.drain();
+
+        assertFalse(digest.postChildren);
+        assertEquals(routers, digest.changes.size());
+        assertEquals(routers + " routers went offline", digest.getSummaryTitle());
+    }
+
+    @Test
+    public void singleChangeTitle() {
+        aggregator.add("a", "A", "Firmware changed\n", null);
+        assertEquals("1 router changed", aggregator.drain().getSummaryTitle());
+    }
+
+    @Test
+    public void rateLimitDegradesToDigestThenHoldsChanges() {
+        // Three windows of two changes cost two children plus a summary each: 9 of 10 tokens
+        for (int window = 0; window < 3; window++) {
+            aggregator.add("a", "A", "Model changed\n", null);
+            aggregator.add("b", "B", "Model changed\n", null);
+            assertTrue(aggregator.drain().postChildren);
+        }
+
+        // The last token only pays for the digest
+        aggregator.add("a", "A", "Model changed\n", null);
+        aggregator.add("b", "B", "Model changed\n", null);
+        assertFalse(aggregator.drain().postChildren);
+
+        // Out of tokens: the changes are held and merged with later ones
+        aggregator.add("c", "C", "Status: Online -> Offline\n", false);
+        assertNull(aggregator.drain());
+        assertTrue(aggregator.hasPending());
+        aggregator.add("d", "D", "Status: Online -> Offline\n", false);
+
+        now += REFILL;
+        RouterChangeAggregator.Digest digest = aggregator.drain();
+        assertNotNull(digest);
+        assertFalse(digest.postChildren);
+        assertEquals(2, digest.changes.size());
+        assertEquals(2, digest.wentOffline);
+        assertFalse(aggregator.hasPending());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RouterCheckSchedulerTest {
+    private static final long MIN = 60_000;
+    private static final long MAX = 8 * MIN;
+    private static final long WINDOW = 10_000;
+
+    private long now;
+    private RouterCheckScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000;
+        scheduler = new RouterCheckScheduler(() -> now, MIN, MAX, WINDOW);
+    }
+
+    @Test
+    public void newRoutersAreDueImmediately() {
+        scheduler.track("a");
+        scheduler.track("b");
+
+        assertEquals(now, scheduler.nextWakeupAt());
+        List<String> due = scheduler.pollDue();
+        assertEquals(Arrays.asList("a", "b"), due);
+        assertTrue(scheduler.pollDue().isEmpty());
+    }
+
+    @Test
+    public void stableRoutersBackOffExponentiallyUpToMax() {
+        scheduler.track("a");
+        long[] expected = {2 * MIN, 4 * MIN, 8 * MIN, 8 * MIN};
+        for (long interval : expected) {
+            scheduler.pollDue();
+            scheduler.recordResult("a", false);
+            assertEquals(interval, scheduler.intervalOf("a"));
+            assertEquals(now + interval, scheduler.nextWakeupAt());
+            now += interval;
+        }
+    }
+
+    @Test
+    public void changedRoutersFallBackToMinInterval() {
+        scheduler.track("a");
+        scheduler.pollDue();
+        scheduler.recordResult("a", false);
+        scheduler.recordResult("a", false);
+        assertEquals(4 * MIN, scheduler.intervalOf("a"));
+
+        scheduler.recordResult("a", true);
+        assertEquals(MIN, scheduler.intervalOf("a"));
+        assertEquals(now + MIN, scheduler.nextWakeupAt());
+    }
+
+    @Test
+    public void checksWithinWindowShareOneWakeup() {
+        scheduler.track("a");
+        now += 5_000;
+        scheduler.track("b");
+        now += 20_000;
+        scheduler.track("c");
+        now -= 25_000;
+
+        // "a" is due now, "b" 5 s later (inside the window), "c" 25 s later (outside)
+        assertEquals(Arrays.asList("a", "b"), scheduler.pollDue());
+        now += 25_000;
+        assertEquals(Collections.singletonList("c"), scheduler.pollDue());
+    }
+
+    @Test
+    public void untrackedRoutersAreNoLongerScheduled() {
+        scheduler.track("a");
+        scheduler.track("b");
+        scheduler.retainAll(Collections.singletonList("b"));
+
+        assertEquals(1, scheduler.size());
+        assertEquals(-1, scheduler.intervalOf("a"));
+        scheduler.untrack("b");
+        assertEquals(Long.MAX_VALUE, scheduler.nextWakeupAt());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RouterCodecTest {
+    private static Map<String, Object> document(int i) {
+        Map<String, Object> data = new HashMap<>();
+        data.put(RouterCodec.FIELD_NAME, "Router " + i);
+        data.put(RouterCodec.FIELD_IP_ADDRESS, "192.168." + (i / 256 % 256) + "." + (i % 256));
+        data.put(RouterCodec.FIELD_USERNAME, "admin");
+        data.put(RouterCodec.FIELD_PASSWORD, "secret" + i);
+        data.put(RouterCodec.FIELD_MODEL, "RT-AX" + (i % 7));
+        data.put(RouterCodec.FIELD_FIRMWARE_VERSION, "3.0.0." + (i % 5));
+        data.put(RouterCodec.FIELD_IS_ONLINE, i % 3 == 0);
+        data.put(RouterCodec.FIELD_USER_ID, "user");
+        data.put(RouterCodec.FIELD_TIMESTAMP, 1_700_000_000_000L + i);
+        return data;
+    }
+
+    @Test
+    public void decodesEveryField() {
+        Map<String, Object> data = document(3);
+        data.put(RouterCodec.FIELD_CONNECTED_DEVICES, Arrays.asList("a4:2b:b0:00:00:01", "A4-2B-B0-00-00-02", "a4:2b:b0:00:00:01"));
+
+        Router router = RouterCodec.decode("r3", data);
+
+        assertEquals("r3", router.getId());
+        assertEquals("Router 3", router.getName());
+        assertEquals("192.168.0.3", router.getIpAddress());
+        assertEquals("admin", router.getUsername());
+        assertEquals("secret3", router.getPassword());
+        assertEquals("RT-AX3", router.getModel());
+        assertEquals("3.0.0.3", router.getFirmwareVersion());
+        assertTrue(router.isOnline());
+        assertEquals(1_700_000_000_003L, router.getTimestamp());
+        assertEquals(2, router.getConnectedDevices().size());
+        assertTrue(router.getConnectedDevices().contains("a4:2b:b0:00:00:01"));
+    }
+
+    @Test
+    public void missingAndMistypedFieldsKeepDefaults() {
+        Map<String, Object> data = new HashMap<>();
+        data.put(RouterCodec.FIELD_NAME, 42L);
+        data.put(RouterCodec.FIELD_IS_ONLINE, "yes");
+        data.put(RouterCodec.FIELD_TIMESTAMP, 12.0);
+        data.put("somethingNew", "ignored");
+
+        Router router = RouterCodec.decode("r", data);
+
+        assertNull(router.getName());
+        assertNull(router.getModel());
+        assertFalse(router.isOnline());
+        assertEquals(12L, router.getTimestamp());
+        assertNotNull(RouterCodec.decode("r", null));
+    }
+
+    @Test
+    public void dropsLegacyDevicesThatAreNotMacAddresses() {
+        Map<String, Object> data = document(4);
+        data.put(RouterCodec.FIELD_CONNECTED_DEVICES, Arrays.asList("a4:2b:b0:00:00:01", "printer", 42L, null));
+
+        Router router = RouterCodec.decode("r4", data);
+
+        assertEquals(1, router.getConnectedDevices().size());
+    }
+
+    @Test
+    public void decodesPackedDevices() {
+        MacAddressSet devices = new MacAddressSet();
+        devices.add("a4:2b:b0:00:00:01");
+        devices.add("a4:2b:b0:00:00:02");
+        Map<String, Object> data = document(5);
+        data.put(RouterCodec.FIELD_CONNECTED_DEVICES, devices.toBytes());
+
+        assertEquals(devices, RouterCodec.decode("r5", data).getConnectedDevices());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDeviceThatIsNotMacAddress() {
+        new Router().addConnectedDevice("printer");
+    }
+
+    @Test
+    public void encodeRoundTrips() {
+        Router router = RouterCodec.decode("r7", document(7));
+
+        Map<String, Object> encoded = RouterCodec.encode(router, "user");
+
+        assertEquals(document(7), encoded);
+
+        router.addConnectedDevice("a4:2b:b0:00:00:01");
+        Object devices = RouterCodec.encode(router, "user").get(RouterCodec.FIELD_CONNECTED_DEVICES);
+        Map<String, Object> data = document(7);
+        data.put(RouterCodec.FIELD_CONNECTED_DEVICES, devices);
+        assertEquals(router.getConnectedDevices(), RouterCodec.decode("r7", data).getConnectedDevices());
+        Map<String, Object> settings = RouterCodec.encodeSettings(router);
+        assertFalse(settings.containsKey(RouterCodec.FIELD_IS_ONLINE));
+        assertFalse(settings.containsKey(RouterCodec.FIELD_USER_ID));
+    }
+}
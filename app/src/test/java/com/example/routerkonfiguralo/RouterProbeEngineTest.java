@@ -0,0 +1,117 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Probes a stub router: a local server socket that accepts connections on a free port.
+ */
+public class RouterProbeEngineTest {
+    private ServerSocket server;
+    private int port;
+    private RouterProbeEngine engine;
+
+    @Before
+    public void setUp() throws IOException {
+        // Bound to the wildcard address, so it accepts both IPv4 and IPv6 loopback connects
+        server = new ServerSocket(0);
+        port = server.getLocalPort();
+        engine = new RouterProbeEngine(4, 1000);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        engine.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void reachesIpv4WithPort() {
+        RouterProbeEngine.ProbeResult result = engine.probe("127.0.0.1:" + port);
+        assertTrue(result.reachable);
+        assertTrue(result.rttMillis >= 0);
+    }
+
+    @Test
+    public void reachesBracketedIpv6WithPort() {
+        assertTrue(engine.probe("[::1]:" + port).reachable);
+        assertTrue(engine.probe(" [::1]:" + port + " ").reachable);
+    }
+
+    @Test
+    public void closedPortIsUnreachable() throws IOException {
+        server.close();
+        RouterProbeEngine.ProbeResult result = engine.probe("127.0.0.1:" + port);
+        assertFalse(result.reachable);
+        assertEquals(-1, result.rttMillis);
+    }
+
+    @Test
+    public void invalidAddressesAreUnreachable() {
+        assertFalse(engine.probe(null).reachable);
+        assertFalse(engine.probe("  ").reachable);
+        assertFalse(engine.probe("127.0.0.1:http").reachable);
+        assertFalse(engine.probe("127.0.0.1:70000").reachable);
+        assertFalse(engine.probe("[::1:" + port).reachable);
+    }
+
+    @Test
+    public void hostNamesAreNotResolved() {
+        assertNull(RouterProbeEngine.socketAddress("localhost:" + port));
+        assertFalse(engine.probe("localhost:" + port).reachable);
+    }
+
+    @Test
+    public void socketAddressKeepsPortAndDefault() throws IOException {
+        InetSocketAddress v4 = RouterProbeEngine.socketAddress("192.168.1.1");
+        assertEquals(InetAddress.getByName("192.168.1.1"), v4.getAddress());
+        assertEquals(RouterProbeEngine.DEFAULT_PORT, v4.getPort());
+
+        InetSocketAddress v6 = RouterProbeEngine.socketAddress("[fe80::1]:8080");
+        assertEquals(InetAddress.getByName("fe80::1"), v6.getAddress());
+        assertEquals(8080, v6.getPort());
+
+        InetSocketAddress bare = RouterProbeEngine.socketAddress("2001:db8::1");
+        assertEquals(InetAddress.getByName("2001:db8::1"), bare.getAddress());
+        assertEquals(RouterProbeEngine.DEFAULT_PORT, bare.getPort());
+
+        InetSocketAddress scoped = RouterProbeEngine.socketAddress("[fe80::1%3]:8080");
+        assertEquals(8080, scoped.getPort());
+        assertEquals(3, ((Inet6Address) scoped.getAddress()).getScopeId());
+    }
+
+    @Test
+    public void probeAllReportsEveryRouterOnce() throws InterruptedException {
+        Map<String, String> addresses = new HashMap<>();
+        addresses.put("up", "127.0.0.1:" + port);
+        addresses.put("v6", "[::1]:" + port);
+        addresses.put("invalid", "not an address");
+
+        AtomicReference<Map<String, RouterProbeEngine.ProbeResult>> results = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        engine.probeAll(addresses, resultsById -> {
+            results.set(resultsById);
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(3, results.get().size());
+        assertTrue(results.get().get("up").reachable);
+        assertTrue(results.get().get("v6").reachable);
+        assertFalse(results.get().get("invalid").reachable);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RouterSearchIndexTest {
+    private RouterSearchIndex index;
+
+    private static Router router(String id, String name, String ipAddress, String model) {
+        Router router = new Router(name, ipAddress, "admin", "secret", model);
+        router.setId(id);
+        return router;
+    }
+
+    private static Set<String> ids(String... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+
+    @Before
+    public void setUp() {
+        index = new RouterSearchIndex();
+        index.put(router("hq", "Office HQ", "192.168.1.1", "RT-AX58U"));
+        index.put(router("lab", "Lab gateway", "192.168.10.1:8080", "EdgeRouter X"));
+        index.put(router("branch", "Branch office", "10.20.3.4", "Archer AX55"));
+        index.put(router("v6", "IPv6 edge", "[2001:db8::1]:443", "hEX S"));
+    }
+
+    @Test
+    public void shortQueriesMatchWordPrefixes() {
+        assertEquals(ids("hq", "branch"), index.search("of"));
+        assertEquals(ids("lab", "v6"), index.search("E"));
+        assertEquals(ids("branch"), index.search("ar"));
+        // "ic" is inside "office" but starts no word
+        assertTrue(index.search("ic").isEmpty());
+    }
+
+    @Test
+    public void longerQueriesMatchAnywhere() {
+        assertEquals(ids("hq", "branch"), index.search("ffic"));
+        assertEquals(ids("hq", "branch"), index.search("OFFICE"));
+        assertEquals(ids("lab"), index.search("gateway"));
+        assertEquals(ids("hq", "branch"), index.search("ax5"));
+        assertEquals(ids("lab"), index.search("edgerouter x"));
+        // Every trigram occurs, but not in this order
+        assertTrue(index.search("ofice").isEmpty());
+        assertTrue(index.search("nothing").isEmpty());
+    }
+
+    @Test
+    public void blankQueryMatchesNothing() {
+        assertTrue(index.search("").isEmpty());
+        assertTrue(index.search("   ").isEmpty());
+        assertTrue(index.search(null).isEmpty());
+    }
+
+    @Test
+    public void numericQueriesMatchAddressPrefixes() {
+        assertEquals(ids("hq", "lab"), index.search("192.168.1"));
+        assertEquals(ids("hq"), index.search("192.168.1.1"));
+        assertEquals(ids("branch"), index.search("10."));
+        assertTrue(index.search("172.").isEmpty());
+    }
+
+    @Test
+    public void cidrQueriesMatchAddressRanges() {
+        assertEquals(ids("hq", "lab"), index.search("192.168.0.0/16"));
+        assertEquals(ids("hq"), index.search("192.168.1.0/24"));
+        assertEquals(ids("branch"), index.search("10.0.0.0/8"));
+        assertEquals(ids("v6"), index.search("2001:DB8::/32"));
+        assertTrue(index.search("172.16.0.0/12").isEmpty());
+        assertEquals(ids("hq", "lab", "branch"), index.searchRange(IpSubnet.parse("0.0.0.0/0")));
+    }
+
+    @Test
+    public void updatesReplaceThePreviousVersion() {
+        index.put(router("hq", "Head office", "10.20.9.9", "RT-AX58U"));
+
+        assertEquals(ids("hq"), index.search("head"));
+        assertEquals(ids("hq", "branch"), index.search("10.20.0.0/16"));
+        assertEquals(ids("lab"), index.search("192.168.0.0/16"));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void removedRoutersNoLongerMatch() {
+        index.remove("hq");
+        index.remove("missing");
+
+        assertEquals(ids("branch"), index.search("office"));
+        assertEquals(ids("branch"), index.search("of"));
+        assertEquals(ids("lab"), index.search("192.168."));
+        assertEquals(ids("lab"), index.search("192.168.0.0/16"));
+        assertEquals(3, index.size());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.search("office").isEmpty());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RouterStateTest {
+    private static final String[] NAMES = {"Office", "Lab", "Office 2", ""};
+    private static final String[] MODELS = {"RT-AX58U", "RT-AX86U", null};
+    private static final String[] FIRMWARE = {"3.0.0.4", "3.0.0.5", null};
+    private static final String[] ADDRESSES = {"192.168.1.1", "192.168.1.2", "10.0.0.1", "fe80::1", "router.local", null};
+
+    private static RouterState state() {
+        return new RouterState("Office", "RT-AX58U", "3.0.0.4", "192.168.1.1", true);
+    }
+
+    @Test
+    public void unchangedFieldsKeepTheFingerprint() {
+        RouterState state = state();
+        assertEquals(RouterState.fingerprint("Office", "RT-AX58U", "3.0.0.4", "192.168.1.1", true),
+                state.getFingerprint());
+        assertEquals(0, state.diff("Office", "RT-AX58U", "3.0.0.4", "192.168.1.1", true));
+    }
+
+    @Test
+    public void diffFlagsEachChangedField() {
+        RouterState state = state();
+        assertEquals(RouterState.CHANGED_NAME, state.diff("Lab", "RT-AX58U", "3.0.0.4", "192.168.1.1", true));
+        assertEquals(RouterState.CHANGED_MODEL, state.diff("Office", "RT-AX86U", "3.0.0.4", "192.168.1.1", true));
+        assertEquals(RouterState.CHANGED_FIRMWARE, state.diff("Office", "RT-AX58U", "3.0.0.5", "192.168.1.1", true));
+        assertEquals(RouterState.CHANGED_IP, state.diff("Office", "RT-AX58U", "3.0.0.4", "192.168.1.2", true));
+        assertEquals(RouterState.CHANGED_ONLINE, state.diff("Office", "RT-AX58U", "3.0.0.4", "192.168.1.1", false));
+        assertEquals(RouterState.CHANGED_NAME | RouterState.CHANGED_IP | RouterState.CHANGED_ONLINE,
+                state.diff("Lab", "RT-AX58U", "3.0.0.4", "fe80::1", false));
+    }
+
+    @Test
+    public void missingFieldsAreNotChanges() {
+        assertEquals(0, state().diff(null, null, null, null, null));
+    }
+
+    @Test
+    public void describesChangedFields() {
+        RouterState state = state();
+        int changed = state.diff("Office", "RT-AX58U", "3.0.0.5", "10.0.0.1", false);
+        assertEquals("Firmware changed from 3.0.0.4 to 3.0.0.5\n"
+                        + "IP changed from 192.168.1.1 to 10.0.0.1\n"
+                        + "Status changed to Offline\n",
+                state.describeChanges(changed, "Office", "RT-AX58U", "3.0.0.5", "10.0.0.1", false));
+    }
+
+    @Test
+    public void packsIpv4AndKeepsOtherAddressesAsText() {
+        assertEquals(0xc0a80101L, RouterState.packIpv4("192.168.1.1"));
+        assertEquals(0xffffffffL, RouterState.packIpv4("255.255.255.255"));
+        assertEquals(-1, RouterState.packIpv4("192.168.01.1"));
+        assertEquals(-1, RouterState.packIpv4("fe80::1"));
+        assertEquals(-1, RouterState.packIpv4(null));
+
+        assertEquals("255.255.255.255",
+                new RouterState("a", null, null, "255.255.255.255", true).getIpAddress());
+        assertEquals("fe80::1", new RouterState("a", null, null, "fe80::1", true).getIpAddress());
+        assertNull(new RouterState("a", null, null, null, true).getIpAddress());
+    }
+
+    @Test
+    public void internsModelAndFirmware() {
+        RouterState first = new RouterState("a", new String("RT-AX58U"), new String("3.0.0.4"), "10.0.0.1", true);
+        RouterState second = new RouterState("b", new String("RT-AX58U"), new String("3.0.0.4"), "10.0.0.2", true);
+        assertSame(first.getModel(), second.getModel());
+        assertSame(first.getFirmwareVersion(), second.getFirmwareVersion());
+
+        second.update("b", new String("RT-AX86U"), null, "10.0.0.2", false);
+        assertSame("RT-AX86U", second.getModel());
+        assertNull(second.getFirmwareVersion());
+        assertFalse(second.isOnline());
+    }
+
+    @Test
+    public void fieldBoundariesAndNullsChangeTheFingerprint() {
+        assertNotEquals(RouterState.fingerprint("ab", "c", null, null, true),
+                RouterState.fingerprint("a", "bc", null, null, true));
+        assertNotEquals(RouterState.fingerprint("a", null, null, null, true),
+                RouterState.fingerprint("a", "", null, null, true));
+        assertNotEquals(RouterState.fingerprint("a", null, "", null, true),
+                RouterState.fingerprint("a", "", null, null, true));
+    }
+
+    /**
+     * Over every combination of field values, changing any single field changes the fingerprint,
+     * and {@code diff} reports a change exactly when the fingerprints differ.
+     */
+    @Test
+    public void diffAgreesWithFingerprint() {
+        for (String name : NAMES) {
+            for (String model : MODELS) {
+                for (String firmware : FIRMWARE) {
+                    for (String address : ADDRESSES) {
+                        for (boolean online : new boolean[]{true, false}) {
+                            RouterState state = new RouterState(name, model, firmware, address, online);
+                            checkAgainst(state, name, model, firmware, address, online);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void checkAgainst(RouterState state, String name, String model, String firmware,
+                                     String address, boolean online) {
+        for (String otherName : NAMES) {
+            check(state, otherName, model, firmware, address, online, !otherName.equals(name));
+        }
+        for (String otherModel : MODELS) {
+            check(state, name, otherModel, firmware, address, online, !equal(otherModel, model));
+        }
+        for (String otherFirmware : FIRMWARE) {
+            check(state, name, model, otherFirmware, address, online, !equal(otherFirmware, firmware));
+        }
+        for (String otherAddress : ADDRESSES) {
+            check(state, name, model, firmware, otherAddress, online, !equal(otherAddress, address));
+        }
+        check(state, name, model, firmware, address, !online, true);
+    }
+
+    private static void check(RouterState state, String name, String model, String firmware, String address,
+                              boolean online, boolean changed) {
+        String fields = name + "," + model + "," + firmware + "," + address + "," + online;
+        long fingerprint = RouterState.fingerprint(name, model, firmware, address, online);
+        assertEquals(fields, changed, fingerprint != state.getFingerprint());
+        // diff does not report a field that went missing, so only compare present values
+        boolean droppedField = (model == null && state.getModel() != null)
+                || (firmware == null && state.getFirmwareVersion() != null)
+                || (address == null && state.getIpAddress() != null);
+        if (!droppedField) {
+            assertEquals(fields, changed, state.diff(name, model, firmware, address, online) != 0);
+        }
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
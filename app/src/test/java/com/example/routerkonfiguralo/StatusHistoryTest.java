@@ -0,0 +1,182 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StatusHistoryTest {
+    private File directory;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history").toFile();
+        file = new File(directory, "status-history.bin");
+    }
+
+    @After
+    public void tearDown() {
+        File[] children = directory.listFiles();
+        if (children != null) {
+            for (File child : children) child.delete();
+        }
+        directory.delete();
+    }
+
+    private static List<Long> times(StatusHistory history, String routerId, long fromMillis, long toMillis) {
+        List<Long> times = new ArrayList<>();
+        history.read(routerId, fromMillis, toMillis, (time, rtt, flags) -> times.add(time));
+        return times;
+    }
+
+    private static List<Long> times(StatusHistory history, String routerId) {
+        return times(history, routerId, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void readsTimeRanges() throws IOException {
+        StatusHistory history = new StatusHistory(file, 4, 16);
+        assertTrue(history.startedOver);
+        for (long time = 10; time <= 100; time += 10) {
+            history.append("hq", time, (int) time, time == 50 ? 0 : StatusHistory.FLAG_ONLINE);
+        }
+
+        assertEquals(List.of(30L, 40L, 50L), times(history, "hq", 25, 60));
+        assertEquals(List.of(100L), times(history, "hq", 100, 101));
+        assertTrue(times(history, "hq", 101, Long.MAX_VALUE).isEmpty());
+        assertTrue(times(history, "lab").isEmpty());
+
+        List<StatusHistory.Entry> entries = history.readLastHours("hq", 1, 100);
+        assertEquals(10, entries.size());
+        assertTrue(entries.get(0).isTransition());
+        assertFalse(entries.get(1).isTransition());
+        assertFalse(entries.get(4).isOnline());
+        assertTrue(entries.get(4).isTransition());
+        assertTrue(entries.get(5).isTransition());
+        assertEquals(60, entries.get(5).rttMillis);
+    }
+
+    @Test
+    public void ringKeepsNewestRecords() throws IOException {
+        StatusHistory history = new StatusHistory(file, 4, 8);
+        for (long time = 1; time <= 20; time++) {
+            history.append("hq", time, StatusHistory.NO_RTT, StatusHistory.FLAG_ONLINE);
+        }
+
+        assertEquals(List.of(13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L), times(history, "hq"));
+        assertEquals(List.of(13L, 14L), times(history, "hq", 0, 15));
+    }
+
+    @Test
+    public void growsInsteadOfEvicting() throws IOException {
+        StatusHistory history = new StatusHistory(file, 4, 8);
+        long initialLength = file.length();
+        for (int router = 0; router < 100; router++) {
+            for (long time = 1; time <= 3; time++) {
+                history.append("router-" + router, router * 10 + time, StatusHistory.NO_RTT, 0);
+            }
+        }
+
+        // 100 routers in segments of 4 slots, after a 64 byte header
+        assertEquals(64 + 25 * (initialLength - 64), file.length());
+        StatusHistory reopened = new StatusHistory(file, 4, 8);
+        assertFalse(reopened.startedOver);
+        for (int router = 0; router < 100; router++) {
+            List<Long> expected = List.of(router * 10 + 1L, router * 10 + 2L, router * 10 + 3L);
+            assertEquals(expected, times(history, "router-" + router));
+            assertEquals(expected, times(reopened, "router-" + router));
+        }
+    }
+
+    @Test
+    public void reusesSlotsOfForgottenRouters() throws IOException {
+        StatusHistory history = new StatusHistory(file, 4, 8);
+        for (int router = 0; router < 4; router++) {
+            history.append("router-" + router, router, StatusHistory.NO_RTT, 0);
+        }
+        long length = file.length();
+
+        history.forget("router-1");
+        history.append("new", 100, StatusHistory.NO_RTT, 0);
+
+        assertEquals(length, file.length());
+        assertTrue(times(history, "router-1").isEmpty());
+        assertEquals(List.of(100L), times(history, "new"));
+        assertEquals(List.of(3L), times(history, "router-3"));
+        // A reopened file knows which slots are free
+        StatusHistory reopened = new StatusHistory(file, 4, 8);
+        reopened.forget("router-0");
+        reopened.append("newer", 200, StatusHistory.NO_RTT, 0);
+        assertEquals(length, file.length());
+        assertEquals(List.of(200L), times(reopened, "newer"));
+    }
+
+    @Test
+    public void keepsEveryRouterThroughRandomChurn() throws IOException {
+        StatusHistory history = new StatusHistory(file, 8, 4);
+        Map<String, Long> newest = new HashMap<>();
+        List<String> live = new ArrayList<>();
+        Random random = new Random(13);
+        for (long time = 1; time <= 20_000; time++) {
+            if (!live.isEmpty() && random.nextInt(4) == 0) {
+                String routerId = live.remove(random.nextInt(live.size()));
+                history.forget(routerId);
+                newest.remove(routerId);
+            } else {
+                String routerId = "router-" + random.nextInt(500);
+                if (!newest.containsKey(routerId)) live.add(routerId);
+                history.append(routerId, time, StatusHistory.NO_RTT, 0);
+                newest.put(routerId, time);
+            }
+        }
+
+        for (int router = 0; router < 500; router++) {
+            String routerId = "router-" + router;
+            List<Long> times = times(history, routerId);
+            if (newest.containsKey(routerId)) {
+                assertEquals(routerId, newest.get(routerId), times.get(times.size() - 1));
+            } else {
+                assertTrue(routerId, times.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void dropsSegmentOfInterruptedGrowth() throws IOException {
+        StatusHistory history = new StatusHistory(file, 4, 8);
+        history.append("hq", 1, StatusHistory.NO_RTT, 0);
+        long length = file.length();
+        // The file was extended, but the header never counted the new segment
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length * 2);
+        }
+
+        StatusHistory reopened = new StatusHistory(file, 4, 8);
+
+        assertFalse(reopened.startedOver);
+        assertEquals(length, file.length());
+        assertEquals(List.of(1L), times(reopened, "hq"));
+    }
+
+    @Test
+    public void startsOverWithAnotherLayout() throws IOException {
+        new StatusHistory(file, 4, 8).append("hq", 1, StatusHistory.NO_RTT, 0);
+
+        StatusHistory reopened = new StatusHistory(file, 4, 16);
+
+        assertTrue(reopened.startedOver);
+        assertTrue(times(reopened, "hq").isEmpty());
+    }
+}
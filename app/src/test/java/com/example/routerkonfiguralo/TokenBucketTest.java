@@ -0,0 +1,78 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketTest {
+    private static final long INTERVAL = 1000;
+
+    private long now;
+    private TokenBucket bucket;
+
+    @Before
+    public void setUp() {
+        now = 50_000;
+        bucket = new TokenBucket(() -> now, 3, INTERVAL);
+    }
+
+    @Test
+    public void startsFull() {
+        assertEquals(3, bucket.availableTokens());
+        assertTrue(bucket.tryAcquire(3));
+        assertEquals(0, bucket.availableTokens());
+    }
+
+    @Test
+    public void takesAllOrNothing() {
+        assertTrue(bucket.tryAcquire(2));
+        assertFalse(bucket.tryAcquire(2));
+        assertEquals(1, bucket.availableTokens());
+        assertTrue(bucket.tryAcquire(1));
+        assertFalse(bucket.tryAcquire(1));
+    }
+
+    @Test
+    public void regainsOneTokenPerInterval() {
+        bucket.tryAcquire(3);
+        now += INTERVAL - 1;
+        assertEquals(0, bucket.availableTokens());
+        now += 1;
+        assertEquals(1, bucket.availableTokens());
+        now += 2 * INTERVAL;
+        assertEquals(3, bucket.availableTokens());
+    }
+
+    @Test
+    public void keepsPartialIntervals() {
+        bucket.tryAcquire(3);
+        now += INTERVAL + INTERVAL / 2;
+        assertEquals(1, bucket.availableTokens());
+        // The half interval already elapsed counts towards the next token
+        now += INTERVAL / 2;
+        assertEquals(2, bucket.availableTokens());
+    }
+
+    @Test
+    public void neverExceedsCapacity() {
+        now += 100 * INTERVAL;
+        assertEquals(3, bucket.availableTokens());
+        assertTrue(bucket.tryAcquire(3));
+        // Time spent full does not bank tokens
+        now += INTERVAL / 2;
+        assertEquals(0, bucket.availableTokens());
+        now += INTERVAL / 2;
+        assertEquals(1, bucket.availableTokens());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyBucket() {
+        new TokenBucket(() -> now, 0, INTERVAL);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroInterval() {
+        new TokenBucket(() -> now, 3, 0);
+    }
+}
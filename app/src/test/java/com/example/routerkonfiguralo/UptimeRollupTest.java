@@ -0,0 +1,180 @@
+package com.example.routerkonfiguralo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class UptimeRollupTest {
+    private static final long MINUTE = UptimeRollup.MINUTE;
+    private static final long HOUR = UptimeRollup.HOUR;
+    private static final long DAY = UptimeRollup.DAY;
+    // Some day in 2024, not aligned to any bucket
+    private static final long START = 1_717_000_000_123L;
+
+    @Test
+    public void nothingObservedBeforeFirstEvent() {
+        UptimeRollup rollup = new UptimeRollup();
+        UptimeRollup.Stats stats = rollup.last24Hours(START);
+        assertEquals(0, stats.observedMillis);
+        assertTrue(Double.isNaN(stats.availability()));
+        assertEquals(-1, stats.meanTimeToRecoveryMillis());
+    }
+
+    @Test
+    public void countsOutageAndRecovery() {
+        UptimeRollup rollup = new UptimeRollup();
+        long t = floor(START, HOUR);
+        rollup.record(t, true);
+        rollup.record(t + 10 * MINUTE, false);
+        rollup.record(t + 25 * MINUTE, true);
+
+        UptimeRollup.Stats stats = rollup.last24Hours(t + 40 * MINUTE);
+        assertEquals(40 * MINUTE, stats.observedMillis);
+        assertEquals(25 * MINUTE, stats.onlineMillis);
+        assertEquals(1, stats.outages);
+        assertEquals(1, stats.recoveries);
+        assertEquals(15 * MINUTE, stats.meanTimeToRecoveryMillis());
+        assertEquals(25.0 / 40, stats.availability(), 1e-9);
+    }
+
+    @Test
+    public void timeSinceLastEventUsesLastStatus() {
+        UptimeRollup rollup = new UptimeRollup();
+        rollup.record(START, false);
+        // An outage already in progress at the first observation has no known start
+        rollup.record(START + HOUR, true);
+
+        UptimeRollup.Stats stats = rollup.last7Days(START + 3 * HOUR);
+        assertEquals(3 * HOUR, stats.observedMillis);
+        assertEquals(2 * HOUR, stats.onlineMillis);
+        assertEquals(0, stats.outages);
+        assertEquals(0, stats.recoveries);
+    }
+
+    @Test
+    public void oldBucketsLeaveTheWindow() {
+        UptimeRollup rollup = new UptimeRollup();
+        rollup.record(START, false);
+        rollup.record(START + 2 * HOUR, true);
+        long now = START + 40 * DAY;
+        rollup.record(now, true);
+
+        // The outage on the first day is older than 30 days
+        UptimeRollup.Stats month = rollup.last30Days(now);
+        assertEquals(now - (floor(now, DAY) - 29 * DAY), month.observedMillis);
+        assertEquals(month.observedMillis, month.onlineMillis);
+        assertEquals(0, month.recoveries);
+    }
+
+    @Test
+    public void windowsShowWhetherTheyAreFullyObserved() {
+        UptimeRollup rollup = new UptimeRollup();
+        long now = floor(START, DAY) + 5 * HOUR;
+        rollup.record(now - 30 * HOUR, true);
+
+        // The current hour has just begun, so the day is the 23 hours before it
+        UptimeRollup.Stats day = rollup.last24Hours(now);
+        assertEquals(23 * HOUR, day.windowMillis);
+        assertEquals(day.windowMillis, day.observedMillis);
+        UptimeRollup.Stats month = rollup.last30Days(now);
+        assertEquals(29 * DAY + 5 * HOUR, month.windowMillis);
+        assertEquals(30 * HOUR, month.observedMillis);
+    }
+
+    @Test
+    public void clearForgetsEveryObservation() {
+        UptimeRollup rollup = new UptimeRollup();
+        rollup.record(START, true);
+        rollup.record(START + HOUR, false);
+        rollup.clear();
+        rollup.record(START + 2 * HOUR, false);
+        rollup.record(START + 3 * HOUR, true);
+
+        UptimeRollup fresh = new UptimeRollup();
+        fresh.record(START + 2 * HOUR, false);
+        fresh.record(START + 3 * HOUR, true);
+        long now = START + 4 * HOUR;
+        assertStatsEqual(fresh.lastHour(now), rollup.lastHour(now));
+        assertStatsEqual(fresh.last24Hours(now), rollup.last24Hours(now));
+        assertStatsEqual(fresh.last30Days(now), rollup.last30Days(now));
+    }
+
+    @Test
+    public void matchesRecomputationFromRawEvents() {
+        Random random = new Random(7);
+        for (int run = 0; run < 50; run++) {
+            UptimeRollup rollup = new UptimeRollup();
+            List<long[]> events = new ArrayList<>();
+            long time = START + random.nextInt((int) DAY);
+            boolean online = random.nextBoolean();
+            int count = 1 + random.nextInt(2000);
+            for (int i = 0; i < count; i++) {
+                // Mostly probe-like intervals, sometimes long gaps of hours or days
+                int kind = random.nextInt(100);
+                long gap = kind < 90 ? random.nextInt((int) (10 * MINUTE))
+                        : kind < 98 ? random.nextInt((int) (6 * HOUR))
+                        : random.nextInt((int) (3 * DAY));
+                time += gap;
+                if (random.nextInt(10) < 3) online = !online;
+                rollup.record(time, online);
+                events.add(new long[]{time, online ? 1 : 0});
+
+                if (random.nextInt(50) == 0 || i == count - 1) {
+                    long now = time + random.nextInt((int) HOUR);
+                    assertStatsEqual(recompute(events, MINUTE, 60, now), rollup.lastHour(now));
+                    assertStatsEqual(recompute(events, HOUR, 24, now), rollup.last24Hours(now));
+                    assertStatsEqual(recompute(events, DAY, 7, now), rollup.last7Days(now));
+                    assertStatsEqual(recompute(events, DAY, 30, now), rollup.last30Days(now));
+                }
+            }
+        }
+    }
+
+    /** Reference: walks every raw event and clips each interval to the bucket-aligned window. */
+    private static UptimeRollup.Stats recompute(List<long[]> events, long unit, int buckets, long now) {
+        long windowStart = (Math.floorDiv(now, unit) - buckets + 1) * unit;
+        UptimeRollup.Stats stats = new UptimeRollup.Stats();
+        stats.windowMillis = now - windowStart;
+        long outageStart = -1;
+        for (int i = 0; i < events.size(); i++) {
+            long time = events.get(i)[0];
+            boolean online = events.get(i)[1] == 1;
+            long end = i + 1 < events.size() ? events.get(i + 1)[0] : now;
+            long overlap = Math.min(end, now) - Math.max(time, windowStart);
+            if (overlap > 0) {
+                stats.observedMillis += overlap;
+                if (online) stats.onlineMillis += overlap;
+            }
+            if (i == 0) continue;
+            boolean wasOnline = events.get(i - 1)[1] == 1;
+            if (wasOnline && !online) {
+                if (time >= windowStart) stats.outages++;
+                outageStart = time;
+            } else if (!wasOnline && online && outageStart >= 0) {
+                if (time >= windowStart) {
+                    stats.recoveries++;
+                    stats.recoveredDowntimeMillis += time - outageStart;
+                }
+                outageStart = -1;
+            }
+        }
+        return stats;
+    }
+
+    private static void assertStatsEqual(UptimeRollup.Stats expected, UptimeRollup.Stats actual) {
+        assertEquals(expected.windowMillis, actual.windowMillis);
+        assertEquals(expected.observedMillis, actual.observedMillis);
+        assertEquals(expected.onlineMillis, actual.onlineMillis);
+        assertEquals(expected.outages, actual.outages);
+        assertEquals(expected.recoveries, actual.recoveries);
+        assertEquals(expected.recoveredDowntimeMillis, actual.recoveredDowntimeMillis);
+    }
+
+    private static long floor(long time, long unit) {
+        return Math.floorDiv(time, unit) * unit;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.routerkonfiguralo;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic fleet: the raw field values of {@code size} routers, shaped like real
+ * inventories (a few dozen models and firmware lines, mixed-case names with numbers, private
+ * IPv4 addresses with some IPv6).
+ */
+final class Fleet {
+    private static final String[] MODELS = {
+            "Archer AX55", "Archer C6", "RT-AX58U", "RT-AC68U", "Nighthawk R7000", "EdgeRouter X",
+            "hEX S", "hAP ac2", "Omada ER605", "UniFi Dream Machine", "FRITZ!Box 7590", "Deco X20"
+    };
+
+    final int size;
+    final String[] names;
+    final String[] ipAddresses;
+    final String[] models;
+    final String[] firmwareVersions;
+    /** Eight device MAC addresses per router, colon-separated. */
+    final String[][] devices;
+
+    Fleet(int size) {
+        this.size = size;
+        Random random = new Random(42);
+        names = new String[size];
+        ipAddresses = new String[size];
+        models = new String[size];
+        firmwareVersions = new String[size];
+        devices = new String[size][8];
+        for (int i = 0; i < size; i++) {
+            String site = random.nextBoolean() ? "Branch" : "office";
+            names[i] = site + "-" + random.nextInt(size) + " router " + (char) ('A' + random.nextInt(26));
+            ipAddresses[i] = random.nextInt(20) == 0
+                    ? String.format(Locale.ROOT, "fd00::%x:%x", random.nextInt(0xffff), random.nextInt(0xffff))
+                    : "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + (1 + random.nextInt(254));
+            models[i] = MODELS[random.nextInt(MODELS.length)];
+            firmwareVersions[i] = firmware(random);
+            for (int d = 0; d < devices[i].length; d++) {
+                devices[i][d] = mac(random);
+            }
+        }
+    }
+
+    Router[] routers() {
+        Router[] routers = new Router[size];
+        for (int i = 0; i < size; i++) {
+            Router router = new Router(names[i], ipAddresses[i], "admin", "secret", models[i]);
+            router.setFirmwareVersion(firmwareVersions[i]);
+            router.setId("router-" + i);
+            routers[i] = router;
+        }
+        return routers;
+    }
+
+    private static String firmware(Random random) {
+        String version = random.nextInt(4) + "." + random.nextInt(12) + "." + random.nextInt(40);
+        switch (random.nextInt(6)) {
+            case 0:
+                return "v" + version;
+            case 1:
+                return version + "-beta" + random.nextInt(3);
+            case 2:
+                return version + " build " + (1000 + random.nextInt(9000));
+            default:
+                return version;
+        }
+    }
+
+    private static String mac(Random random) {
+        StringBuilder mac = new StringBuilder(17);
+        for (int b = 0; b < 6; b++) {
+            if (b > 0) mac.append(':');
+            mac.append(String.format(Locale.ROOT, "%02x", random.nextInt(256)));
+        }
+        return mac.toString();
+    }
+}
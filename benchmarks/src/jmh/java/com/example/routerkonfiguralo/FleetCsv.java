@@ -0,0 +1,29 @@
+package com.example.routerkonfiguralo;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Writes a {@link Fleet} in the inventory CSV format that the main screen's Import Routers button
+ * reads. Arguments: fleet size and output file.
+ */
+public final class FleetCsv {
+    private FleetCsv() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Fleet fleet = new Fleet(Integer.parseInt(args[0]));
+        try (Writer writer = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            CsvRecordReader.writeRecord(writer, "name", "ipAddress", "username", "password", "model",
+                    "firmwareVersion");
+            for (int i = 0; i < fleet.size; i++) {
+                CsvRecordReader.writeRecord(writer, fleet.names[i], fleet.ipAddresses[i], "admin", "secret",
+                        fleet.models[i], fleet.firmwareVersions[i]);
+            }
+        }
+        System.out.println("Wrote " + fleet.size + " routers to " + args[1]);
+    }
+}
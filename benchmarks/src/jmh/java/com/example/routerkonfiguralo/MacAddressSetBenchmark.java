@@ -0,0 +1,60 @@
+package com.example.routerkonfiguralo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A full refresh of an access point's clients: every reported address is added to an empty
+ * collection, as the previous {@code ArrayList<String>} with a contains() check per add, and as
+ * the packed {@link MacAddressSet}. One operation refreshes one access point.
+ */
+@State(Scope.Benchmark)
+public class MacAddressSetBenchmark {
+    @Param({"10", "100", "500", "2000"})
+    public int deviceCount;
+
+    private String[] addresses;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        addresses = new String[deviceCount];
+        for (int i = 0; i < deviceCount; i++) {
+            addresses[i] = MacAddressSet.format(0xA42BB0000000L | random.nextInt(1 << 24));
+        }
+        bytes = refreshSet().toBytes();
+    }
+
+    @Benchmark
+    public List<String> refreshList() {
+        List<String> devices = new ArrayList<>();
+        for (String address : addresses) {
+            if (!devices.contains(address)) devices.add(address);
+        }
+        return devices;
+    }
+
+    @Benchmark
+    public MacAddressSet refreshSet() {
+        MacAddressSet devices = new MacAddressSet();
+        for (String address : addresses) {
+            devices.add(address);
+        }
+        return devices;
+    }
+
+    /** The stored form: decoding the packed bytes field of a router document. */
+    @Benchmark
+    public MacAddressSet decodeBytes() {
+        return MacAddressSet.fromBytes(bytes);
+    }
+}
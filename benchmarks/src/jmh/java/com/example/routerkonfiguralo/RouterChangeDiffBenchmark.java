@@ -0,0 +1,75 @@
+package com.example.routerkonfiguralo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The per-document change check of the notification service's ingest path: fingerprint compare,
+ * field diff and change description, as in {@code RouterNotificationService.ingestDocument} and
+ * {@code checkAndNotifyChanges}. One operation ingests one update for every router in the fleet.
+ */
+@State(Scope.Benchmark)
+public class RouterChangeDiffBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int fleetSize;
+
+    /** Percentage of routers whose update differs from the stored state. */
+    @Param({"0", "5", "100"})
+    public int changedPercent;
+
+    private Fleet fleet;
+    private RouterState[] states;
+    // Two update versions per router; they differ only for changed routers, and alternating them
+    // keeps the amount of change the same in every invocation
+    private final String[][] firmware = new String[2][];
+    private final boolean[][] online = new boolean[2][];
+    private int version;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = new Fleet(fleetSize);
+        states = new RouterState[fleetSize];
+        firmware[0] = fleet.firmwareVersions;
+        firmware[1] = new String[fleetSize];
+        online[0] = new boolean[fleetSize];
+        online[1] = new boolean[fleetSize];
+        for (int i = 0; i < fleetSize; i++) {
+            boolean changed = i * 100L / fleetSize < changedPercent;
+            firmware[1][i] = changed ? fleet.firmwareVersions[i] + ".1" : fleet.firmwareVersions[i];
+            online[0][i] = true;
+            online[1][i] = !changed;
+            states[i] = new RouterState(fleet.names[i], fleet.models[i], fleet.firmwareVersions[i],
+                    fleet.ipAddresses[i], true);
+        }
+    }
+
+    @Benchmark
+    public void ingest(Blackhole blackhole) {
+        version ^= 1;
+        String[] firmwareVersions = firmware[version];
+        boolean[] statuses = online[version];
+        for (int i = 0; i < states.length; i++) {
+            RouterState previous = states[i];
+            String name = fleet.names[i];
+            String model = fleet.models[i];
+            String firmwareVersion = firmwareVersions[i];
+            String ip = fleet.ipAddresses[i];
+            boolean isOnline = statuses[i];
+
+            // Unchanged documents stop here, as in the service
+            if (previous.getFingerprint() == RouterState.fingerprint(name, model, firmwareVersion, ip, isOnline)) {
+                continue;
+            }
+            int changed = previous.diff(name, model, firmwareVersion, ip, isOnline);
+            if (changed != 0) {
+                blackhole.consume(previous.describeChanges(changed, name, model, firmwareVersion, ip, isOnline));
+            }
+            previous.update(name, model, firmwareVersion, ip, isOnline);
+        }
+    }
+}
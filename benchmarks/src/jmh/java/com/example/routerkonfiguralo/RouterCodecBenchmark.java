@@ -0,0 +1,100 @@
+package com.example.routerkonfiguralo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decoding router documents with {@link RouterCodec} against reflective bean mapping, which is
+ * how {@code DocumentSnapshot.toObject()} populates a class. A {@code DocumentSnapshot} cannot be
+ * created on the JVM, so the baseline mirrors the mapper on the same field maps: cached setters
+ * looked up by property name and invoked reflectively. One operation decodes the whole fleet.
+ */
+@State(Scope.Benchmark)
+public class RouterCodecBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int fleetSize;
+
+    private String[] ids;
+    private Map<String, Object>[] documents;
+    private ReflectiveMapper reflective;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Fleet fleet = new Fleet(fleetSize);
+        ids = new String[fleetSize];
+        documents = new Map[fleetSize];
+        for (int i = 0; i < fleetSize; i++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put(RouterCodec.FIELD_NAME, fleet.names[i]);
+            data.put(RouterCodec.FIELD_IP_ADDRESS, fleet.ipAddresses[i]);
+            data.put(RouterCodec.FIELD_USERNAME, "admin");
+            data.put(RouterCodec.FIELD_PASSWORD, "secret" + i);
+            data.put(RouterCodec.FIELD_MODEL, fleet.models[i]);
+            data.put(RouterCodec.FIELD_FIRMWARE_VERSION, fleet.firmwareVersions[i]);
+            data.put(RouterCodec.FIELD_IS_ONLINE, i % 3 == 0);
+            data.put(RouterCodec.FIELD_USER_ID, "user");
+            data.put(RouterCodec.FIELD_TIMESTAMP, 1_700_000_000_000L + i);
+            ids[i] = "r" + i;
+            documents[i] = data;
+        }
+        reflective = new ReflectiveMapper();
+    }
+
+    @Benchmark
+    public void codec(Blackhole blackhole) {
+        for (int i = 0; i < documents.length; i++) {
+            blackhole.consume(RouterCodec.decode(ids[i], documents[i]));
+        }
+    }
+
+    @Benchmark
+    public void reflective(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < documents.length; i++) {
+            Router router = reflective.map(documents[i]);
+            router.setId(ids[i]);
+            blackhole.consume(router);
+        }
+    }
+
+    /** Minimal stand-in for Firestore's bean mapper: property name to cached setter. */
+    private static class ReflectiveMapper {
+        private final Map<String, Method> setters = new HashMap<>();
+
+        ReflectiveMapper() {
+            for (Method method : Router.class.getMethods()) {
+                String name = method.getName();
+                if (name.startsWith("set") && method.getParameterTypes().length == 1) {
+                    String property = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+                    setters.put(property, method);
+                }
+            }
+            // Firestore derives "online" from setOnline; the documents use "isOnline"
+            setters.put(RouterCodec.FIELD_IS_ONLINE, setters.get("online"));
+        }
+
+        Router map(Map<String, Object> data) throws Exception {
+            Router router = Router.class.getDeclaredConstructor().newInstance();
+            for (Map.Entry<String, Object> field : data.entrySet()) {
+                Method setter = setters.get(field.getKey());
+                if (setter == null) continue;
+                Class<?> type = setter.getParameterTypes()[0];
+                Object value = field.getValue();
+                if (type == long.class && value instanceof Number) {
+                    value = ((Number) value).longValue();
+                }
+                setter.invoke(router, value);
+            }
+            return router;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.routerkonfiguralo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Building a fleet of {@link Router}s, which parses every address and firmware version, and
+ * churning their connected-device sets. One operation covers the whole fleet.
+ */
+@State(Scope.Benchmark)
+public class RouterModelBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int fleetSize;
+
+    private Fleet fleet;
+    private Router[] routers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = new Fleet(fleetSize);
+        routers = fleet.routers();
+    }
+
+    @Benchmark
+    public Router[] construct() {
+        return fleet.routers();
+    }
+
+    /** Connects eight devices to every router, then disconnects half of them again. */
+    @Benchmark
+    public int deviceChurn() {
+        int size = 0;
+        for (int i = 0; i < routers.length; i++) {
+            Router router = routers[i];
+            String[] devices = fleet.devices[i];
+            for (String device : devices) {
+                router.addConnectedDevice(device);
+            }
+            for (int d = 0; d < devices.length; d += 2) {
+                router.removeConnectedDevice(devices[d]);
+            }
+            size += router.getConnectedDevices().size();
+            router.getConnectedDevices().clear();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.routerkonfiguralo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The list screen's search: building {@link RouterSearchIndex} for the fleet, and one query of
+ * each kind it answers, against a plain substring scan over every router as the baseline.
+ */
+@State(Scope.Benchmark)
+public class RouterSearchBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int fleetSize;
+
+    /** A word prefix, a substring, an address prefix and a CIDR range. */
+    @Param({"of", "router b", "10.12", "10.12.0.0/16"})
+    public String query;
+
+    private Router[] routers;
+    private RouterSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        routers = new Fleet(fleetSize).routers();
+        index = build();
+    }
+
+    @Benchmark
+    public RouterSearchIndex build() {
+        RouterSearchIndex built = new RouterSearchIndex();
+        for (Router router : routers) {
+            built.put(router);
+        }
+        return built;
+    }
+
+    @Benchmark
+    public Set<String> search() {
+        return index.search(query);
+    }
+
+    /** Lower-cases and scans every router's name, model and address; ranges match nothing. */
+    @Benchmark
+    public Set<String> linearScan() {
+        String q = query.toLowerCase(Locale.ROOT);
+        Set<String> matches = new HashSet<>();
+        for (Router router : routers) {
+            if (contains(router.getName(), q) || contains(router.getModel(), q) || contains(router.getIpAddress(), q)) {
+                matches.add(router.getId());
+            }
+        }
+        return matches;
+    }
+
+    private static boolean contains(String value, String q) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(q);
+    }
+}
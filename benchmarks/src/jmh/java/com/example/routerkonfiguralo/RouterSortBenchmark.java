@@ -0,0 +1,54 @@
+package com.example.routerkonfiguralo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+
+/**
+ * Sorting the router list with the comparators behind the list screen's sort buttons. Each
+ * operation sorts a fresh copy of the fleet in its generated order; {@link #copyOnly} measures
+ * the copy alone so it can be subtracted.
+ */
+@State(Scope.Benchmark)
+public class RouterSortBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int fleetSize;
+
+    private Router[] routers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        routers = new Fleet(fleetSize).routers();
+    }
+
+    @Benchmark
+    public Router[] copyOnly() {
+        return routers.clone();
+    }
+
+    @Benchmark
+    public Router[] byName() {
+        Router[] sorted = routers.clone();
+        Arrays.sort(sorted, Router.BY_NAME);
+        return sorted;
+    }
+
+    @Benchmark
+    public Router[] byFirmware() {
+        Router[] sorted = routers.clone();
+        Arrays.sort(sorted, Router.BY_FIRMWARE);
+        return sorted;
+    }
+
+    @Benchmark
+    public Router[] byAddress() {
+        Router[] sorted = routers.clone();
+        Arrays.sort(sorted, Router.BY_ADDRESS);
+        return sorted;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.routerkonfiguralo.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Generates the app's Baseline Profile from the paths the benchmarks measure: signed-in startup,
+ * opening the router list and binding rows while scrolling it. Run it with
+ * {@code ./gradlew :app:generateBaselineProfile}; the result is saved into the app's sources.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+                BenchmarkSession.PACKAGE_NAME,
+                /* maxIterations = */ 15,
+                /* stableIterations = */ 3,
+                /* outputFilePrefix = */ null,
+                /* includeInStartupProfile = */ true,
+                scope -> {
+                    BenchmarkSession.startSignedIn(scope);
+                    BenchmarkSession.scrollRouterList(scope, BenchmarkSession.openRouterList(scope));
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.routerkonfiguralo.macrobenchmark;
+
+import android.os.Bundle;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * UI steps shared by the benchmarks: signing in to the benchmark account and opening and
+ * scrolling the router list.
+ *
+ * <p>The account is taken from the {@code benchmarkEmail} and {@code benchmarkPassword}
+ * instrumentation arguments. Its router list must already hold the seeded fleet, a few hundred
+ * routers so that flings never reach the end; generate one with {@code ./gradlew :benchmarks:fleetCsv} and
+ * load it once with the main screen's Import Routers button. Firebase keeps the session on the
+ * device between iterations, so the login form is only filled in on the first launch.
+ */
+final class BenchmarkSession {
+    static final String PACKAGE_NAME = "com.example.routerkonfiguralo";
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private BenchmarkSession() {
+    }
+
+    /** Cold-starts the app and leaves it on the main screen, signing in if needed. */
+    static void startSignedIn(MacrobenchmarkScope scope) {
+        scope.pressHome();
+        scope.startActivityAndWait();
+        UiDevice device = scope.getDevice();
+        if (device.wait(Until.hasObject(By.res(PACKAGE_NAME, "viewRoutersButton")), TIMEOUT_MILLIS)) {
+            return;
+        }
+        UiObject2 email = device.findObject(By.res(PACKAGE_NAME, "emailEditText"));
+        if (email == null) {
+            throw new IllegalStateException("Neither the main screen nor the login screen was shown");
+        }
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        String address = arguments.getString("benchmarkEmail");
+        String password = arguments.getString("benchmarkPassword");
+        if (address == null || password == null) {
+            throw new IllegalStateException(
+                    "Pass the benchmarkEmail and benchmarkPassword instrumentation arguments");
+        }
+        email.setText(address);
+        device.findObject(By.res(PACKAGE_NAME, "passwordEditText")).setText(password);
+        device.findObject(By.res(PACKAGE_NAME, "loginButton")).click();
+        if (!device.wait(Until.hasObject(By.res(PACKAGE_NAME, "viewRoutersButton")), TIMEOUT_MILLIS)) {
+            throw new IllegalStateException("Sign-in with the benchmark account failed");
+        }
+    }
+
+    /** From the main screen, opens the router list and waits for the fleet to be bound. */
+    static UiObject2 openRouterList(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.findObject(By.res(PACKAGE_NAME, "viewRoutersButton")).click();
+        UiObject2 list = device.wait(Until.findObject(By.res(PACKAGE_NAME, "routerRecyclerView")),
+                TIMEOUT_MILLIS);
+        if (list == null || !list.wait(Until.hasObject(By.res(PACKAGE_NAME, "routerName")),
+                TIMEOUT_MILLIS)) {
+            throw new IllegalStateException("The router list is empty; seed the benchmark account first");
+        }
+        // Keep gestures clear of the system navigation areas
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        return list;
+    }
+
+    /** Flings through the list and back, waiting for the frames to settle after each gesture. */
+    static void scrollRouterList(MacrobenchmarkScope scope, UiObject2 list) {
+        UiDevice device = scope.getDevice();
+        for (int i = 0; i < 3; i++) {
+            list.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+}
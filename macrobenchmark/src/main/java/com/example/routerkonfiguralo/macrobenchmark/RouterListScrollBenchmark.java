@@ -0,0 +1,60 @@
+package com.example.routerkonfiguralo.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Frame timing while flinging through the seeded router list, which binds {@code item_router}
+ * rows as they scroll in. Each iteration starts from a fresh process with the list open.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class RouterListScrollBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void scrollNoCompilation() {
+        scroll(new CompilationMode.None());
+    }
+
+    @Test
+    public void scrollBaselineProfile() {
+        scroll(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void scroll(CompilationMode compilationMode) {
+        UiObject2[] list = new UiObject2[1];
+        benchmarkRule.measureRepeated(
+                BenchmarkSession.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    BenchmarkSession.startSignedIn(scope);
+                    list[0] = BenchmarkSession.openRouterList(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    BenchmarkSession.scrollRouterList(scope, list[0]);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.routerkonfiguralo.macrobenchmark;
+
+import androidx.annotation.OptIn;
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.ExperimentalMetricApi;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * Launch time of the signed-in startup path: the launcher activity's auth check hands over to
+ * {@code MainActivity}, and the router list is opened from there. An iteration ends once the
+ * list shows its rows. {@link StartupTimingMetric} covers the launch up to the main screen and the
+ * {@code RouterListActivity.firstList} trace section the list from its creation to the first
+ * rows. Cold starts are measured with and without the Baseline Profile so its effect shows up
+ * directly.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void coldStartupNoCompilation() {
+        startup(new CompilationMode.None(), StartupMode.COLD);
+    }
+
+    @Test
+    public void coldStartupBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require), StartupMode.COLD);
+    }
+
+    @Test
+    public void warmStartupBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require), StartupMode.WARM);
+    }
+
+    // TraceSectionMetric is still marked experimental in this benchmark version
+    @OptIn(markerClass = ExperimentalMetricApi.class)
+    private void startup(CompilationMode compilationMode, StartupMode startupMode) {
+        benchmarkRule.measureRepeated(
+                BenchmarkSession.PACKAGE_NAME,
+                Arrays.asList(new StartupTimingMetric(),
+                        new TraceSectionMetric("RouterListActivity.firstList", TraceSectionMetric.Mode.First)),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    // Signs in once; later iterations find the session already in place
+                    BenchmarkSession.startSignedIn(scope);
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    // The list activity is not exported, so it is opened the way a user does
+                    BenchmarkSession.openRouterList(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}